@@ -0,0 +1,26 @@
+-- ============================================
+-- ACTUALIZACIÓN: Holds de reserva (vencimiento de reservas pendientes de pago)
+-- ============================================
+-- Una reserva 'pendiente' creada en el checkout retiene la habitación solo hasta
+-- expira_en; luego se cancela y sus noches vuelven a room_availability como disponibles.
+-- Las reservas existentes quedan con expira_en NULL: no tienen hold y siguen
+-- esperando la confirmación del anfitrión, igual que las de pago en el hotel.
+
+USE HotelDemo;
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[Reserva]') AND name = 'expira_en')
+BEGIN
+    ALTER TABLE [Reserva] ADD expira_en DATETIME2 NULL;
+END
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID(N'[Reserva]') AND name = 'IX_Reserva_Pendiente_Expira')
+BEGIN
+    CREATE INDEX IX_Reserva_Pendiente_Expira ON [Reserva](expira_en) WHERE estado = 'pendiente';
+END
+GO
+
+-- PostgreSQL (producción; con ddl-auto=update la columna se crea sola, el índice parcial no)
+-- ALTER TABLE reserva ADD COLUMN IF NOT EXISTS expira_en TIMESTAMP NULL;
+-- CREATE INDEX IF NOT EXISTS idx_reserva_pendiente_expira ON reserva(expira_en) WHERE estado = 'pendiente';
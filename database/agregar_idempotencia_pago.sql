@@ -0,0 +1,28 @@
+-- ============================================
+-- ACTUALIZACIÓN: Pagos idempotentes (clave Idempotency-Key por intento de pago)
+-- ============================================
+-- Un reintento del cliente con la misma clave devuelve el pago ya registrado
+-- en lugar de crear otro cargo. El índice UNIQUE cubre la carrera entre
+-- dos instancias de la API. (idempotencia_pago_por_usuario.sql lo reemplaza
+-- por uno por usuario.)
+
+USE HotelDemo;
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[Pago]') AND name = 'clave_idempotencia')
+BEGIN
+    ALTER TABLE [Pago] ADD clave_idempotencia NVARCHAR(100) NULL;
+END
+GO
+
+-- Índice filtrado: SQL Server trata los NULL como iguales en un UNIQUE
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID(N'[Pago]') AND name = 'UX_Pago_Clave_Idempotencia')
+   AND NOT EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID(N'[Pago]') AND name = 'UX_Pago_Usuario_Clave')
+BEGIN
+    CREATE UNIQUE INDEX UX_Pago_Clave_Idempotencia ON [Pago](clave_idempotencia) WHERE clave_idempotencia IS NOT NULL;
+END
+GO
+
+-- PostgreSQL (producción; con ddl-auto=update la columna se crea sola)
+-- ALTER TABLE pago ADD COLUMN IF NOT EXISTS clave_idempotencia VARCHAR(100) NULL;
+-- CREATE UNIQUE INDEX IF NOT EXISTS ux_pago_clave_idempotencia ON pago(clave_idempotencia);
@@ -0,0 +1,51 @@
+-- ============================================
+-- ACTUALIZACIÓN: Outbox transaccional (eventos de dominio pendientes de entrega)
+-- ============================================
+-- Los eventos (ej: reserva.confirmada) se insertan en la misma transacción que el
+-- cambio que los origina y OutboxDespachador los entrega en segundo plano.
+-- El índice filtrado mantiene barata la consulta de reclamo aunque la tabla
+-- acumule eventos procesados (se purgan a diario según app.outbox.retencion-dias).
+
+USE HotelDemo;
+GO
+
+IF OBJECT_ID(N'[outbox_evento]', N'U') IS NULL
+BEGIN
+    CREATE TABLE [outbox_evento] (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        tipo NVARCHAR(100) NOT NULL,
+        agregado NVARCHAR(50) NOT NULL,
+        agregado_id BIGINT NOT NULL,
+        payload NVARCHAR(4000) NULL,
+        estado NVARCHAR(20) NOT NULL DEFAULT ('pendiente')
+            CONSTRAINT CK_Outbox_Estado CHECK (estado IN ('pendiente', 'procesado', 'fallido')),
+        intentos INT NOT NULL DEFAULT 0,
+        ultimo_error NVARCHAR(500) NULL,
+        disponible_en DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+        creado_en DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+        procesado_en DATETIME2 NULL
+    );
+END
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID(N'[outbox_evento]') AND name = 'IX_Outbox_Pendiente')
+BEGIN
+    CREATE INDEX IX_Outbox_Pendiente ON [outbox_evento](disponible_en, id) WHERE estado = 'pendiente';
+END
+GO
+
+-- PostgreSQL (producción; con ddl-auto=update la tabla se crea sola, el índice parcial no)
+-- CREATE TABLE IF NOT EXISTS outbox_evento (
+--     id BIGSERIAL PRIMARY KEY,
+--     tipo VARCHAR(100) NOT NULL,
+--     agregado VARCHAR(50) NOT NULL,
+--     agregado_id BIGINT NOT NULL,
+--     payload VARCHAR(4000),
+--     estado VARCHAR(20) NOT NULL DEFAULT 'pendiente' CHECK (estado IN ('pendiente', 'procesado', 'fallido')),
+--     intentos INT NOT NULL DEFAULT 0,
+--     ultimo_error VARCHAR(500),
+--     disponible_en TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+--     creado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+--     procesado_en TIMESTAMP
+-- );
+-- CREATE INDEX IF NOT EXISTS idx_outbox_pendiente ON outbox_evento(disponible_en, id) WHERE estado = 'pendiente';
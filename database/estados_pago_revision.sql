@@ -0,0 +1,32 @@
+-- ============================================
+-- ACTUALIZACIÓN: Pagos en revisión (estados 'por_reembolsar' y 'por_verificar')
+-- ============================================
+-- Un cargo aprobado sobre una reserva que ya no estaba pendiente (cancelada o
+-- vencida mientras se cobraba) no confirma la reserva: el pago queda
+-- 'por_reembolsar' hasta que un administrador lo reembolse.
+-- Un cargo enviado sin respuesta de la pasarela (timeout, 5xx) o cuyo resultado no
+-- se pudo registrar pudo cobrarse: el pago queda 'por_verificar' y la reserva
+-- pendiente hasta conciliarlo (PATCH /api/pagos/{id}/verificacion).
+
+USE HotelDemo;
+GO
+
+-- El CHECK de Pago.estado se creó sin nombre en schema.sql: se busca y se reemplaza.
+DECLARE @check NVARCHAR(200);
+SELECT @check = cc.name
+FROM sys.check_constraints cc
+JOIN sys.columns c ON c.object_id = cc.parent_object_id AND c.column_id = cc.parent_column_id
+WHERE cc.parent_object_id = OBJECT_ID(N'[Pago]') AND c.name = 'estado';
+IF @check IS NOT NULL
+    EXEC('ALTER TABLE [Pago] DROP CONSTRAINT [' + @check + ']');
+GO
+
+ALTER TABLE [Pago] ADD CONSTRAINT CK_Pago_Estado
+    CHECK (estado IN ('pendiente', 'procesando', 'completado', 'fallido', 'reembolsado', 'por_reembolsar', 'por_verificar'));
+GO
+
+-- PostgreSQL (producción; ddl-auto=update no modifica el CHECK existente: ejecutar este bloque)
+-- El CHECK sin nombre de schema-postgresql.sql se llama pago_estado_check.
+-- ALTER TABLE pago DROP CONSTRAINT IF EXISTS pago_estado_check;
+-- ALTER TABLE pago ADD CONSTRAINT pago_estado_check
+--     CHECK (estado IN ('pendiente', 'procesando', 'completado', 'fallido', 'reembolsado', 'por_reembolsar', 'por_verificar'));
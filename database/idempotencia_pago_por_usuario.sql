@@ -0,0 +1,64 @@
+-- ============================================
+-- ACTUALIZACIÓN: La clave Idempotency-Key de los pagos es única por usuario
+-- ============================================
+-- Dos usuarios que envían la misma clave no deben ver ni bloquear el pago del otro:
+-- pago.usuario_id guarda quién envió el pago y el índice UNIQUE pasa a
+-- (usuario_id, clave_idempotencia). Los pagos anteriores se asignan al dueño de la reserva.
+
+USE HotelDemo;
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[Pago]') AND name = 'usuario_id')
+BEGIN
+    ALTER TABLE [Pago] ADD usuario_id BIGINT NULL
+        CONSTRAINT FK_Pago_Usuario FOREIGN KEY REFERENCES Usuario(id);
+END
+GO
+
+UPDATE p
+SET p.usuario_id = r.usuario_id
+FROM [Pago] p
+JOIN [Reserva] r ON r.id = p.reserva_id
+WHERE p.usuario_id IS NULL;
+GO
+
+IF EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID(N'[Pago]') AND name = 'UX_Pago_Clave_Idempotencia')
+BEGIN
+    DROP INDEX UX_Pago_Clave_Idempotencia ON [Pago];
+END
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE object_id = OBJECT_ID(N'[Pago]') AND name = 'UX_Pago_Usuario_Clave')
+BEGIN
+    CREATE UNIQUE INDEX UX_Pago_Usuario_Clave ON [Pago](usuario_id, clave_idempotencia)
+        WHERE clave_idempotencia IS NOT NULL;
+END
+GO
+
+-- PostgreSQL (producción)
+-- Con ddl-auto=update la columna y la restricción nueva se crean solas, pero la
+-- restricción UNIQUE anterior sobre clave_idempotencia no se borra: ejecutar este bloque.
+-- ALTER TABLE pago ADD COLUMN IF NOT EXISTS usuario_id BIGINT NULL REFERENCES usuario(id);
+-- UPDATE pago p SET usuario_id = r.usuario_id
+-- FROM reserva r
+-- WHERE r.id = p.reserva_id AND p.usuario_id IS NULL;
+--
+-- DROP INDEX IF EXISTS ux_pago_clave_idempotencia;
+-- DO $$
+-- DECLARE
+--     restriccion TEXT;
+-- BEGIN
+--     -- UNIQUE de una sola columna (schema-postgresql.sql o Hibernate), de nombre generado
+--     FOR restriccion IN
+--         SELECT c.conname
+--         FROM pg_constraint c
+--         JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+--         WHERE c.conrelid = 'pago'::regclass AND c.contype = 'u'
+--           AND array_length(c.conkey, 1) = 1 AND a.attname = 'clave_idempotencia'
+--     LOOP
+--         EXECUTE format('ALTER TABLE pago DROP CONSTRAINT %I', restriccion);
+--     END LOOP;
+-- END $$;
+--
+-- ALTER TABLE pago DROP CONSTRAINT IF EXISTS ux_pago_usuario_clave;
+-- ALTER TABLE pago ADD CONSTRAINT ux_pago_usuario_clave UNIQUE (usuario_id, clave_idempotencia);
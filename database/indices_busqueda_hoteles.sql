@@ -0,0 +1,32 @@
+-- =============================================
+-- Índices de la búsqueda de hoteles (GET /api/hotels)
+-- =============================================
+-- HotelRepositoryImpl arma la consulta solo con los filtros presentes; cada forma
+-- de predicado tiene aquí su índice. Los parciales usan el mismo filtro fijo de la
+-- búsqueda (estado = 'aprobado' AND eliminado_en IS NULL).
+-- Ya existentes y reutilizados: idx_hotel_precio, idx_hotel_destacado,
+-- idx_reserva_habitacion_fechas (anti-join de fechas), la PK (hotel_id, amenity_id)
+-- de hotel_amenity (amenidades) y la restricción única (habitacion_id, fecha) de
+-- room_availability (noches bloqueadas).
+
+-- PostgreSQL
+-- ciudad / país por prefijo, sin distinguir mayúsculas (LIKE 'lima%')
+CREATE INDEX IF NOT EXISTS idx_direccion_ciudad_prefijo ON direccion(LOWER(ciudad) varchar_pattern_ops, LOWER(pais) varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_direccion_pais_prefijo ON direccion(LOWER(pais) varchar_pattern_ops);
+-- radio: caja de latitud/longitud
+CREATE INDEX IF NOT EXISTS idx_direccion_coordenadas ON direccion(latitud, longitud) WHERE latitud IS NOT NULL;
+-- orden por defecto (puntuación) y filtros de estrellas / puntuación mínima
+CREATE INDEX IF NOT EXISTS idx_hotel_aprobado_puntuacion ON hotel(puntuacion_promedio DESC, id) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+CREATE INDEX IF NOT EXISTS idx_hotel_aprobado_estrellas ON hotel(estrellas, puntuacion_promedio DESC) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+-- habitaciones con capacidad por hotel (EXISTS de disponibilidad)
+CREATE INDEX IF NOT EXISTS idx_habitacion_hotel_capacidad ON habitacion(hotel_id, capacidad) WHERE eliminado_en IS NULL AND estado = 'disponible';
+-- imagen principal de cada tarjeta
+CREATE INDEX IF NOT EXISTS idx_hotel_imagen_principal ON hotel_imagen(hotel_id, id) WHERE es_principal = TRUE;
+
+-- SQL Server (colación sin distinción de mayúsculas: LOWER no es necesario en el índice)
+-- CREATE INDEX IX_Direccion_Coordenadas ON [Direccion](latitud, longitud) WHERE latitud IS NOT NULL;
+-- CREATE INDEX IX_Hotel_Estado_Puntuacion ON [Hotel](estado, puntuacion_promedio) WHERE eliminado_en IS NULL;
+-- CREATE INDEX IX_Hotel_Estado_Estrellas ON [Hotel](estado, estrellas, puntuacion_promedio) WHERE eliminado_en IS NULL;
+-- CREATE INDEX IX_Habitacion_Hotel_Capacidad ON [Habitacion](hotel_id, estado, capacidad) WHERE eliminado_en IS NULL;
+-- CREATE INDEX IX_Hotel_Imagen_Principal ON [hotel_imagen](hotel_id, id) WHERE es_principal = 1;
+-- GO
@@ -0,0 +1,26 @@
+-- =============================================
+-- Índices de la paginación por cursor (?cursor=)
+-- =============================================
+-- Cada página se pide como "clave después del valor del cursor, o igual y con id
+-- posterior", con una cota (clave <= valor) que deja empezar a recorrer el índice en
+-- el cursor: con estos índices la página 1000 cuesta lo mismo que la primera.
+-- Las reservas de un hotel pasan por habitacion y siguen usando idx_reserva_habitacion_fechas.
+
+-- PostgreSQL
+-- reviews de un hotel (GET /api/reviews/hotel/{hotelId}); reemplaza a idx_review_hotel
+CREATE INDEX IF NOT EXISTS idx_review_hotel_creado ON review(hotel_id, creado_en DESC, id DESC) WHERE eliminado_en IS NULL;
+DROP INDEX IF EXISTS idx_review_hotel;
+-- reservas del usuario (GET /api/reservas/mis-reservas)
+CREATE INDEX IF NOT EXISTS idx_reserva_usuario_creado ON reserva(usuario_id, creado_en DESC, id DESC);
+-- listado de hoteles (GET /api/hotels): orden por defecto (puntuación) y por precio; los nulos cuentan como 0
+CREATE INDEX IF NOT EXISTS idx_hotel_aprobado_puntuacion_cursor ON hotel((COALESCE(puntuacion_promedio, 0)) DESC, id) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+CREATE INDEX IF NOT EXISTS idx_hotel_aprobado_precio_cursor ON hotel((COALESCE(precio_minimo, 0)), id) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+
+-- SQL Server (las expresiones COALESCE se indexan mediante columnas calculadas)
+-- DROP INDEX IX_Review_Hotel ON [Review];
+-- CREATE INDEX IX_Review_Hotel ON [Review](hotel_id, creado_en DESC, id DESC) WHERE eliminado_en IS NULL;
+-- CREATE INDEX IX_Reserva_Usuario_Creado ON [Reserva](usuario_id, creado_en DESC, id DESC);
+-- ALTER TABLE [Hotel] ADD puntuacion_orden AS COALESCE(puntuacion_promedio, 0), precio_orden AS COALESCE(precio_minimo, 0);
+-- CREATE INDEX IX_Hotel_Puntuacion_Cursor ON [Hotel](estado, puntuacion_orden DESC, id) WHERE eliminado_en IS NULL;
+-- CREATE INDEX IX_Hotel_Precio_Cursor ON [Hotel](estado, precio_orden, id) WHERE eliminado_en IS NULL;
+-- GO
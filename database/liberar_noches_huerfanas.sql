@@ -0,0 +1,20 @@
+-- =============================================
+-- FIX: Liberar noches reservadas sin reserva activa
+-- =============================================
+-- Antes las reservas bloqueaban también el día de checkout y las cancelaciones
+-- no liberaban room_availability. Con las noches reclamadas [checkin, checkout)
+-- esas filas impedirían nuevas reservas, así que se devuelven a 'disponible'.
+-- Compatible con PostgreSQL y SQL Server.
+
+UPDATE room_availability
+SET estado = 'disponible',
+    actualizado_en = CURRENT_TIMESTAMP
+WHERE estado = 'reservado'
+  AND NOT EXISTS (
+      SELECT 1
+      FROM reserva r
+      WHERE r.habitacion_id = room_availability.habitacion_id
+        AND r.estado IN ('pendiente', 'confirmada')
+        AND r.fecha_checkin <= room_availability.fecha
+        AND r.fecha_checkout > room_availability.fecha
+  );
@@ -0,0 +1,25 @@
+-- ============================================
+-- ACTUALIZACIÓN: Respaldo base64 de las imágenes migradas a archivos
+-- ============================================
+-- La migración de imágenes base64 a archivos conserva el base64 original en
+-- base64_respaldo hasta confirmar que el archivo sobrevivió a un reinicio
+-- (POST /api/admin/imagenes/confirmar-migracion o al arrancar).
+
+USE HotelDemo;
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[HotelImagen]') AND name = 'base64_respaldo')
+BEGIN
+    ALTER TABLE [HotelImagen] ADD base64_respaldo NVARCHAR(MAX) NULL;
+END
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE object_id = OBJECT_ID(N'[HabitacionImagen]') AND name = 'base64_respaldo')
+BEGIN
+    ALTER TABLE [HabitacionImagen] ADD base64_respaldo NVARCHAR(MAX) NULL;
+END
+GO
+
+-- PostgreSQL (producción; con ddl-auto=update las columnas se crean solas)
+-- ALTER TABLE hotel_imagen ADD COLUMN IF NOT EXISTS base64_respaldo TEXT NULL;
+-- ALTER TABLE habitacion_imagen ADD COLUMN IF NOT EXISTS base64_respaldo TEXT NULL;
@@ -44,6 +44,9 @@ CREATE TABLE IF NOT EXISTS direccion (
 
 -- Índice para búsquedas por ciudad/país
 CREATE INDEX idx_direccion_ciudad ON direccion(ciudad, pais);
+CREATE INDEX idx_direccion_ciudad_prefijo ON direccion(LOWER(ciudad) varchar_pattern_ops, LOWER(pais) varchar_pattern_ops);
+CREATE INDEX idx_direccion_pais_prefijo ON direccion(LOWER(pais) varchar_pattern_ops);
+CREATE INDEX idx_direccion_coordenadas ON direccion(latitud, longitud) WHERE latitud IS NOT NULL;
 
 -- Tabla Hotel
 CREATE TABLE IF NOT EXISTS hotel (
@@ -73,6 +76,10 @@ CREATE INDEX idx_hotel_propietario ON hotel(propietario_id) WHERE eliminado_en I
 CREATE INDEX idx_hotel_estado ON hotel(estado) WHERE eliminado_en IS NULL;
 CREATE INDEX idx_hotel_precio ON hotel(precio_minimo, precio_maximo) WHERE eliminado_en IS NULL AND estado = 'aprobado';
 CREATE INDEX idx_hotel_destacado ON hotel(destacado, puntuacion_promedio DESC) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+CREATE INDEX idx_hotel_aprobado_puntuacion ON hotel(puntuacion_promedio DESC, id) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+CREATE INDEX idx_hotel_aprobado_estrellas ON hotel(estrellas, puntuacion_promedio DESC) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+CREATE INDEX idx_hotel_aprobado_puntuacion_cursor ON hotel((COALESCE(puntuacion_promedio, 0)) DESC, id) WHERE eliminado_en IS NULL AND estado = 'aprobado';
+CREATE INDEX idx_hotel_aprobado_precio_cursor ON hotel((COALESCE(precio_minimo, 0)), id) WHERE eliminado_en IS NULL AND estado = 'aprobado';
 
 -- Tabla TipoHabitacion
 CREATE TABLE IF NOT EXISTS tipo_habitacion (
@@ -106,6 +113,7 @@ CREATE TABLE IF NOT EXISTS habitacion (
 -- Índice único por hotel+numero
 CREATE UNIQUE INDEX ux_habitacion_hotel_numero ON habitacion(hotel_id, numero) WHERE eliminado_en IS NULL;
 CREATE INDEX idx_habitacion_precio ON habitacion(precio_base, capacidad) WHERE eliminado_en IS NULL;
+CREATE INDEX idx_habitacion_hotel_capacidad ON habitacion(hotel_id, capacidad) WHERE eliminado_en IS NULL AND estado = 'disponible';
 
 -- =============================================
 -- TABLAS DE TARIFAS Y DISPONIBILIDAD
@@ -164,6 +172,7 @@ CREATE TABLE IF NOT EXISTS reserva (
     notas_especiales TEXT,
     fecha_cancelacion TIMESTAMP,
     motivo_cancelacion VARCHAR(500),
+    expira_en TIMESTAMP,
     nombre_huesped VARCHAR(200),
     email_huesped VARCHAR(200),
     telefono_huesped VARCHAR(20),
@@ -177,8 +186,10 @@ CREATE TABLE IF NOT EXISTS reserva (
 -- Índices para buscar reservas
 CREATE INDEX idx_reserva_habitacion_fechas ON reserva(habitacion_id, fecha_checkin, fecha_checkout);
 CREATE INDEX idx_reserva_usuario ON reserva(usuario_id, estado);
+CREATE INDEX idx_reserva_usuario_creado ON reserva(usuario_id, creado_en DESC, id DESC);
 CREATE INDEX idx_reserva_codigo ON reserva(codigo_reserva);
 CREATE INDEX idx_reserva_estado_fechas ON reserva(estado, fecha_checkin) WHERE estado IN ('confirmada', 'pendiente');
+CREATE INDEX idx_reserva_pendiente_expira ON reserva(expira_en) WHERE estado = 'pendiente';
 
 -- Tabla Pago
 CREATE TABLE IF NOT EXISTS pago (
@@ -187,13 +198,17 @@ CREATE TABLE IF NOT EXISTS pago (
     monto DECIMAL(12,2) NOT NULL,
     moneda VARCHAR(10) NOT NULL DEFAULT 'PEN',
     metodo VARCHAR(50) CHECK (metodo IN ('tarjeta', 'paypal', 'transferencia', 'efectivo', 'yape', 'plin')),
-    estado VARCHAR(30) NOT NULL DEFAULT 'pendiente' CHECK (estado IN ('pendiente', 'procesando', 'completado', 'fallido', 'reembolsado')),
+    estado VARCHAR(30) NOT NULL DEFAULT 'pendiente' CHECK (estado IN ('pendiente', 'procesando', 'completado', 'fallido', 'reembolsado', 'por_reembolsar', 'por_verificar')),
     transaccion_id VARCHAR(200),
     proveedor_pago VARCHAR(100),
     fecha_pago TIMESTAMP,
+    usuario_id BIGINT,
+    clave_idempotencia VARCHAR(100),
     creado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     actualizado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    CONSTRAINT fk_pago_reserva FOREIGN KEY (reserva_id) REFERENCES reserva(id)
+    CONSTRAINT fk_pago_reserva FOREIGN KEY (reserva_id) REFERENCES reserva(id),
+    CONSTRAINT fk_pago_usuario FOREIGN KEY (usuario_id) REFERENCES usuario(id),
+    CONSTRAINT ux_pago_usuario_clave UNIQUE (usuario_id, clave_idempotencia)
 );
 
 CREATE INDEX idx_pago_reserva ON pago(reserva_id);
@@ -266,7 +281,7 @@ CREATE TABLE IF NOT EXISTS review (
     CONSTRAINT fk_review_reserva FOREIGN KEY (reserva_id) REFERENCES reserva(id)
 );
 
-CREATE INDEX idx_review_hotel ON review(hotel_id, creado_en DESC) WHERE eliminado_en IS NULL;
+CREATE INDEX idx_review_hotel_creado ON review(hotel_id, creado_en DESC, id DESC) WHERE eliminado_en IS NULL;
 CREATE INDEX idx_review_usuario ON review(usuario_id) WHERE eliminado_en IS NULL;
 CREATE UNIQUE INDEX ux_review_reserva ON review(reserva_id) WHERE reserva_id IS NOT NULL AND eliminado_en IS NULL;
 
@@ -275,6 +290,7 @@ CREATE TABLE IF NOT EXISTS hotel_imagen (
     id BIGSERIAL PRIMARY KEY,
     hotel_id BIGINT NOT NULL,
     url VARCHAR(500) NOT NULL,
+    base64_respaldo TEXT,
     alt_text VARCHAR(300),
     tipo VARCHAR(50) DEFAULT 'general',
     orden INTEGER DEFAULT 0,
@@ -285,12 +301,14 @@ CREATE TABLE IF NOT EXISTS hotel_imagen (
 );
 
 CREATE INDEX idx_hotel_imagen_hotel ON hotel_imagen(hotel_id, orden);
+CREATE INDEX idx_hotel_imagen_principal ON hotel_imagen(hotel_id, id) WHERE es_principal = TRUE;
 
 -- Tabla HabitacionImagen
 CREATE TABLE IF NOT EXISTS habitacion_imagen (
     id BIGSERIAL PRIMARY KEY,
     habitacion_id BIGINT NOT NULL,
     url VARCHAR(500) NOT NULL,
+    base64_respaldo TEXT,
     alt_text VARCHAR(300),
     orden INTEGER DEFAULT 0,
     es_principal BOOLEAN DEFAULT FALSE,
@@ -322,6 +340,25 @@ CREATE TABLE IF NOT EXISTS audit_log (
 
 CREATE INDEX idx_audit_log_tabla_registro ON audit_log(tabla, registro_id, creado_en DESC);
 
+-- =============================================
+-- TABLA: outbox_evento
+-- =============================================
+CREATE TABLE IF NOT EXISTS outbox_evento (
+    id BIGSERIAL PRIMARY KEY,
+    tipo VARCHAR(100) NOT NULL,
+    agregado VARCHAR(50) NOT NULL,
+    agregado_id BIGINT NOT NULL,
+    payload VARCHAR(4000),
+    estado VARCHAR(20) NOT NULL DEFAULT 'pendiente' CHECK (estado IN ('pendiente', 'procesado', 'fallido')),
+    intentos INT NOT NULL DEFAULT 0,
+    ultimo_error VARCHAR(500),
+    disponible_en TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    creado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    procesado_en TIMESTAMP
+);
+
+CREATE INDEX idx_outbox_pendiente ON outbox_evento(disponible_en, id) WHERE estado = 'pendiente';
+
 -- Tabla de Configuración del Sistema
 CREATE TABLE IF NOT EXISTS configuracion_sistema (
     id BIGSERIAL PRIMARY KEY,
@@ -188,6 +188,7 @@ CREATE TABLE [Reserva] (
     notas_especiales NVARCHAR(MAX) NULL,
     fecha_cancelacion DATETIME2 NULL,
     motivo_cancelacion NVARCHAR(500) NULL,
+    expira_en DATETIME2 NULL, -- Vencimiento del hold del checkout (NULL = sin hold)
     creado_en DATETIME2 DEFAULT SYSUTCDATETIME(),
     actualizado_en DATETIME2 DEFAULT SYSUTCDATETIME(),
     CONSTRAINT FK_Reserva_Usuario FOREIGN KEY (usuario_id) REFERENCES Usuario(id),
@@ -201,6 +202,7 @@ CREATE INDEX IX_Reserva_Habitacion_Fechas ON Reserva(habitacion_id, fecha_checki
 CREATE INDEX IX_Reserva_Usuario ON Reserva(usuario_id, estado);
 CREATE INDEX IX_Reserva_Codigo ON Reserva(codigo_reserva);
 CREATE INDEX IX_Reserva_Estado_Fechas ON Reserva(estado, fecha_checkin) WHERE estado IN ('confirmada', 'pendiente');
+CREATE INDEX IX_Reserva_Pendiente_Expira ON Reserva(expira_en) WHERE estado = 'pendiente';
 GO
 
 -- Tabla Pago
@@ -211,18 +213,22 @@ CREATE TABLE [Pago] (
     moneda NVARCHAR(10) NOT NULL DEFAULT ('PEN'),
     metodo NVARCHAR(50) NULL CHECK (metodo IN ('tarjeta', 'paypal', 'transferencia', 'efectivo', 'yape', 'plin')),
     estado NVARCHAR(30) NOT NULL DEFAULT ('pendiente')
-        CHECK (estado IN ('pendiente', 'procesando', 'completado', 'fallido', 'reembolsado')),
+        CONSTRAINT CK_Pago_Estado CHECK (estado IN ('pendiente', 'procesando', 'completado', 'fallido', 'reembolsado', 'por_reembolsar', 'por_verificar')),
     transaccion_id NVARCHAR(200) NULL,
     proveedor_pago NVARCHAR(100) NULL, -- Stripe, PayPal, Culqi, etc.
     fecha_pago DATETIME2 NULL,
+    usuario_id BIGINT NULL, -- Usuario que envió el pago
+    clave_idempotencia NVARCHAR(100) NULL, -- Cabecera Idempotency-Key del cliente
     creado_en DATETIME2 DEFAULT SYSUTCDATETIME(),
     actualizado_en DATETIME2 DEFAULT SYSUTCDATETIME(),
-    CONSTRAINT FK_Pago_Reserva FOREIGN KEY (reserva_id) REFERENCES Reserva(id)
+    CONSTRAINT FK_Pago_Reserva FOREIGN KEY (reserva_id) REFERENCES Reserva(id),
+    CONSTRAINT FK_Pago_Usuario FOREIGN KEY (usuario_id) REFERENCES Usuario(id)
 );
 GO
 
 CREATE INDEX IX_Pago_Reserva ON Pago(reserva_id);
 CREATE INDEX IX_Pago_Estado ON Pago(estado, fecha_pago);
+CREATE UNIQUE INDEX UX_Pago_Usuario_Clave ON Pago(usuario_id, clave_idempotencia) WHERE clave_idempotencia IS NOT NULL;
 GO
 
 -- =============================================
@@ -306,6 +312,7 @@ CREATE TABLE [HotelImagen] (
     id BIGINT IDENTITY(1,1) PRIMARY KEY,
     hotel_id BIGINT NOT NULL,
     url NVARCHAR(500) NOT NULL,
+    base64_respaldo NVARCHAR(MAX) NULL, -- base64 original hasta confirmar el archivo migrado
     alt_text NVARCHAR(300) NULL,
     tipo NVARCHAR(50) DEFAULT 'general', -- 'portada', 'general', 'lobby', 'exterior'
     orden INT DEFAULT 0,
@@ -324,6 +331,7 @@ CREATE TABLE [HabitacionImagen] (
     id BIGINT IDENTITY(1,1) PRIMARY KEY,
     habitacion_id BIGINT NOT NULL,
     url NVARCHAR(500) NOT NULL,
+    base64_respaldo NVARCHAR(MAX) NULL, -- base64 original hasta confirmar el archivo migrado
     alt_text NVARCHAR(300) NULL,
     orden INT DEFAULT 0,
     es_principal BIT DEFAULT 0,
@@ -359,6 +367,26 @@ GO
 CREATE INDEX IX_AuditLog_Tabla_Registro ON AuditLog(tabla, registro_id, creado_en DESC);
 GO
 
+-- NUEVA: Outbox de eventos de dominio (se insertan en la transacción del cambio y se entregan en segundo plano)
+CREATE TABLE [outbox_evento] (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    tipo NVARCHAR(100) NOT NULL, -- 'reserva.confirmada', ...
+    agregado NVARCHAR(50) NOT NULL, -- 'reserva', 'pago', 'hotel'
+    agregado_id BIGINT NOT NULL,
+    payload NVARCHAR(4000) NULL, -- JSON
+    estado NVARCHAR(20) NOT NULL DEFAULT ('pendiente')
+        CONSTRAINT CK_Outbox_Estado CHECK (estado IN ('pendiente', 'procesado', 'fallido')),
+    intentos INT NOT NULL DEFAULT 0,
+    ultimo_error NVARCHAR(500) NULL,
+    disponible_en DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+    creado_en DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+    procesado_en DATETIME2 NULL
+);
+GO
+
+CREATE INDEX IX_Outbox_Pendiente ON outbox_evento(disponible_en, id) WHERE estado = 'pendiente';
+GO
+
 -- NUEVA: Tabla de Configuración del Sistema
 CREATE TABLE [ConfiguracionSistema] (
     id BIGINT IDENTITY(1,1) PRIMARY KEY,
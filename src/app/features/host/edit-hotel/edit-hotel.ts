@@ -2,6 +2,7 @@ import { Component, OnInit } from '@angular/core';
 import { ActivatedRoute, Router } from '@angular/router';
 import { HotelService } from '../../../core/services/hotel.service';
 import { AuthService } from '../../../core/services/auth.service';
+import { esUrlImagen, urlImagen } from '../../../shared/pipes/safe-image.pipe';
 
 interface HotelFormData {
   nombre: string;
@@ -91,7 +92,9 @@ export class EditHotel implements OnInit {
           if (hotel.imagenPrincipal) {
             this.currentImage = hotel.imagenPrincipal;
             // Mostrar en el preview
-            if (hotel.imagenPrincipal.startsWith('data:image')) {
+            if (esUrlImagen(hotel.imagenPrincipal)) {
+              this.imagePreview = urlImagen(hotel.imagenPrincipal);
+            } else if (hotel.imagenPrincipal.startsWith('data:image')) {
               this.imagePreview = hotel.imagenPrincipal;
             } else {
               // Si es base64 sin prefijo, agregarlo
@@ -100,7 +103,9 @@ export class EditHotel implements OnInit {
           } else if (hotel.imagenes && hotel.imagenes.length > 0) {
             // Si no hay imagenPrincipal, usar la primera de imagenes
             this.currentImage = hotel.imagenes[0];
-            if (hotel.imagenes[0].startsWith('data:image')) {
+            if (esUrlImagen(hotel.imagenes[0])) {
+              this.imagePreview = urlImagen(hotel.imagenes[0]);
+            } else if (hotel.imagenes[0].startsWith('data:image')) {
               this.imagePreview = hotel.imagenes[0];
             } else {
               this.imagePreview = `data:image/jpeg;base64,${hotel.imagenes[0]}`;
@@ -229,7 +234,9 @@ export class EditHotel implements OnInit {
     
     // Restaurar imagen original si existe
     if (this.currentImage) {
-      if (this.currentImage.startsWith('data:image')) {
+      if (esUrlImagen(this.currentImage)) {
+        this.imagePreview = urlImagen(this.currentImage);
+      } else if (this.currentImage.startsWith('data:image')) {
         this.imagePreview = this.currentImage;
       } else {
         this.imagePreview = `data:image/jpeg;base64,${this.currentImage}`;
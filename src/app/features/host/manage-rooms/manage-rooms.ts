@@ -2,6 +2,7 @@ import { Component, OnInit } from '@angular/core';
 import { ActivatedRoute, Router } from '@angular/router';
 import { RoomService, Room, RoomRequest } from '../../../core/services/room.service';
 import { HotelService } from '../../../core/services/hotel.service';
+import { esUrlImagen, urlImagen } from '../../../shared/pipes/safe-image.pipe';
 
 @Component({
   selector: 'app-manage-rooms',
@@ -47,7 +48,7 @@ export class ManageRooms implements OnInit {
 
   // Variables para manejo de imágenes múltiples
   selectedImages: File[] = [];
-  imagePreviews: { file: File, preview: string }[] = [];
+  imagePreviews: { file: File, preview: string, url?: string }[] = [];
   
   // Índice actual del carrusel para cada habitación
   currentImageIndex: { [key: number]: number } = {};
@@ -160,7 +161,8 @@ export class ManageRooms implements OnInit {
       room.imagenes.forEach((img, index) => {
         this.imagePreviews.push({
           file: new File([], `imagen-${index + 1}.jpg`),
-          preview: `data:image/jpeg;base64,${img}`
+          preview: esUrlImagen(img) ? urlImagen(img) : `data:image/jpeg;base64,${img}`,
+          url: esUrlImagen(img) ? img : undefined
         });
       });
     }
@@ -185,13 +187,13 @@ export class ManageRooms implements OnInit {
     // Preparar las imágenes: primera es principal, resto son adicionales
     if (this.imagePreviews.length > 0) {
       // Primera imagen como principal (sin el prefijo data:image/...)
-      this.roomData.imagen = this.imagePreviews[0].preview.split(',')[1];
+      this.roomData.imagen = this.imagePreviews[0].url ?? this.imagePreviews[0].preview.split(',')[1];
       
       // Resto de imágenes como adicionales
       if (this.imagePreviews.length > 1) {
         this.roomData.imagenes = this.imagePreviews
           .slice(1)
-          .map(img => img.preview.split(',')[1]);
+          .map(img => img.url ?? img.preview.split(',')[1]);
       }
     }
 
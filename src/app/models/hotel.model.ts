@@ -15,6 +15,8 @@ export interface Hotel {
   propietario: PropietarioDTO;
   imagen?: string;
   imagenPrincipal?: string;
+  miniatura?: string;
+  variantes?: { [ancho: string]: string };
   imagenes?: string[];
   precioDesde?: number;
   amenidades?: Amenidad[];
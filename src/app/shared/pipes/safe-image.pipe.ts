@@ -1,6 +1,23 @@
 import { Pipe, PipeTransform } from '@angular/core';
 import { DomSanitizer, SafeUrl } from '@angular/platform-browser';
 
+const API_HOST = 'http://localhost:8080';
+
+/**
+ * Indica si el valor es una URL (absoluta o servida por el backend en /api/imagenes)
+ * y no un payload base64.
+ */
+export function esUrlImagen(value: string): boolean {
+  return value.startsWith('http://') || value.startsWith('https://') || value.startsWith('/api/');
+}
+
+/**
+ * Convierte las rutas relativas del backend en URLs absolutas
+ */
+export function urlImagen(value: string): string {
+  return value.startsWith('/api/') ? `${API_HOST}${value}` : value;
+}
+
 @Pipe({
   name: 'safeImage',
   standalone: false
@@ -18,9 +35,9 @@ export class SafeImagePipe implements PipeTransform {
       return this.sanitizer.bypassSecurityTrustUrl(value);
     }
 
-    // Si es una URL completa (http/https), devolverla tal cual
-    if (value.startsWith('http://') || value.startsWith('https://')) {
-      return value;
+    // Si es una URL completa (http/https) o una imagen almacenada en el backend
+    if (esUrlImagen(value)) {
+      return urlImagen(value);
     }
 
     // Si es base64 sin prefijo, agregarlo
@@ -0,0 +1,142 @@
+package com.example.PROYECTO.FINAL_WEB.busqueda;
+
+import com.example.PROYECTO.FINAL_WEB.dto.response.SugerenciaResponse;
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
+import com.example.PROYECTO.FINAL_WEB.repository.HotelRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sugerencias de destino (ciudades) y de hoteles mientras se escribe en el buscador.
+ * Se sirven de una instantánea inmutable (TrieSugerencias + ranking) sin consultar la BD:
+ * las ciudades pesan por su cantidad de hoteles aprobados y van antes que los hoteles.
+ * Un hotel aprobado, modificado o eliminado marca la instantánea como vencida y la tarea
+ * programada la reconstruye en segundo plano; además se recarga cada max-antiguedad-ms para
+ * recoger cambios de otras instancias.
+ */
+@Slf4j
+@Component
+public class AutocompletadoDestinos {
+
+    public static final String TIPO_CIUDAD = "ciudad";
+    public static final String TIPO_HOTEL = "hotel";
+
+    private static final Set<String> MOTIVOS_VENCIMIENTO = Set.of("actualizado", "aprobado", "rechazado", "eliminado");
+
+    private final HotelRepository hotelRepository;
+    private final TransactionTemplate lectura;
+    private final long maxAntiguedadMs;
+
+    // La primera carga también la hace la tarea programada, sin demorar el arranque
+    private final AtomicBoolean vencida = new AtomicBoolean(true);
+    private volatile Instantanea instantanea = new Instantanea(TrieSugerencias.VACIO, List.of());
+    private volatile long cargadaEn;
+
+    public AutocompletadoDestinos(HotelRepository hotelRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.autocompletado.max-antiguedad-ms:600000}") long maxAntiguedadMs) {
+        this.hotelRepository = hotelRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.maxAntiguedadMs = maxAntiguedadMs;
+    }
+
+    /**
+     * Hasta limite sugerencias para el texto escrito (sin distinguir mayúsculas ni tildes)
+     */
+    public List<SugerenciaResponse> sugerir(String texto, int limite) {
+        String prefijo = TrieSugerencias.normalizar(texto);
+        if (prefijo.isEmpty()) {
+            return List.of();
+        }
+        Instantanea actual = instantanea;
+        int[] indices = actual.trie().buscar(prefijo);
+        List<SugerenciaResponse> resultado = new ArrayList<>(Math.min(indices.length, limite));
+        for (int i = 0; i < indices.length && i < limite; i++) {
+            resultado.add(actual.sugerencias().get(indices[i]));
+        }
+        return resultado;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHotelModificado(HotelModificadoEvent evento) {
+        if (MOTIVOS_VENCIMIENTO.contains(evento.getMotivo())) {
+            vencida.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.autocompletado.revision-ms:5000}")
+    public void revisar() {
+        boolean antigua = System.currentTimeMillis() - cargadaEn >= maxAntiguedadMs;
+        if (vencida.getAndSet(false) || antigua) {
+            reconstruir();
+        }
+    }
+
+    private void reconstruir() {
+        try {
+            long inicio = System.currentTimeMillis();
+            List<SugerenciaResponse> sugerencias = lectura.execute(status -> cargarSugerencias());
+            List<TrieSugerencias.Clave> claves = new ArrayList<>();
+            for (int i = 0; i < sugerencias.size(); i++) {
+                TrieSugerencias.agregarClaves(sugerencias.get(i).getTexto(), i, claves);
+            }
+            instantanea = new Instantanea(TrieSugerencias.construir(claves), List.copyOf(sugerencias));
+            cargadaEn = System.currentTimeMillis();
+            log.debug("Autocompletado reconstruido: {} sugerencias, {} claves en {} ms",
+                    sugerencias.size(), claves.size(), cargadaEn - inicio);
+        } catch (RuntimeException e) {
+            vencida.set(true);
+            log.error("No se pudo reconstruir el autocompletado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sugerencias en orden de ranking: más hoteles primero, ciudades antes que hoteles, luego alfabético
+     */
+    private List<SugerenciaResponse> cargarSugerencias() {
+        // La misma ciudad escrita con otras mayúsculas o tildes se cuenta una sola vez
+        Map<String, SugerenciaResponse> ciudades = new LinkedHashMap<>();
+        for (Object[] fila : hotelRepository.findCiudadesConHoteles()) {
+            String ciudad = (String) fila[0];
+            String pais = (String) fila[1];
+            long cantidad = (Long) fila[2];
+            String clave = TrieSugerencias.normalizar(ciudad) + "|" + TrieSugerencias.normalizar(pais);
+            SugerenciaResponse existente = ciudades.get(clave);
+            if (existente == null) {
+                ciudades.put(clave, SugerenciaResponse.builder()
+                        .tipo(TIPO_CIUDAD).texto(ciudad).detalle(pais).cantidadHoteles(cantidad).build());
+            } else {
+                existente.setCantidadHoteles(existente.getCantidadHoteles() + cantidad);
+            }
+        }
+
+        List<SugerenciaResponse> sugerencias = new ArrayList<>(ciudades.values());
+        for (Object[] fila : hotelRepository.findNombresHotelesAprobados()) {
+            sugerencias.add(SugerenciaResponse.builder()
+                    .tipo(TIPO_HOTEL).hotelId((Long) fila[0]).texto((String) fila[1]).detalle((String) fila[2])
+                    .cantidadHoteles(1L).build());
+        }
+        sugerencias.sort(Comparator.comparing(SugerenciaResponse::getCantidadHoteles, Comparator.reverseOrder())
+                .thenComparing(sugerencia -> TIPO_HOTEL.equals(sugerencia.getTipo()))
+                .thenComparing(sugerencia -> TrieSugerencias.normalizar(sugerencia.getTexto())));
+        return sugerencias;
+    }
+
+    private record Instantanea(TrieSugerencias trie, List<SugerenciaResponse> sugerencias) {
+    }
+}
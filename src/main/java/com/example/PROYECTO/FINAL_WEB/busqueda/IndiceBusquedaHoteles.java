@@ -0,0 +1,383 @@
+package com.example.PROYECTO.FINAL_WEB.busqueda;
+
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
+import com.example.PROYECTO.FINAL_WEB.repository.HotelAmenityRepository;
+import com.example.PROYECTO.FINAL_WEB.repository.HotelRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FeatureField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido (Lucene, en memoria) de los hoteles aprobados: nombre, descripción, ciudad,
+ * país y amenidades, sin mayúsculas ni tildes. La relevancia es BM25 con más peso en nombre y
+ * ciudad, más un aporte por puntuación promedio. El último término se busca también como
+ * prefijo (texto a medio escribir) y los términos desconocidos de 4 o más letras toleran
+ * errores de tipeo.
+ * Se construye completo al arrancar y periódicamente en un índice nuevo que reemplaza al
+ * anterior; cada HotelModificadoEvent local reindexa solo ese hotel tras el commit.
+ */
+@Slf4j
+@Component
+public class IndiceBusquedaHoteles {
+
+    private static final String CAMPO_ID = "id";
+    private static final String CAMPO_SENALES = "senales";
+    private static final String SENAL_PUNTUACION = "puntuacion";
+    private static final Map<String, Float> PESOS = Map.of(
+            "nombre", 3.0f, "ciudad", 2.0f, "pais", 1.0f, "amenidades", 1.0f, "descripcion", 0.5f);
+    private static final Set<String> MOTIVOS_INDEXADOS =
+            Set.of("actualizado", "aprobado", "rechazado", "eliminado", "review");
+    private static final int MAX_TERMINOS = 8;
+    private static final Analyzer ANALIZADOR = new AnalizadorHoteles();
+
+    private final HotelRepository hotelRepository;
+    private final HotelAmenityRepository hotelAmenityRepository;
+    private final TransactionTemplate lecturaNueva;
+    private final int tamanioLote;
+    private final int maxResultados;
+
+    private final Object carga = new Object();
+    private final Set<Long> cambiosDuranteCarga = ConcurrentHashMap.newKeySet();
+    private volatile boolean cargando;
+    private volatile Indice indice;
+
+    public IndiceBusquedaHoteles(HotelRepository hotelRepository,
+                                 HotelAmenityRepository hotelAmenityRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.busqueda.lote:1000}") int tamanioLote,
+                                 @Value("${app.busqueda.max-resultados:1000}") int maxResultados) {
+        this.hotelRepository = hotelRepository;
+        this.hotelAmenityRepository = hotelAmenityRepository;
+        this.lecturaNueva = new TransactionTemplate(transactionManager);
+        this.lecturaNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lecturaNueva.setReadOnly(true);
+        this.tamanioLote = tamanioLote;
+        this.maxResultados = maxResultados;
+    }
+
+    /**
+     * Hasta que termina la primera carga la búsqueda usa el prefijo del nombre en la BD
+     */
+    public boolean estaListo() {
+        return indice != null;
+    }
+
+    public int getMaxResultados() {
+        return maxResultados;
+    }
+
+    /**
+     * Ids de hoteles por relevancia, a partir de desde (como máximo maxResultados en total)
+     */
+    public Resultado buscar(String texto, int desde, int cantidad) {
+        List<String> terminos = terminos(texto);
+        int hasta = Math.min(desde + cantidad, maxResultados);
+        if (terminos.isEmpty() || desde >= hasta) {
+            return new Resultado(List.of(), 0);
+        }
+        try {
+            try {
+                return buscar(indice, terminos, desde, hasta);
+            } catch (AlreadyClosedException e) {
+                // Una recarga reemplazó el índice entre la lectura de la referencia y el acquire
+                return buscar(indice, terminos, desde, hasta);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Resultado buscar(Indice actual, List<String> terminos, int desde, int hasta) throws IOException {
+        IndexSearcher searcher = actual.searcherManager().acquire();
+        try {
+            TopDocs topDocs = searcher.search(construirConsulta(searcher.getIndexReader(), terminos), hasta);
+            StoredFields campos = searcher.storedFields();
+            List<Long> ids = new ArrayList<>();
+            for (int i = desde; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                ids.add(Long.valueOf(campos.document(scoreDoc.doc).get(CAMPO_ID)));
+            }
+            return new Resultado(ids, Math.min(topDocs.totalHits.value, maxResultados));
+        } finally {
+            actual.searcherManager().release(searcher);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.busqueda.reconstruccion-ms:600000}",
+               initialDelayString = "${app.busqueda.reconstruccion-ms:600000}")
+    public void reconstruir() {
+        synchronized (carga) {
+            cargando = true;
+            cambiosDuranteCarga.clear();
+            Indice nuevo = null;
+            try {
+                long inicio = System.currentTimeMillis();
+                nuevo = Indice.crear();
+                int total = cargarTodo(nuevo.writer());
+                nuevo.searcherManager().maybeRefreshBlocking();
+
+                Indice anterior;
+                synchronized (this) {
+                    anterior = indice;
+                    indice = nuevo;
+                }
+                if (anterior != null) {
+                    anterior.cerrar();
+                }
+                // Lo modificado durante la carga pudo leerse antes del commit: releerlo en el índice nuevo
+                cambiosDuranteCarga.forEach(this::reindexar);
+                log.info("Índice de búsqueda cargado: {} hoteles en {} ms", total, System.currentTimeMillis() - inicio);
+            } catch (IOException | RuntimeException e) {
+                log.error("No se pudo cargar el índice de búsqueda: {}", e.getMessage());
+                if (nuevo != null && nuevo != indice) {
+                    nuevo.cerrar();
+                }
+            } finally {
+                cargando = false;
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHotelModificado(HotelModificadoEvent evento) {
+        if (!MOTIVOS_INDEXADOS.contains(evento.getMotivo())) {
+            return;
+        }
+        if (cargando) {
+            cambiosDuranteCarga.add(evento.getHotelId());
+        }
+        reindexar(evento.getHotelId());
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        Indice actual = indice;
+        if (actual != null) {
+            actual.cerrar();
+        }
+    }
+
+    private void reindexar(Long hotelId) {
+        if (indice == null) {
+            return;
+        }
+        try {
+            List<Document> documentos = lecturaNueva.execute(status ->
+                    documentos(hotelRepository.findDocumentoBusqueda(hotelId)));
+            synchronized (this) {
+                IndexWriter writer = indice.writer();
+                Term termino = new Term(CAMPO_ID, String.valueOf(hotelId));
+                if (documentos.isEmpty()) {
+                    writer.deleteDocuments(termino);
+                } else {
+                    writer.updateDocument(termino, documentos.get(0));
+                }
+                indice.searcherManager().maybeRefresh();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo reindexar el hotel {} en la búsqueda: {}", hotelId, e.getMessage());
+        }
+    }
+
+    private int cargarTodo(IndexWriter writer) throws IOException {
+        int total = 0;
+        long ultimoId = 0;
+        while (true) {
+            long desdeId = ultimoId;
+            List<Document> lote = lecturaNueva.execute(status -> documentos(
+                    hotelRepository.findDocumentosBusqueda(desdeId, PageRequest.of(0, tamanioLote))));
+            if (lote.isEmpty()) {
+                return total;
+            }
+            writer.addDocuments(lote);
+            total += lote.size();
+            ultimoId = Long.parseLong(lote.get(lote.size() - 1).get(CAMPO_ID));
+        }
+    }
+
+    private List<Document> documentos(List<Object[]> filas) {
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+        // Las filas vienen ordenadas por id: las amenidades del lote salen de un solo rango de ids
+        Map<Long, StringBuilder> amenidades = new HashMap<>();
+        Long primerId = (Long) filas.get(0)[0];
+        Long ultimoId = (Long) filas.get(filas.size() - 1)[0];
+        hotelAmenityRepository.findNombresAmenidadPorRangoHotel(primerId - 1, ultimoId)
+                .forEach(fila -> amenidades.computeIfAbsent((Long) fila[0], id -> new StringBuilder())
+                        .append(fila[1]).append(' '));
+
+        List<Document> documentos = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            Long id = (Long) fila[0];
+            Document documento = new Document();
+            documento.add(new StringField(CAMPO_ID, String.valueOf(id), Field.Store.YES));
+            agregarTexto(documento, "nombre", fila[1]);
+            agregarTexto(documento, "descripcion", fila[2]);
+            agregarTexto(documento, "ciudad", fila[3]);
+            agregarTexto(documento, "pais", fila[4]);
+            agregarTexto(documento, "amenidades", amenidades.get(id));
+            BigDecimal puntuacion = (BigDecimal) fila[5];
+            float valor = puntuacion != null && puntuacion.signum() > 0 ? puntuacion.floatValue() : 0.1f;
+            documento.add(new FeatureField(CAMPO_SENALES, SENAL_PUNTUACION, valor));
+            documentos.add(documento);
+        }
+        return documentos;
+    }
+
+    private static void agregarTexto(Document documento, String campo, Object valor) {
+        if (valor != null) {
+            documento.add(new TextField(campo, valor.toString(), Field.Store.NO));
+        }
+    }
+
+    /**
+     * Todos los términos deben aparecer en algún campo (exacto o, si es el último, como prefijo).
+     * Un término que no existe en ningún campo se toma como error de tipeo y se busca con 1-2
+     * letras de diferencia. La puntuación del hotel suma como desempate.
+     */
+    private static Query construirConsulta(IndexReader lector, List<String> terminos) throws IOException {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        for (int i = 0; i < terminos.size(); i++) {
+            String termino = terminos.get(i);
+            boolean ultimo = i == terminos.size() - 1;
+            boolean difuso = termino.length() >= 4 && !existe(lector, termino);
+            BooleanQuery.Builder alternativas = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> campo : PESOS.entrySet()) {
+                Term term = new Term(campo.getKey(), termino);
+                float peso = campo.getValue();
+                alternativas.add(new BoostQuery(new TermQuery(term), peso), BooleanClause.Occur.SHOULD);
+                if (ultimo && termino.length() >= 2) {
+                    alternativas.add(new BoostQuery(new PrefixQuery(term), peso * 0.8f), BooleanClause.Occur.SHOULD);
+                }
+                if (difuso) {
+                    int ediciones = termino.length() >= 9 ? 2 : 1;
+                    alternativas.add(new BoostQuery(new FuzzyQuery(term, ediciones, 2), peso * 0.5f),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            consulta.add(alternativas.build(), BooleanClause.Occur.MUST);
+        }
+        consulta.add(FeatureField.newSaturationQuery(CAMPO_SENALES, SENAL_PUNTUACION, 0.5f, 3.0f),
+                BooleanClause.Occur.SHOULD);
+        return consulta.build();
+    }
+
+    private static boolean existe(IndexReader lector, String termino) throws IOException {
+        for (String campo : PESOS.keySet()) {
+            if (lector.docFreq(new Term(campo, termino)) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return terminos;
+        }
+        try (TokenStream tokens = ANALIZADOR.tokenStream("nombre", texto)) {
+            CharTermAttribute termino = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && terminos.size() < MAX_TERMINOS) {
+                terminos.add(termino.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terminos;
+    }
+
+    public record Resultado(List<Long> ids, long total) {
+    }
+
+    private record Indice(ByteBuffersDirectory directorio, IndexWriter writer, SearcherManager searcherManager) {
+
+        static Indice crear() throws IOException {
+            ByteBuffersDirectory directorio = new ByteBuffersDirectory();
+            IndexWriter writer = new IndexWriter(directorio, new IndexWriterConfig(ANALIZADOR)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+            return new Indice(directorio, writer, new SearcherManager(writer, null));
+        }
+
+        void cerrar() {
+            try {
+                searcherManager.close();
+                writer.close();
+                directorio.close();
+            } catch (IOException e) {
+                log.warn("Error al cerrar el índice de búsqueda: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tokens estándar en minúsculas y sin tildes ("Perú" → peru, "Ñaña" → nana)
+     */
+    private static final class AnalizadorHoteles extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String campo) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            TokenStream filtros = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, filtros);
+        }
+
+        @Override
+        protected TokenStream normalize(String campo, TokenStream entrada) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+        }
+    }
+}
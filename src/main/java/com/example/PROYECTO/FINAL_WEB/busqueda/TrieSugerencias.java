@@ -0,0 +1,160 @@
+package com.example.PROYECTO.FINAL_WEB.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trie compacto (radix: cada nodo guarda un tramo de caracteres, no uno solo) e inmutable sobre
+ * claves normalizadas. Las sugerencias se identifican por su posición en el ranking (0 = la mejor),
+ * así cada nodo guarda solo los índices de sus MAX_POR_NODO mejores sugerencias, ya ordenados:
+ * una consulta recorre el prefijo y devuelve esa lista sin explorar el subárbol.
+ */
+final class TrieSugerencias {
+
+    static final int MAX_POR_NODO = 10;
+    static final TrieSugerencias VACIO = new TrieSugerencias(new String[0], null);
+
+    private static final int[] NINGUNA = new int[0];
+
+    private final String[] claves;
+    private final Nodo raiz;
+
+    private TrieSugerencias(String[] claves, Nodo raiz) {
+        this.claves = claves;
+        this.raiz = raiz;
+    }
+
+    /**
+     * Construir a partir de pares (clave normalizada, índice de sugerencia en el ranking);
+     * una sugerencia puede tener varias claves (una por palabra)
+     */
+    static TrieSugerencias construir(List<Clave> pares) {
+        if (pares.isEmpty()) {
+            return VACIO;
+        }
+        Clave[] ordenadas = pares.stream()
+                .filter(par -> !par.texto().isEmpty())
+                .sorted(Comparator.comparing(Clave::texto).thenComparingInt(Clave::sugerencia))
+                .toArray(Clave[]::new);
+        if (ordenadas.length == 0) {
+            return VACIO;
+        }
+        String[] claves = Arrays.stream(ordenadas).map(Clave::texto).toArray(String[]::new);
+        int[] sugerencias = Arrays.stream(ordenadas).mapToInt(Clave::sugerencia).toArray();
+        return new TrieSugerencias(claves, construirNodo(claves, sugerencias, 0, claves.length, 0));
+    }
+
+    /**
+     * Índices (en orden de ranking) de las mejores sugerencias con alguna clave que empieza con el prefijo
+     */
+    int[] buscar(String prefijo) {
+        Nodo nodo = raiz;
+        int posicion = 0;
+        while (nodo != null) {
+            String clave = claves[nodo.clave()];
+            for (int i = nodo.desde(); i < nodo.hasta(); i++, posicion++) {
+                if (posicion == prefijo.length()) {
+                    return nodo.mejores();
+                }
+                if (clave.charAt(i) != prefijo.charAt(posicion)) {
+                    return NINGUNA;
+                }
+            }
+            if (posicion == prefijo.length()) {
+                return nodo.mejores();
+            }
+            int hijo = Arrays.binarySearch(nodo.letras(), prefijo.charAt(posicion));
+            nodo = hijo >= 0 ? nodo.hijos()[hijo] : null;
+        }
+        return NINGUNA;
+    }
+
+    int cantidadClaves() {
+        return claves.length;
+    }
+
+    /**
+     * Nodo del rango [desde, hasta) de claves ordenadas, que comparten los primeros profundidad caracteres
+     */
+    private static Nodo construirNodo(String[] claves, int[] sugerencias, int desde, int hasta, int profundidad) {
+        // Al estar ordenadas, el prefijo común del rango es el de la primera y la última clave
+        int comun = prefijoComun(claves[desde], claves[hasta - 1]);
+
+        List<Integer> candidatas = new ArrayList<>();
+        int i = desde;
+        while (i < hasta && claves[i].length() == comun) {
+            candidatas.add(sugerencias[i]);
+            i++;
+        }
+
+        List<Character> letras = new ArrayList<>();
+        List<Nodo> hijos = new ArrayList<>();
+        while (i < hasta) {
+            char letra = claves[i].charAt(comun);
+            int fin = i;
+            while (fin < hasta && claves[fin].charAt(comun) == letra) {
+                fin++;
+            }
+            Nodo hijo = construirNodo(claves, sugerencias, i, fin, comun);
+            letras.add(letra);
+            hijos.add(hijo);
+            for (int mejor : hijo.mejores()) {
+                candidatas.add(mejor);
+            }
+            i = fin;
+        }
+
+        char[] arregloLetras = new char[letras.size()];
+        for (int j = 0; j < arregloLetras.length; j++) {
+            arregloLetras[j] = letras.get(j);
+        }
+        int[] mejores = candidatas.stream().mapToInt(Integer::intValue)
+                .sorted().distinct().limit(MAX_POR_NODO).toArray();
+        return new Nodo(desde, profundidad, comun, arregloLetras, hijos.toArray(Nodo[]::new), mejores);
+    }
+
+    private static int prefijoComun(String a, String b) {
+        int limite = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limite && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Minúsculas sin tildes, solo letras y dígitos separados por un espacio ("  Perú-Lima " → "peru lima")
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return sinTildes.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{Nd}]+", " ").trim();
+    }
+
+    /**
+     * Claves de un texto: el texto completo y lo que sigue desde cada palabra posterior
+     * ("casa andina cusco" → también "andina cusco" y "cusco")
+     */
+    static void agregarClaves(String texto, int sugerencia, List<Clave> destino) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return;
+        }
+        destino.add(new Clave(normalizado, sugerencia));
+        for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+            destino.add(new Clave(normalizado.substring(i + 1), sugerencia));
+        }
+    }
+
+    record Clave(String texto, int sugerencia) {
+    }
+
+    private record Nodo(int clave, int desde, int hasta, char[] letras, Nodo[] hijos, int[] mejores) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.PROYECTO.FINAL_WEB.cache;
+
+import com.example.PROYECTO.FINAL_WEB.dto.response.HotelResponse;
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
+import com.example.PROYECTO.FINAL_WEB.event.UsuarioModificadoEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de las respuestas de GET /api/hotels/{id}.
+ * Acotada por peso aproximado en bytes (no por cantidad de hoteles) y con TTL de seguridad;
+ * las entradas se invalidan con HotelModificadoEvent una vez confirmada la transacción, y con
+ * UsuarioModificadoEvent las que muestran a ese usuario (propietario o autor de una review).
+ * Las respuestas cacheadas son compartidas: no deben modificarse.
+ */
+@Slf4j
+@Component
+public class HotelDetalleCache {
+
+    /**
+     * Se invalida antes que RespuestaJsonCache, que serializa a partir de este cache
+     */
+    public static final int ORDEN_INVALIDACION = Ordered.HIGHEST_PRECEDENCE;
+
+    private final Cache<Long, HotelResponse> cache;
+
+    public HotelDetalleCache(@Value("${app.cache.hotel-detalle.max-kb:16384}") long maxKb,
+                             @Value("${app.cache.hotel-detalle.ttl-minutos:30}") long ttlMinutos) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxKb * 1024)
+                .weigher((Long id, HotelResponse hotel) -> pesoAproximado(hotel))
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Respuesta cacheada o construida con el cargador (una sola carga concurrente por hotel)
+     */
+    public HotelResponse obtener(Long hotelId, Function<Long, HotelResponse> cargador) {
+        return cache.get(hotelId, cargador);
+    }
+
+    @Order(ORDEN_INVALIDACION)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHotelModificado(HotelModificadoEvent evento) {
+        cache.invalidate(evento.getHotelId());
+        log.debug("Detalle de hotel {} invalidado: {}", evento.getHotelId(), evento.getMotivo());
+    }
+
+    @Order(ORDEN_INVALIDACION)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsuarioModificado(UsuarioModificadoEvent evento) {
+        Long usuarioId = evento.getUsuarioId();
+        cache.asMap().values().removeIf(hotel -> muestraUsuario(hotel, usuarioId));
+        log.debug("Detalles de hotel con el usuario {} invalidados: {}", usuarioId, evento.getMotivo());
+    }
+
+    private static boolean muestraUsuario(HotelResponse hotel, Long usuarioId) {
+        if (hotel.getPropietario() != null && usuarioId.equals(hotel.getPropietario().getId())) {
+            return true;
+        }
+        return hotel.getReviews() != null && hotel.getReviews().stream()
+                .anyMatch(review -> review.getUsuario() != null && usuarioId.equals(review.getUsuario().getId()));
+    }
+
+    /**
+     * Peso en bytes estimado por el texto que contiene la respuesta
+     */
+    private static int pesoAproximado(HotelResponse hotel) {
+        long peso = 512L + largo(hotel.getNombre()) + largo(hotel.getDescripcion())
+                + largo(hotel.getImagenPrincipal()) + largo(hotel.getMiniatura());
+        if (hotel.getImagenes() != null) {
+            for (String imagen : hotel.getImagenes()) {
+                peso += 16 + largo(imagen);
+            }
+        }
+        if (hotel.getVariantes() != null) {
+            for (String variante : hotel.getVariantes().values()) {
+                peso += 32 + largo(variante);
+            }
+        }
+        if (hotel.getAmenidades() != null) {
+            for (HotelResponse.AmenidadDTO amenidad : hotel.getAmenidades()) {
+                peso += 96 + largo(amenidad.getNombre()) + largo(amenidad.getDetalle());
+            }
+        }
+        if (hotel.getReviews() != null) {
+            for (HotelResponse.ReviewDTO review : hotel.getReviews()) {
+                peso += 128 + largo(review.getComentario()) + largo(review.getRespuesta());
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, peso);
+    }
+
+    private static int largo(String texto) {
+        return texto == null ? 0 : texto.length() * 2;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.PROYECTO.FINAL_WEB.cache;
+
+import com.example.PROYECTO.FINAL_WEB.dto.response.PagoResponse;
+import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Resultados de pagos por usuario y clave de idempotencia (cabecera Idempotency-Key).
+ * Una petición repetida mientras la primera sigue en curso espera su resultado en lugar de
+ * volver a cobrar; una vez terminada, el resultado queda en memoria para responder reintentos
+ * sin ir a la base de datos ni a la pasarela. La fuente de verdad sigue siendo pago.clave_idempotencia.
+ * Un pago que no llegó a la pasarela termina con excepción: no se guarda y la clave puede reintentarse.
+ */
+@Slf4j
+@Component
+public class PagoIdempotenciaCache {
+
+    private final ConcurrentMap<String, CompletableFuture<PagoResponse>> enCurso = new ConcurrentHashMap<>();
+    private final Cache<String, PagoResponse> completados;
+    private final long esperaMillis;
+
+    public PagoIdempotenciaCache(@Value("${app.pagos.idempotencia.max-entradas:10000}") long maxEntradas,
+                                 @Value("${app.pagos.idempotencia.ttl-horas:24}") long ttlHoras,
+                                 @Value("${app.pagos.idempotencia.espera-ms:30000}") long esperaMillis) {
+        this.completados = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofHours(ttlHoras))
+                .build();
+        this.esperaMillis = esperaMillis;
+    }
+
+    /**
+     * Resultado ya registrado para la clave, o el de ejecutar el proceso una sola vez por clave.
+     * Si el proceso lanza una excepción no se guarda nada: la misma clave puede reintentarse.
+     */
+    public PagoResponse ejecutar(String clave, Supplier<PagoResponse> proceso) {
+        PagoResponse registrado = completados.getIfPresent(clave);
+        if (registrado != null) {
+            log.info("↩️ Pago repetido con clave {}, se devuelve el resultado registrado", clave);
+            return registrado;
+        }
+
+        CompletableFuture<PagoResponse> propio = new CompletableFuture<>();
+        CompletableFuture<PagoResponse> previo = enCurso.putIfAbsent(clave, propio);
+        if (previo != null) {
+            log.info("⏳ Pago con clave {} ya en curso, esperando su resultado", clave);
+            return esperar(previo);
+        }
+
+        try {
+            PagoResponse respuesta = proceso.get();
+            // Un pago por verificar aún puede cambiar al conciliarse: se consulta en la base de datos
+            if (!"procesando".equals(respuesta.getEstado()) && !"por_verificar".equals(respuesta.getEstado())) {
+                completados.put(clave, respuesta);
+            }
+            propio.complete(respuesta);
+            return respuesta;
+        } catch (RuntimeException e) {
+            propio.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propio);
+        }
+    }
+
+    private PagoResponse esperar(CompletableFuture<PagoResponse> previo) {
+        try {
+            return previo.get(esperaMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("El pago con esta clave sigue en curso, consulte nuevamente en unos segundos");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("El pago con esta clave sigue en curso");
+        }
+    }
+}
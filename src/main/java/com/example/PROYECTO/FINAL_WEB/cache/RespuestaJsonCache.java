@@ -0,0 +1,126 @@
+package com.example.PROYECTO.FINAL_WEB.cache;
+
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
+import com.example.PROYECTO.FINAL_WEB.event.UsuarioModificadoEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de cuerpos JSON ya serializados de los endpoints públicos de hoteles.
+ * Guarda los bytes UTF-8 tal como los escribió Jackson, su versión gzip y el ETag,
+ * de modo que una lectura repetida no vuelve a mapear ni a serializar.
+ * Acotada por bytes; un HotelModificadoEvent descarta el detalle del hotel y todos los listados,
+ * y un UsuarioModificadoEvent todos los detalles (los listados no muestran usuarios).
+ */
+@Slf4j
+@Component
+public class RespuestaJsonCache {
+
+    private static final String PREFIJO_DETALLE = "/api/hotels/";
+
+    private final Cache<String, CuerpoSerializado> cache;
+
+    /**
+     * Se incrementa en cada invalidación: una respuesta calculada antes de una invalidación no se guarda
+     */
+    private final AtomicLong generacion = new AtomicLong();
+
+    public RespuestaJsonCache(@Value("${app.cache.respuestas.max-kb:32768}") long maxKb,
+                              @Value("${app.cache.respuestas.ttl-segundos:120}") long ttlSegundos) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxKb * 1024)
+                .weigher((String clave, CuerpoSerializado cuerpo) -> cuerpo.peso())
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .build();
+    }
+
+    public CuerpoSerializado obtener(String clave) {
+        return cache.getIfPresent(clave);
+    }
+
+    public long generacionActual() {
+        return generacion.get();
+    }
+
+    /**
+     * Guardar un cuerpo JSON si no hubo invalidaciones desde que se empezó a calcular
+     */
+    public CuerpoSerializado guardar(String clave, byte[] json, long generacionInicial) {
+        CuerpoSerializado cuerpo = new CuerpoSerializado(json, comprimir(json),
+                "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        if (generacion.get() == generacionInicial) {
+            cache.put(clave, cuerpo);
+        }
+        return cuerpo;
+    }
+
+    /**
+     * Después de HotelDetalleCache: si se limpiara primero, una petición intermedia volvería a
+     * serializar el detalle todavía viejo bajo la nueva generación
+     */
+    @Order(HotelDetalleCache.ORDEN_INVALIDACION + 1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHotelModificado(HotelModificadoEvent evento) {
+        generacion.incrementAndGet();
+        String detalle = claveDetalle(evento.getHotelId());
+        cache.asMap().keySet().removeIf(clave -> clave.equals(detalle) || !esDetalle(clave));
+        log.debug("Respuestas serializadas invalidadas por hotel {}", evento.getHotelId());
+    }
+
+    /**
+     * Después de HotelDetalleCache, por el mismo motivo que onHotelModificado
+     */
+    @Order(HotelDetalleCache.ORDEN_INVALIDACION + 1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsuarioModificado(UsuarioModificadoEvent evento) {
+        generacion.incrementAndGet();
+        cache.asMap().keySet().removeIf(RespuestaJsonCache::esDetalle);
+        log.debug("Detalles serializados invalidados por usuario {}", evento.getUsuarioId());
+    }
+
+    public static String claveDetalle(Long hotelId) {
+        return PREFIJO_DETALLE + hotelId;
+    }
+
+    /**
+     * Las claves de detalle son "/api/hotels/{id}" sin parámetros; el resto son listados
+     */
+    private static boolean esDetalle(String clave) {
+        return clave.startsWith(PREFIJO_DETALLE) && clave.indexOf('?') < 0
+                && clave.substring(PREFIJO_DETALLE.length()).chars().allMatch(Character::isDigit);
+    }
+
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Cuerpo listo para escribir; los arreglos son compartidos y no deben modificarse
+     */
+    public record CuerpoSerializado(byte[] json, byte[] gzip, String etag) {
+
+        int peso() {
+            return 96 + json.length + gzip.length + etag.length() * 2;
+        }
+    }
+}
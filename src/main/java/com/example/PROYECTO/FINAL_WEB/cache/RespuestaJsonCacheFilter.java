@@ -0,0 +1,126 @@
+package com.example.PROYECTO.FINAL_WEB.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve desde RespuestaJsonCache las lecturas anónimas de /api/hotels, /api/hotels/destacados
+ * y /api/hotels/{id}. En un acierto escribe los bytes (gzip si el cliente lo acepta) directo al
+ * output stream, o responde 304 si el ETag coincide; en un fallo deja pasar la petición y guarda
+ * el cuerpo que produjo el controller.
+ */
+@Component
+public class RespuestaJsonCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern RUTAS_CACHEABLES = Pattern.compile("/api/hotels(/destacados|/\\d+)?/?");
+
+    @Autowired
+    private RespuestaJsonCache respuestaJsonCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || StringUtils.hasText(request.getHeader(HttpHeaders.AUTHORIZATION))
+                // la disponibilidad por fechas cambia con cada reserva y no invalida la caché
+                || StringUtils.hasText(request.getParameter("fechaCheckin"))
+                || !RUTAS_CACHEABLES.matcher(ruta(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clave = construirClave(request);
+        RespuestaJsonCache.CuerpoSerializado cuerpo = respuestaJsonCache.obtener(clave);
+        if (cuerpo != null) {
+            escribir(request, response, cuerpo);
+            return;
+        }
+
+        long generacion = respuestaJsonCache.generacionActual();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && contentType != null
+                && contentType.contains("json")) {
+            cuerpo = respuestaJsonCache.guardar(clave, wrapper.getContentAsByteArray(), generacion);
+            wrapper.setHeader(HttpHeaders.ETAG, cuerpo.etag());
+            wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void escribir(HttpServletRequest request, HttpServletResponse response,
+                          RespuestaJsonCache.CuerpoSerializado cuerpo) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cuerpo.etag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(cuerpo.etag()) || "*".equals(ifNoneMatch.trim()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] bytes = cuerpo.json();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            bytes = cuerpo.gzip();
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * Ruta sin el context path y parámetros ordenados por nombre y valor, sin valores vacíos
+     */
+    static String construirClave(HttpServletRequest request) {
+        String ruta = ruta(request);
+        if (ruta.length() > 1 && ruta.endsWith("/")) {
+            ruta = ruta.substring(0, ruta.length() - 1);
+        }
+        StringBuilder clave = new StringBuilder(ruta);
+        char separador = '?';
+        for (Map.Entry<String, String[]> parametro : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            String[] valores = Arrays.stream(parametro.getValue())
+                    .filter(StringUtils::hasText)
+                    .map(String::trim)
+                    .sorted()
+                    .toArray(String[]::new);
+            for (String valor : valores) {
+                clave.append(separador)
+                        .append(URLEncoder.encode(parametro.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(valor, StandardCharsets.UTF_8));
+                separador = '&';
+            }
+        }
+        return clave.toString();
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.PROYECTO.FINAL_WEB.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache con Caffeine) para datos de referencia.
+ * Las regiones se crean aquí, cada una con su tamaño máximo y TTL
+ * (app.cache.regiones.{region}.max-entradas / ttl-minutos); Hibernate no crea regiones por su cuenta.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String REGION_AMENITY = "amenity";
+    public static final String REGION_TIPO_HABITACION = "tipoHabitacion";
+    public static final String REGION_CONFIGURACION = "configuracionSistema";
+    public static final String REGION_DIRECCION = "direccion";
+    public static final String REGION_CONSULTAS = "default-query-results-region";
+    public static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    public static final List<String> REGIONES_ENTIDAD = List.of(
+            REGION_AMENITY, REGION_TIPO_HABITACION, REGION_CONFIGURACION, REGION_DIRECCION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment env) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // URI propio por contexto: varios contextos en la misma JVM (p. ej. tests) no comparten regiones
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : REGIONES_ENTIDAD) {
+            crearRegion(cacheManager, env, region, 1_000, 60);
+        }
+        crearRegion(cacheManager, env, REGION_CONSULTAS, 500, 10);
+
+        // Las marcas de actualización por tabla nunca deben expirar antes que las consultas cacheadas
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(REGION_TIMESTAMPS, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelCustomizer(CacheManager hibernateCacheManager) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private void crearRegion(CacheManager cacheManager, Environment env, String region,
+                             long maxEntradasPorDefecto, long ttlMinutosPorDefecto) {
+        String prefijo = "app.cache.regiones." + region;
+        long maxEntradas = env.getProperty(prefijo + ".max-entradas", Long.class, maxEntradasPorDefecto);
+        long ttlMinutos = env.getProperty(prefijo + ".ttl-minutos", Long.class, ttlMinutosPorDefecto);
+
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(OptionalLong.of(maxEntradas));
+        configuracion.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutos)));
+        configuracion.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuracion);
+    }
+}
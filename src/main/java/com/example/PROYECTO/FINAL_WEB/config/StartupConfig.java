@@ -1,8 +1,10 @@
 package com.example.PROYECTO.FINAL_WEB.config;
 
 import com.example.PROYECTO.FINAL_WEB.service.HotelService;
+import com.example.PROYECTO.FINAL_WEB.service.ImagenMigracionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
@@ -17,6 +19,12 @@ public class StartupConfig {
     @Autowired
     private HotelService hotelService;
 
+    @Autowired
+    private ImagenMigracionService imagenMigracionService;
+
+    @Value("${app.imagenes.migrar-al-iniciar:false}")
+    private boolean migrarImagenesAlIniciar;
+
     /**
      * Se ejecuta cuando la aplicación está completamente iniciada
      */
@@ -29,5 +37,20 @@ public class StartupConfig {
         } catch (Exception e) {
             log.error("Error al sincronizar precios de hoteles", e);
         }
+
+        if (migrarImagenesAlIniciar) {
+            try {
+                imagenMigracionService.migrarImagenesBase64();
+            } catch (Exception e) {
+                log.error("Error al migrar imágenes base64 a archivos", e);
+            }
+        }
+
+        // Imágenes migradas cuyo archivo se perdió (disco no persistente) se restauran desde su respaldo
+        try {
+            imagenMigracionService.confirmarArchivosMigrados();
+        } catch (Exception e) {
+            log.error("Error al confirmar los archivos de imágenes migradas", e);
+        }
     }
 }
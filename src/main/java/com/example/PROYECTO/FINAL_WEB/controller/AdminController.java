@@ -1,9 +1,17 @@
 package com.example.PROYECTO.FINAL_WEB.controller;
 
 import com.example.PROYECTO.FINAL_WEB.dto.response.ApiResponse;
+import com.example.PROYECTO.FINAL_WEB.dto.response.ContencionReservaResponse;
+import com.example.PROYECTO.FINAL_WEB.dto.response.EstadisticaCacheResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.HotelResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.UsuarioResponse;
+import com.example.PROYECTO.FINAL_WEB.outbox.OutboxDespachador;
+import com.example.PROYECTO.FINAL_WEB.service.AuditoriaService;
+import com.example.PROYECTO.FINAL_WEB.service.CacheEstadisticasService;
 import com.example.PROYECTO.FINAL_WEB.service.HotelService;
+import com.example.PROYECTO.FINAL_WEB.service.ImagenMigracionService;
+import com.example.PROYECTO.FINAL_WEB.service.ReservaBarridoService;
+import com.example.PROYECTO.FINAL_WEB.service.ReservaLockManager;
 import com.example.PROYECTO.FINAL_WEB.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +19,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador para operaciones administrativas
@@ -27,6 +36,24 @@ public class AdminController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private ImagenMigracionService imagenMigracionService;
+
+    @Autowired
+    private ReservaLockManager reservaLockManager;
+
+    @Autowired
+    private ReservaBarridoService reservaBarridoService;
+
+    @Autowired
+    private CacheEstadisticasService cacheEstadisticasService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private OutboxDespachador outboxDespachador;
+
     /**
      * Obtener hoteles pendientes de aprobación
      */
@@ -73,4 +100,68 @@ public class AdminController {
         UsuarioResponse usuario = usuarioService.cambiarEstadoUsuario(id, estado);
         return ResponseEntity.ok(ApiResponse.success(usuario, "Estado de usuario actualizado"));
     }
+
+    /**
+     * Migrar imágenes base64 existentes al almacén de archivos
+     */
+    @PostMapping("/imagenes/migrar")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> migrarImagenes() {
+        Map<String, Integer> resultado = imagenMigracionService.migrarImagenesBase64();
+        return ResponseEntity.ok(ApiResponse.success(resultado, "Migración de imágenes completada"));
+    }
+
+    /**
+     * Descartar el respaldo base64 de las imágenes migradas cuyo archivo sobrevivió a un reinicio
+     * y restaurar las que perdieron su archivo
+     */
+    @PostMapping("/imagenes/confirmar-migracion")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> confirmarMigracionImagenes() {
+        Map<String, Integer> resultado = imagenMigracionService.confirmarArchivosMigrados();
+        return ResponseEntity.ok(ApiResponse.success(resultado, "Confirmación de imágenes completada"));
+    }
+
+    /**
+     * Métricas de contención del lock de reservas por habitación
+     */
+    @GetMapping("/reservas/contencion")
+    public ResponseEntity<ApiResponse<List<ContencionReservaResponse>>> obtenerContencionReservas() {
+        List<ContencionReservaResponse> contencion = reservaLockManager.obtenerContencion();
+        return ResponseEntity.ok(ApiResponse.success(contencion, "Contención de reservas obtenida"));
+    }
+
+    /**
+     * Ejecutar ahora el barrido de reservas pendientes vencidas
+     */
+    @PostMapping("/reservas/expirar")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> expirarReservasPendientes() {
+        Map<String, Long> resultado = reservaBarridoService.barrerPendientesVencidas();
+        return ResponseEntity.ok(ApiResponse.success(resultado, "Barrido de reservas completado"));
+    }
+
+    /**
+     * Aciertos y fallos de la caché de segundo nivel por región
+     */
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<ApiResponse<List<EstadisticaCacheResponse>>> obtenerEstadisticasCache() {
+        List<EstadisticaCacheResponse> estadisticas = cacheEstadisticasService.obtenerEstadisticas();
+        return ResponseEntity.ok(ApiResponse.success(estadisticas, "Estadísticas de caché obtenidas"));
+    }
+
+    /**
+     * Contadores del pipeline de auditoría (encolados, escritos, descartados...)
+     */
+    @GetMapping("/auditoria/estadisticas")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> obtenerEstadisticasAuditoria() {
+        Map<String, Long> estadisticas = auditoriaService.obtenerEstadisticas();
+        return ResponseEntity.ok(ApiResponse.success(estadisticas, "Estadísticas de auditoría obtenidas"));
+    }
+
+    /**
+     * Eventos del outbox por estado y contadores de entrega de esta instancia
+     */
+    @GetMapping("/outbox/estadisticas")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> obtenerEstadisticasOutbox() {
+        Map<String, Long> estadisticas = outboxDespachador.obtenerEstadisticas();
+        return ResponseEntity.ok(ApiResponse.success(estadisticas, "Estadísticas del outbox obtenidas"));
+    }
 }
@@ -1,6 +1,8 @@
 package com.example.PROYECTO.FINAL_WEB.controller;
 
 import com.example.PROYECTO.FINAL_WEB.dto.response.ApiResponse;
+import com.example.PROYECTO.FINAL_WEB.dto.response.CalendarioDisponibilidadResponse;
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
 import com.example.PROYECTO.FINAL_WEB.service.DisponibilidadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -52,4 +54,24 @@ public class DisponibilidadController {
                 .body(ApiResponse.error("Error al verificar disponibilidad"));
         }
     }
+
+    @GetMapping("/hotel/{hotelId}/calendario")
+    public ResponseEntity<ApiResponse<CalendarioDisponibilidadResponse>> obtenerCalendarioHotel(
+        @PathVariable Long hotelId,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin
+    ) {
+        try {
+            CalendarioDisponibilidadResponse calendario = disponibilidadService
+                .obtenerCalendarioHotel(hotelId, inicio, fin);
+            return ResponseEntity.ok(ApiResponse.success(calendario));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error obteniendo calendario: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Error al obtener el calendario"));
+        }
+    }
 }
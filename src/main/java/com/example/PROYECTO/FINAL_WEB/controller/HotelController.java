@@ -3,8 +3,10 @@ package com.example.PROYECTO.FINAL_WEB.controller;
 import com.example.PROYECTO.FINAL_WEB.dto.request.HotelRequest;
 import com.example.PROYECTO.FINAL_WEB.dto.request.HotelSearchRequest;
 import com.example.PROYECTO.FINAL_WEB.dto.response.ApiResponse;
+import com.example.PROYECTO.FINAL_WEB.dto.response.HotelListResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.HotelResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.PageResponse;
+import com.example.PROYECTO.FINAL_WEB.dto.response.SugerenciaResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.Usuario;
 import com.example.PROYECTO.FINAL_WEB.service.AuthService;
 import com.example.PROYECTO.FINAL_WEB.service.HotelService;
@@ -46,14 +48,38 @@ public class HotelController {
 
     /**
      * GET /api/hotels - Buscar hoteles públicamente con filtros
+     * (?cursor= para paginar por cursor; &incluirTotal=true para contar el total)
      */
     @GetMapping("/hotels")
-    public ResponseEntity<ApiResponse<PageResponse<HotelResponse>>> buscarHoteles(
+    public ResponseEntity<ApiResponse<PageResponse<HotelListResponse>>> buscarHoteles(
             @ModelAttribute HotelSearchRequest request) {
-        PageResponse<HotelResponse> response = hotelService.buscarHoteles(request);
+        PageResponse<HotelListResponse> response = hotelService.buscarHoteles(request);
         return ResponseEntity.ok(ApiResponse.success(response, "Hoteles encontrados"));
     }
 
+    /**
+     * GET /api/hotels/buscar?q= - Buscar hoteles por texto libre, ordenados por relevancia
+     */
+    @GetMapping("/hotels/buscar")
+    public ResponseEntity<ApiResponse<PageResponse<HotelListResponse>>> buscarPorTexto(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        PageResponse<HotelListResponse> response = hotelService.buscarPorTexto(q, page, size);
+        return ResponseEntity.ok(ApiResponse.success(response, "Hoteles encontrados"));
+    }
+
+    /**
+     * GET /api/hotels/autocompletar?q= - Sugerencias de ciudades y hoteles mientras se escribe
+     */
+    @GetMapping("/hotels/autocompletar")
+    public ResponseEntity<ApiResponse<List<SugerenciaResponse>>> autocompletar(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limite) {
+        List<SugerenciaResponse> response = hotelService.autocompletar(q, limite);
+        return ResponseEntity.ok(ApiResponse.success(response, "Sugerencias"));
+    }
+
     /**
      * GET /api/hotels/{id} - Obtener hotel por ID (público)
      */
@@ -67,8 +93,8 @@ public class HotelController {
      * GET /api/hotels/destacados - Obtener hoteles destacados
      */
     @GetMapping("/hotels/destacados")
-    public ResponseEntity<ApiResponse<List<HotelResponse>>> getHotelesDestacados() {
-        List<HotelResponse> response = hotelService.getHotelesDestacados();
+    public ResponseEntity<ApiResponse<List<HotelListResponse>>> getHotelesDestacados() {
+        List<HotelListResponse> response = hotelService.getHotelesDestacados();
         return ResponseEntity.ok(ApiResponse.success(response, "Hoteles destacados"));
     }
 
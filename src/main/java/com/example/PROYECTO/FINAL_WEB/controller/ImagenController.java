@@ -0,0 +1,109 @@
+package com.example.PROYECTO.FINAL_WEB.controller;
+
+import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
+import com.example.PROYECTO.FINAL_WEB.service.ImagenStorageService;
+import com.example.PROYECTO.FINAL_WEB.service.ImagenVarianteService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Controlador que sirve las imágenes almacenadas por contenido.
+ * Al ser inmutables (el nombre es su SHA-256) se cachean por un año en el cliente.
+ */
+@RestController
+@RequestMapping("/api/imagenes")
+@RequiredArgsConstructor
+public class ImagenController {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImagenStorageService imagenStorageService;
+    private final ImagenVarianteService imagenVarianteService;
+
+    /**
+     * Servir imagen con ETag/Last-Modified y transferencia sin copia
+     */
+    @GetMapping("/{nombre:.+}")
+    public void obtenerImagen(@PathVariable String nombre,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        Path archivo = imagenStorageService.resolver(nombre);
+        if (!Files.isRegularFile(archivo)) {
+            if (imagenStorageService.esVariante(nombre)) {
+                redirigirAOriginal(nombre, response);
+                return;
+            }
+            throw new ResourceNotFoundException("Imagen", "nombre", nombre);
+        }
+
+        String etag = "\"" + nombre.substring(0, nombre.indexOf('.')) + "\"";
+        long ultimaModificacion = Files.getLastModifiedTime(archivo).toMillis();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, ultimaModificacion)) {
+            return;
+        }
+
+        long longitud = Files.size(archivo);
+        response.setContentType(tipoContenido(nombre));
+        response.setContentLengthLong(longitud);
+
+        // Tomcat NIO/NIO2 puede enviar el archivo con sendfile() una vez terminado el request
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, archivo.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, longitud);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = 0;
+            while (posicion < longitud) {
+                posicion += canal.transferTo(posicion, longitud - posicion, salida);
+            }
+        }
+    }
+
+    /**
+     * Variante aún no generada: se encola su generación y se redirige (sin caché) al original
+     */
+    private void redirigirAOriginal(String nombreVariante, HttpServletResponse response) {
+        String original = imagenStorageService.nombreOriginal(nombreVariante)
+                .orElseThrow(() -> new ResourceNotFoundException("Imagen", "nombre", nombreVariante));
+        String urlOriginal = ImagenStorageService.URL_BASE + original;
+        imagenVarianteService.generarVariantesAsync(urlOriginal);
+        response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.LOCATION, urlOriginal);
+    }
+
+    private String tipoContenido(String nombre) {
+        String extension = nombre.substring(nombre.lastIndexOf('.') + 1);
+        return switch (extension) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            default -> "image/jpeg";
+        };
+    }
+}
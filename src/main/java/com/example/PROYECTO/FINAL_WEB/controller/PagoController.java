@@ -3,6 +3,11 @@ package com.example.PROYECTO.FINAL_WEB.controller;
 import com.example.PROYECTO.FINAL_WEB.dto.request.PagoRequest;
 import com.example.PROYECTO.FINAL_WEB.dto.response.ApiResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.PagoResponse;
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.entity.Usuario;
+import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
+import com.example.PROYECTO.FINAL_WEB.pasarela.PasarelaPagoException;
+import com.example.PROYECTO.FINAL_WEB.service.AuthService;
 import com.example.PROYECTO.FINAL_WEB.service.PagoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,32 +30,48 @@ import java.util.List;
 public class PagoController {
 
     private final PagoService pagoService;
+    private final AuthService authService;
 
     /**
      * Procesa un pago con Culqi
      * POST /api/pagos/procesar
+     * Cabecera opcional Idempotency-Key: los reintentos del mismo usuario con la misma clave no vuelven a cobrar
      */
     @PostMapping("/procesar")
     @PreAuthorize("hasAnyRole('GUEST', 'HOST', 'ADMIN')")
     public ResponseEntity<ApiResponse<PagoResponse>> procesarPago(
-        @Valid @RequestBody PagoRequest request
+        @Valid @RequestBody PagoRequest request,
+        @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia
     ) {
         try {
             log.info("📥 Solicitud de pago recibida para reserva: {}", request.getReservaId());
             
-            PagoResponse response = pagoService.procesarPago(request);
+            Usuario usuario = authService.getCurrentUser();
+            PagoResponse response = pagoService.procesarPago(request, usuario.getId(), claveIdempotencia);
             
             if ("completado".equals(response.getEstado())) {
                 return ResponseEntity.ok(ApiResponse.success(response, "Pago procesado exitosamente"));
+            } else if ("por_verificar".equals(response.getEstado())) {
+                // El cargo pudo crearse: no es un rechazo y el cliente no debe reintentarlo
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success(response, response.getMensaje()));
             } else {
                 return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
                     .body(ApiResponse.error(response.getMensaje()));
             }
             
-        } catch (IllegalArgumentException | IllegalStateException e) {
+        } catch (IllegalArgumentException | IllegalStateException | BusinessException e) {
             log.error("❌ Error de validación: {}", e.getMessage());
             return ResponseEntity.badRequest()
                 .body(ApiResponse.error(e.getMessage()));
+        } catch (ConflictException e) {
+            log.warn("⚠️ Pago duplicado: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (PasarelaPagoException e) {
+            // No se llamó a la pasarela: no hubo cargo y el cliente puede reintentar con la misma clave
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("❌ Error al procesar pago: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -98,4 +119,29 @@ public class PagoController {
                 .body(ApiResponse.error("Error al procesar reembolso"));
         }
     }
+
+    /**
+     * Pagos cuyo cargo quedó sin respuesta de la pasarela
+     * GET /api/pagos/por-verificar
+     */
+    @GetMapping("/por-verificar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<PagoResponse>>> obtenerPagosPorVerificar() {
+        return ResponseEntity.ok(ApiResponse.success(pagoService.obtenerPagosPorVerificar()));
+    }
+
+    /**
+     * Concilia un pago por verificar con la pasarela
+     * PATCH /api/pagos/{pagoId}/verificacion?transaccionId=...
+     * Con transaccionId el cargo existe y se aplica; sin él el pago queda fallido
+     */
+    @PatchMapping("/{pagoId}/verificacion")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<PagoResponse>> resolverVerificacion(
+        @PathVariable Long pagoId,
+        @RequestParam(required = false) String transaccionId
+    ) {
+        PagoResponse response = pagoService.resolverVerificacion(pagoId, transaccionId);
+        return ResponseEntity.ok(ApiResponse.success(response, "Pago conciliado"));
+    }
 }
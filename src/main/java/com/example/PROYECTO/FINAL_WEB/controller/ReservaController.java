@@ -6,6 +6,7 @@ import com.example.PROYECTO.FINAL_WEB.dto.response.PageResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.ReservaResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.Usuario;
 import com.example.PROYECTO.FINAL_WEB.service.AuthService;
+import com.example.PROYECTO.FINAL_WEB.service.ReservaLockManager;
 import com.example.PROYECTO.FINAL_WEB.service.ReservaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,9 @@ public class ReservaController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private ReservaLockManager reservaLockManager;
+
     /**
      * POST /api/reservas - Crear nueva reserva
      */
@@ -37,7 +41,9 @@ public class ReservaController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<ReservaResponse>> crearReserva(@Valid @RequestBody ReservaRequest request) {
         Usuario usuario = authService.getCurrentUser();
-        ReservaResponse response = reservaService.crearReserva(request, usuario.getId());
+        // Un intento a la vez por habitación; la transacción se abre y confirma dentro del turno
+        ReservaResponse response = reservaLockManager.ejecutar(request.getHabitacionId(),
+                () -> reservaService.crearReserva(request, usuario.getId()));
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(ApiResponse.success(response, "Reserva creada exitosamente"));
@@ -65,14 +71,18 @@ public class ReservaController {
 
     /**
      * GET /api/reservas/mis-reservas - Obtener reservas del usuario actual
+     * (?cursor= para paginar por cursor; &incluirTotal=true para contar el total)
      */
     @GetMapping("/mis-reservas")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<PageResponse<ReservaResponse>>> getMisReservas(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
         Usuario usuario = authService.getCurrentUser();
-        PageResponse<ReservaResponse> response = reservaService.getReservasByUsuario(usuario.getId(), page, size);
+        PageResponse<ReservaResponse> response =
+                reservaService.getReservasByUsuario(usuario.getId(), page, size, cursor, incluirTotal);
         return ResponseEntity.ok(ApiResponse.success(response, "Mis reservas"));
     }
 
@@ -89,14 +99,18 @@ public class ReservaController {
 
     /**
      * GET /api/reservas/hotel/{hotelId} - Obtener reservas de un hotel (propietario)
+     * (?cursor= para paginar por cursor; &incluirTotal=true para contar el total)
      */
     @GetMapping("/hotel/{hotelId}")
     @PreAuthorize("hasAnyRole('HOST', 'ADMIN')")
     public ResponseEntity<ApiResponse<PageResponse<ReservaResponse>>> getReservasByHotel(
             @PathVariable Long hotelId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        PageResponse<ReservaResponse> response = reservaService.getReservasByHotel(hotelId, page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        PageResponse<ReservaResponse> response =
+                reservaService.getReservasByHotel(hotelId, page, size, cursor, incluirTotal);
         return ResponseEntity.ok(ApiResponse.success(response, "Reservas del hotel"));
     }
 
@@ -45,13 +45,16 @@ public class ReviewController {
 
     /**
      * GET /api/reviews/hotel/{hotelId} - Obtener reviews de un hotel
+     * (?cursor= para paginar por cursor; &incluirTotal=true para contar el total)
      */
     @GetMapping("/hotel/{hotelId}")
     public ResponseEntity<ApiResponse<PageResponse<ReviewResponse>>> getReviewsByHotel(
             @PathVariable Long hotelId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        PageResponse<ReviewResponse> response = reviewService.getReviewsByHotel(hotelId, page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        PageResponse<ReviewResponse> response = reviewService.getReviewsByHotel(hotelId, page, size, cursor, incluirTotal);
         return ResponseEntity.ok(ApiResponse.success(response, "Reviews del hotel"));
     }
 
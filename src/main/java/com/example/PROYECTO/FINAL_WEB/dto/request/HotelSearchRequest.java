@@ -41,4 +41,9 @@ public class HotelSearchRequest {
     private String sortBy = "puntuacionPromedio";
     @Builder.Default
     private String sortDirection = "DESC";
+
+    // Paginación por cursor: vacío para la primera página, luego el nextCursor recibido
+    private String cursor;
+    @Builder.Default
+    private Boolean incluirTotal = false;
 }
@@ -38,6 +38,9 @@ public class ReservaRequest {
     @Builder.Default
     private Boolean reservaPorHoras = false; // true = day use, false = por noche (default)
 
+    @Builder.Default
+    private Boolean pagoEnHotel = false; // true = sin hold de checkout, espera la confirmación del anfitrión
+
     @NotNull(message = "La cantidad de huéspedes es obligatoria")
     @Min(value = 1, message = "Debe haber al menos 1 huésped")
     private Integer cantidadHuespedes;
@@ -0,0 +1,48 @@
+package com.example.PROYECTO.FINAL_WEB.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO del calendario de disponibilidad de un hotel (habitaciones x días).
+ * Cada habitación se codifica en segmentos consecutivos con el mismo estado y precio.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarioDisponibilidadResponse {
+
+    private Long hotelId;
+    private LocalDate inicio;
+    private LocalDate fin;
+    private List<HabitacionCalendarioDTO> habitaciones;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HabitacionCalendarioDTO {
+        private Long habitacionId;
+        private String numero;
+        private BigDecimal precioBase;
+        private List<SegmentoDTO> segmentos;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SegmentoDTO {
+        private LocalDate desde;
+        private LocalDate hasta; // inclusive
+        private String estado;
+        private BigDecimal precio;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.PROYECTO.FINAL_WEB.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas de contención del lock de reservas de una habitación
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContencionReservaResponse {
+
+    private Long habitacionId;
+    private long adquisiciones;
+    private long esperas;
+    private long rechazos;
+    private long timeouts;
+    private int enCurso;
+    private long maxEnCola;
+    private double esperaPromedioMs;
+}
@@ -0,0 +1,23 @@
+package com.example.PROYECTO.FINAL_WEB.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las estadísticas de una región de la caché de segundo nivel
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaCacheResponse {
+
+    private String region;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private long elementos;
+    private double tasaAciertos;
+}
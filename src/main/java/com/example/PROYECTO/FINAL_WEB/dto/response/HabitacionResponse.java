@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO para respuesta de Habitación
@@ -28,6 +29,8 @@ public class HabitacionResponse {
     private BigDecimal metrosCuadrados;
     private String estado;
     private String imagenPrincipal;
+    private String miniatura;
+    private Map<Integer, String> variantes; // ancho -> URL de la imagen principal redimensionada
     private List<String> imagenes;
     private List<AmenidadDTO> amenidades;
     private LocalDateTime creadoEn;
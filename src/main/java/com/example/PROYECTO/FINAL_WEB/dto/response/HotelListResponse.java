@@ -0,0 +1,69 @@
+package com.example.PROYECTO.FINAL_WEB.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO liviano para tarjetas de listado de hoteles.
+ * Se construye directamente desde JPQL (constructor expression); el detalle completo
+ * sigue disponible en GET /api/hotels/{id}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelListResponse {
+
+    private Long id;
+    private String nombre;
+    private DireccionDTO direccion;
+    private Integer estrellas;
+    private BigDecimal precioMinimo;
+    private BigDecimal precioMaximo;
+    private BigDecimal puntuacionPromedio;
+    private Integer totalReviews;
+    private Boolean destacado;
+    private String imagenPrincipal;
+    private String miniatura;
+    private LocalDateTime creadoEn;
+
+    /**
+     * Distancia al punto de búsqueda; solo en búsquedas con latitud/longitud
+     */
+    private Double distanciaKm;
+
+    /**
+     * Constructor usado por las consultas JPQL de HotelRepository
+     */
+    public HotelListResponse(Long id, String nombre, String ciudad, String pais, Integer estrellas,
+                             BigDecimal precioMinimo, BigDecimal precioMaximo, BigDecimal puntuacionPromedio,
+                             Integer totalReviews, Boolean destacado, String imagenPrincipal,
+                             LocalDateTime creadoEn) {
+        this.id = id;
+        this.nombre = nombre;
+        this.direccion = new DireccionDTO(ciudad, pais);
+        this.estrellas = estrellas;
+        this.precioMinimo = precioMinimo;
+        this.precioMaximo = precioMaximo;
+        this.puntuacionPromedio = puntuacionPromedio;
+        this.totalReviews = totalReviews;
+        this.destacado = destacado;
+        this.imagenPrincipal = imagenPrincipal;
+        this.miniatura = imagenPrincipal;
+        this.creadoEn = creadoEn;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DireccionDTO {
+        private String ciudad;
+        private String pais;
+    }
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO para respuesta de Hotel
@@ -32,6 +33,8 @@ public class HotelResponse {
     private BigDecimal puntuacionPromedio;
     private Integer totalReviews;
     private String imagenPrincipal;
+    private String miniatura;
+    private Map<Integer, String> variantes; // ancho -> URL de la imagen principal redimensionada
     private List<String> imagenes;
     private List<AmenidadDTO> amenidades;
     private List<ReviewDTO> reviews;
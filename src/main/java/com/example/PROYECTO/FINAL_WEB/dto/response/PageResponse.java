@@ -24,4 +24,26 @@ public class PageResponse<T> {
     private Boolean last;
     private Boolean first;
     private Boolean empty;
+
+    /**
+     * Cursor para pedir la página siguiente (paginación por clave); null en la última página
+     */
+    private String nextCursor;
+
+    /**
+     * Página pedida con cursor: no hay número de página y el total solo se informa si se pidió
+     */
+    public static <T> PageResponse<T> porCursor(List<T> content, int pageSize, boolean first,
+                                                String nextCursor, Long totalElements) {
+        return PageResponse.<T>builder()
+                .content(content)
+                .pageSize(pageSize)
+                .totalElements(totalElements)
+                .totalPages(totalElements != null ? (int) ((totalElements + pageSize - 1) / pageSize) : null)
+                .first(first)
+                .last(nextCursor == null)
+                .empty(content.isEmpty())
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
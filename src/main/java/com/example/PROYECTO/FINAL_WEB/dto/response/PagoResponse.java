@@ -20,7 +20,7 @@ public class PagoResponse {
     private BigDecimal monto;
     private String moneda;
     private String metodo;
-    private String estado; // pendiente, procesando, completado, fallido, reembolsado
+    private String estado; // pendiente, procesando, completado, fallido, reembolsado, por_reembolsar, por_verificar
     private String transaccionId; // ID de Culqi
     private String proveedorPago; // "Culqi"
     private LocalDateTime fechaPago;
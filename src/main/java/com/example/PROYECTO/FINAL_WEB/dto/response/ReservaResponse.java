@@ -49,6 +49,7 @@ public class ReservaResponse {
     private Boolean puedeCancelarse;
     private LocalDateTime fechaCancelacion;
     private String motivoCancelacion;
+    private LocalDateTime expiraEn;
     private LocalDateTime creadoEn;
     private LocalDateTime actualizadoEn;
 
@@ -0,0 +1,22 @@
+package com.example.PROYECTO.FINAL_WEB.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de sugerencia del buscador: una ciudad (con su país) o un hotel (con su ciudad)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaResponse {
+
+    private String tipo; // ciudad, hotel
+    private String texto;
+    private String detalle;
+    private Long hotelId;
+    private Long cantidadHoteles;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,8 +14,11 @@ import java.time.LocalDateTime;
  * Entidad Direccion - Almacena información de ubicación de hoteles
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "direccion")
 @Table(name = \"direccion\", indexes = {
-    @Index(name = "IX_Direccion_Ciudad", columnList = "ciudad, pais")
+    @Index(name = "IX_Direccion_Ciudad", columnList = "ciudad, pais"),
+    @Index(name = "IX_Direccion_Coordenadas", columnList = "latitud, longitud")
 })
 @Getter
 @Setter
@@ -0,0 +1,66 @@
+package com.example.PROYECTO.FINAL_WEB.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EventoOutbox - Evento de dominio guardado en la misma transacción que el cambio que lo
+ * origina; OutboxDespachador lo entrega después a los consumidores en memoria
+ */
+@Entity
+@Table(name = "outbox_evento", indexes = {
+    @Index(name = "IX_Outbox_Pendiente", columnList = "estado, disponible_en, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoOutbox {
+
+    public static final String RESERVA_CONFIRMADA = "reserva.confirmada";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(name = "tipo", nullable = false, length = 100)
+    private String tipo; // reserva.confirmada, ...
+
+    @NotBlank
+    @Column(name = "agregado", nullable = false, length = 50)
+    private String agregado; // reserva, pago, hotel
+
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    @Column(name = "payload", length = 4000)
+    private String payload; // JSON
+
+    @NotBlank
+    @Builder.Default
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado = "pendiente"; // pendiente, procesado, fallido
+
+    @Builder.Default
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "disponible_en", nullable = false)
+    private LocalDateTime disponibleEn; // no se entrega antes (reintentos y reclamo en curso)
+
+    @CreationTimestamp
+    @Column(name = "creado_en", nullable = false, updatable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(name = "procesado_en")
+    private LocalDateTime procesadoEn;
+}
@@ -21,7 +21,8 @@ import java.util.Set;
         columnNames = {"hotel_id", "numero"}
     ),
     indexes = {
-        @Index(name = "IX_Habitacion_Precio", columnList = "precio_base, capacidad")
+        @Index(name = "IX_Habitacion_Precio", columnList = "precio_base, capacidad"),
+        @Index(name = "IX_Habitacion_Hotel_Capacidad", columnList = "hotel_id, estado, capacidad")
     }
 )
 @Getter
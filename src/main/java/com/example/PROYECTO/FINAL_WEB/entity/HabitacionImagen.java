@@ -1,5 +1,6 @@
 package com.example.PROYECTO.FINAL_WEB.entity;
 
+import com.example.PROYECTO.FINAL_WEB.listener.ImagenEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(ImagenEntityListener.class)
 public class HabitacionImagen {
 
     @Id
@@ -35,6 +37,10 @@ public class HabitacionImagen {
     @Column(name = "url", nullable = false, columnDefinition = "NVARCHAR(MAX)")
     private String url;
 
+    // Base64 original de una imagen migrada, hasta confirmar que su archivo sobrevivió a un reinicio
+    @Column(name = "base64_respaldo", length = Integer.MAX_VALUE)
+    private String base64Respaldo;
+
     @Size(max = 300)
     @Column(name = "alt_text", length = 300)
     private String altText;
@@ -20,7 +20,9 @@ import java.util.Set;
     @Index(name = "IX_Hotel_Propietario", columnList = "propietario_id"),
     @Index(name = "IX_Hotel_Estado", columnList = "estado"),
     @Index(name = "IX_Hotel_Precio", columnList = "precio_minimo, precio_maximo"),
-    @Index(name = "IX_Hotel_Destacado", columnList = "destacado, puntuacion_promedio")
+    @Index(name = "IX_Hotel_Destacado", columnList = "destacado, puntuacion_promedio"),
+    @Index(name = "IX_Hotel_Estado_Puntuacion", columnList = "estado, puntuacion_promedio"),
+    @Index(name = "IX_Hotel_Estado_Estrellas", columnList = "estado, estrellas, puntuacion_promedio")
 })
 @NamedQueries({
     @NamedQuery(
@@ -18,6 +18,8 @@ import java.time.LocalDateTime;
 @Table(name = \"pago\", indexes = {
     @Index(name = "IX_Pago_Reserva", columnList = "reserva_id"),
     @Index(name = "IX_Pago_Estado", columnList = "estado, fecha_pago")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "UX_Pago_Usuario_Clave", columnNames = {"usuario_id", "clave_idempotencia"})
 })
 @Getter
 @Setter
@@ -49,7 +51,7 @@ public class Pago {
 
     @NotBlank
     @Column(name = "estado", nullable = false, length = 30)
-    private String estado; // pendiente, procesando, completado, fallido, reembolsado
+    private String estado; // pendiente, procesando, completado, fallido, reembolsado, por_reembolsar, por_verificar
 
     @Column(name = "transaccion_id", length = 200)
     private String transaccionId;
@@ -60,6 +62,14 @@ public class Pago {
     @Column(name = "fecha_pago")
     private LocalDateTime fechaPago;
 
+    // Usuario que envió el pago: la clave de idempotencia es única por usuario
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id")
+    private Usuario usuario;
+
+    @Column(name = "clave_idempotencia", length = 100)
+    private String claveIdempotencia; // cabecera Idempotency-Key del cliente
+
     @CreationTimestamp
     @Column(name = "creado_en", nullable = false, updatable = false)
     private LocalDateTime creadoEn;
@@ -80,6 +90,7 @@ public class Pago {
      */
     public boolean isPendiente() {
         return "pendiente".equalsIgnoreCase(this.estado) || 
-               "procesando".equalsIgnoreCase(this.estado);
+               "procesando".equalsIgnoreCase(this.estado) ||
+               "por_verificar".equalsIgnoreCase(this.estado);
     }
 }
@@ -19,6 +19,7 @@ import java.util.Set;
 @Table(name = \"reserva\", indexes = {
     @Index(name = "IX_Reserva_Habitacion_Fechas", columnList = "habitacion_id, fecha_checkin, fecha_checkout"),
     @Index(name = "IX_Reserva_Usuario", columnList = "usuario_id, estado"),
+    @Index(name = "IX_Reserva_Usuario_Creado", columnList = "usuario_id, creado_en, id"),
     @Index(name = "IX_Reserva_Codigo", columnList = "codigo_reserva"),
     @Index(name = "IX_Reserva_Estado_Fechas", columnList = "estado, fecha_checkin")
 })
@@ -74,6 +75,10 @@ public class Reserva {
     @Column(name = "estado", nullable = false, length = 30)
     private String estado; // pendiente, confirmada, cancelada, completada, no_show
 
+    // Vencimiento del hold: una reserva pendiente sin pagar se cancela al llegar a esta fecha
+    @Column(name = "expira_en")
+    private LocalDateTime expiraEn;
+
     @NotNull
     @DecimalMin(value = "0.0")
     @Column(name = "subtotal", nullable = false, precision = 12, scale = 2)
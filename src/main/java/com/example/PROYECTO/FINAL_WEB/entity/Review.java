@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = \"review\", indexes = {
-    @Index(name = "IX_Review_Hotel", columnList = "hotel_id, creado_en"),
+    @Index(name = "IX_Review_Hotel", columnList = "hotel_id, creado_en, id"),
     @Index(name = "IX_Review_Usuario", columnList = "usuario_id")
 })
 @NamedQueries({
@@ -0,0 +1,17 @@
+package com.example.PROYECTO.FINAL_WEB.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evento de dominio: cambió algún dato visible en el detalle de un hotel
+ * (datos propios, estado, imágenes, amenidades, reviews o rango de precios).
+ * Se publica dentro de la transacción y los listeners lo procesan tras el commit.
+ */
+@Getter
+@RequiredArgsConstructor
+public class HotelModificadoEvent {
+
+    private final Long hotelId;
+    private final String motivo;
+}
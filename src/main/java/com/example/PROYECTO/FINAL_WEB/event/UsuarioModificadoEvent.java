@@ -0,0 +1,17 @@
+package com.example.PROYECTO.FINAL_WEB.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evento de dominio: cambió algún dato de un usuario que se muestra en el detalle de los hoteles
+ * (como propietario o como autor de reviews).
+ * Se publica dentro de la transacción y los listeners lo procesan tras el commit.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UsuarioModificadoEvent {
+
+    private final Long usuarioId;
+    private final String motivo;
+}
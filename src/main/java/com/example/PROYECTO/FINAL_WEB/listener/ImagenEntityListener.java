@@ -0,0 +1,43 @@
+package com.example.PROYECTO.FINAL_WEB.listener;
+
+import com.example.PROYECTO.FINAL_WEB.entity.HabitacionImagen;
+import com.example.PROYECTO.FINAL_WEB.entity.HotelImagen;
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
+import com.example.PROYECTO.FINAL_WEB.service.ImagenVarianteService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de HotelImagen/HabitacionImagen: encola la generación de variantes
+ * cada vez que se guarda una imagen y avisa del cambio en el hotel.
+ * Hibernate lo obtiene como bean de Spring.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImagenEntityListener {
+
+    // Se resuelve de forma diferida: el EntityManagerFactory se crea antes que los servicios
+    private final ObjectProvider<ImagenVarianteService> imagenVarianteService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void alGuardar(Object entidad) {
+        if (entidad instanceof HotelImagen imagen && imagen.getHotel() != null) {
+            eventPublisher.publishEvent(new HotelModificadoEvent(imagen.getHotel().getId(), "imagen"));
+        }
+        ImagenVarianteService servicio = imagenVarianteService.getIfAvailable();
+        if (servicio == null) {
+            return;
+        }
+        if (entidad instanceof HotelImagen imagen) {
+            servicio.generarVariantesAsync(imagen.getUrl());
+        } else if (entidad instanceof HabitacionImagen imagen) {
+            servicio.generarVariantesAsync(imagen.getUrl());
+        }
+    }
+}
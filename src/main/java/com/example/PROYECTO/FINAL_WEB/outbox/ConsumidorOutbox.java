@@ -0,0 +1,18 @@
+package com.example.PROYECTO.FINAL_WEB.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Consumidor en memoria de eventos del outbox.
+ * La entrega es al menos una vez: un evento puede repetirse tras un fallo o un reinicio, por lo
+ * que procesar debe ser idempotente. Si lanza una excepción el evento se reintenta más tarde.
+ */
+public interface ConsumidorOutbox {
+
+    /**
+     * Tipo de evento que atiende (ej: EventoOutbox.RESERVA_CONFIRMADA)
+     */
+    String tipo();
+
+    void procesar(Long agregadoId, JsonNode payload);
+}
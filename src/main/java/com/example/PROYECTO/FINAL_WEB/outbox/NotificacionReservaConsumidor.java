@@ -0,0 +1,28 @@
+package com.example.PROYECTO.FINAL_WEB.outbox;
+
+import com.example.PROYECTO.FINAL_WEB.entity.EventoOutbox;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aviso de reserva confirmada al huésped.
+ * Todavía no hay servicio de correo: por ahora el aviso se registra en el log. Al integrar uno,
+ * el envío va aquí y debe tolerar repeticiones (usar el reservaId como clave de deduplicación).
+ */
+@Slf4j
+@Component
+public class NotificacionReservaConsumidor implements ConsumidorOutbox {
+
+    @Override
+    public String tipo() {
+        return EventoOutbox.RESERVA_CONFIRMADA;
+    }
+
+    @Override
+    public void procesar(Long reservaId, JsonNode payload) {
+        log.info("📧 Reserva {} confirmada ({}): aviso para {}",
+                payload.path("codigoReserva").asText(), payload.path("origen").asText(),
+                payload.path("email").asText());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.PROYECTO.FINAL_WEB.outbox;
+
+import com.example.PROYECTO.FINAL_WEB.entity.EventoOutbox;
+import com.example.PROYECTO.FINAL_WEB.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Entrega periódica de los eventos del outbox a los ConsumidorOutbox registrados.
+ * Cada ronda reclama un lote en una transacción corta (SKIP LOCKED, así varias instancias no se
+ * pisan) y corre disponible_en un plazo de reclamo; luego entrega cada evento fuera de la
+ * transacción y lo marca procesado. Si la instancia se cae a mitad del lote, el plazo vence y
+ * otra lo vuelve a tomar: entrega al menos una vez. Los fallos se reintentan con espera
+ * exponencial hasta el máximo de intentos y luego el evento queda como fallido.
+ */
+@Slf4j
+@Component
+public class OutboxDespachador {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofHours(1);
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, List<ConsumidorOutbox>> consumidoresPorTipo;
+    private final int tamanioLote;
+    private final Duration plazoReclamo;
+    private final Duration esperaBase;
+    private final int maxIntentos;
+    private final int retencionDias;
+
+    private final LongAdder entregados = new LongAdder();
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    public OutboxDespachador(EventoOutboxRepository eventoOutboxRepository,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             List<ConsumidorOutbox> consumidores,
+                             @Value("${app.outbox.lote:100}") int tamanioLote,
+                             @Value("${app.outbox.plazo-reclamo-segundos:60}") long plazoReclamoSegundos,
+                             @Value("${app.outbox.espera-reintento-segundos:5}") long esperaReintentoSegundos,
+                             @Value("${app.outbox.max-intentos:10}") int maxIntentos,
+                             @Value("${app.outbox.retencion-dias:7}") int retencionDias) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.consumidoresPorTipo = consumidores.stream()
+                .collect(Collectors.groupingBy(ConsumidorOutbox::tipo));
+        this.tamanioLote = tamanioLote;
+        this.plazoReclamo = Duration.ofSeconds(plazoReclamoSegundos);
+        this.esperaBase = Duration.ofSeconds(esperaReintentoSegundos);
+        this.maxIntentos = maxIntentos;
+        this.retencionDias = retencionDias;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:1000}",
+               initialDelayString = "${app.outbox.intervalo-ms:1000}")
+    public void despachar() {
+        try {
+            List<Reclamado> lote;
+            do {
+                lote = transactionTemplate.execute(status -> reclamarLote());
+                lote.forEach(this::entregar);
+            } while (lote.size() == tamanioLote);
+        } catch (RuntimeException e) {
+            log.error("Error despachando eventos del outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Eliminar eventos procesados más antiguos que la retención configurada (todos los días a las 3:30)
+     */
+    @Scheduled(cron = "${app.outbox.limpieza-cron:0 30 3 * * *}")
+    public void limpiarProcesados() {
+        Integer eliminados = transactionTemplate.execute(status ->
+                eventoOutboxRepository.eliminarProcesadosAntesDe(LocalDateTime.now().minusDays(retencionDias)));
+        log.info("Outbox: {} eventos procesados eliminados", eliminados);
+    }
+
+    /**
+     * Eventos por estado en la tabla y contadores de esta instancia desde el arranque
+     */
+    public Map<String, Long> obtenerEstadisticas() {
+        Map<String, Long> estadisticas = new LinkedHashMap<>();
+        for (Object[] fila : eventoOutboxRepository.contarPorEstado()) {
+            estadisticas.put((String) fila[0], (Long) fila[1]);
+        }
+        estadisticas.put("entregados", entregados.sum());
+        estadisticas.put("reintentos", reintentos.sum());
+        estadisticas.put("descartados", descartados.sum());
+        return estadisticas;
+    }
+
+    private List<Reclamado> reclamarLote() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoOutbox> eventos = eventoOutboxRepository.reclamarPendientes(ahora, PageRequest.of(0, tamanioLote));
+        LocalDateTime reclamadoHasta = ahora.plus(plazoReclamo);
+        eventos.forEach(evento -> evento.setDisponibleEn(reclamadoHasta));
+        return eventos.stream()
+                .map(evento -> new Reclamado(evento.getId(), evento.getTipo(), evento.getAgregadoId(),
+                        evento.getPayload(), evento.getIntentos()))
+                .toList();
+    }
+
+    private void entregar(Reclamado evento) {
+        try {
+            JsonNode payload = evento.payload() != null
+                    ? objectMapper.readTree(evento.payload())
+                    : objectMapper.createObjectNode();
+            for (ConsumidorOutbox consumidor : consumidoresPorTipo.getOrDefault(evento.tipo(), List.of())) {
+                consumidor.procesar(evento.agregadoId(), payload);
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    eventoOutboxRepository.marcarProcesado(evento.id(), LocalDateTime.now()));
+            entregados.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            registrarFallo(evento, e);
+        }
+    }
+
+    private void registrarFallo(Reclamado evento, Exception error) {
+        int intentos = evento.intentos() + 1;
+        boolean agotado = intentos >= maxIntentos;
+        Duration espera = esperaBase.multipliedBy(1L << Math.min(intentos - 1, 20));
+        LocalDateTime reintentoEn = LocalDateTime.now().plus(espera.compareTo(ESPERA_MAXIMA) > 0 ? ESPERA_MAXIMA : espera);
+        String mensaje = error.getMessage() != null && error.getMessage().length() > 500
+                ? error.getMessage().substring(0, 500)
+                : error.getMessage();
+
+        transactionTemplate.executeWithoutResult(status -> eventoOutboxRepository.registrarFallo(
+                evento.id(), agotado ? "fallido" : "pendiente", mensaje, reintentoEn));
+        if (agotado) {
+            descartados.increment();
+            log.error("Evento {} ({}) descartado tras {} intentos: {}", evento.id(), evento.tipo(), intentos, mensaje);
+        } else {
+            reintentos.increment();
+            log.warn("Evento {} ({}) falló, reintento {} a las {}: {}", evento.id(), evento.tipo(), intentos, reintentoEn, mensaje);
+        }
+    }
+
+    private record Reclamado(Long id, String tipo, Long agregadoId, String payload, int intentos) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.PROYECTO.FINAL_WEB.outbox;
+
+import com.example.PROYECTO.FINAL_WEB.entity.EventoOutbox;
+import com.example.PROYECTO.FINAL_WEB.entity.Reserva;
+import com.example.PROYECTO.FINAL_WEB.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publicación de eventos en el outbox (tabla outbox_evento).
+ * El evento se inserta en la transacción del cambio que lo origina: si esa transacción se revierte
+ * el evento no existe, y si confirma se entrega aunque la instancia se caiga justo después.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Registrar un evento; exige una transacción activa
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(String tipo, String agregado, Long agregadoId, Map<String, Object> payload) {
+        EventoOutbox evento = EventoOutbox.builder()
+                .tipo(tipo)
+                .agregado(agregado)
+                .agregadoId(agregadoId)
+                .payload(aJson(payload))
+                .disponibleEn(LocalDateTime.now())
+                .build();
+        eventoOutboxRepository.save(evento);
+    }
+
+    /**
+     * Reserva confirmada (origen: pago o confirmación manual); exige una transacción activa
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicarReservaConfirmada(Reserva reserva, Long pagoId, String origen) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("codigoReserva", reserva.getCodigoReserva());
+        payload.put("origen", origen);
+        payload.put("pagoId", pagoId);
+        payload.put("hotelId", reserva.getHabitacion().getHotel().getId());
+        payload.put("usuarioId", reserva.getUsuario().getId());
+        payload.put("email", reserva.getUsuario().getEmail());
+        payload.put("total", reserva.getTotal());
+        payload.put("fechaCheckin", reserva.getFechaCheckin());
+        payload.put("fechaCheckout", reserva.getFechaCheckout());
+        publicar(EventoOutbox.RESERVA_CONFIRMADA, "reserva", reserva.getId(), payload);
+    }
+
+    private String aJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload de evento no serializable: " + e.getMessage(), e);
+        }
+    }
+}
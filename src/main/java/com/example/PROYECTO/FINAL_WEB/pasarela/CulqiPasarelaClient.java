@@ -0,0 +1,196 @@
+package com.example.PROYECTO.FINAL_WEB.pasarela;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cliente de la API de cargos de Culqi.
+ * Usa un pool de conexiones propio con timeouts de conexión y de respuesta, un bulkhead que limita
+ * los cargos simultáneos y un circuit breaker que deja de llamar a Culqi mientras falla o responde
+ * lento. Los cargos no se reintentan: un POST /charges repetido podría cobrar dos veces.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.pagos.pasarela", havingValue = "culqi", matchIfMissing = true)
+public class CulqiPasarelaClient implements PasarelaPagoClient {
+
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public CulqiPasarelaClient(@Value("${culqi.api.url:https://api.culqi.com/v2}") String culqiApiUrl,
+                               @Value("${culqi.secret.key:sk_test_dummy}") String culqiSecretKey,
+                               @Value("${app.pagos.culqi.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                               @Value("${app.pagos.culqi.read-timeout-ms:10000}") long readTimeoutMillis,
+                               @Value("${app.pagos.culqi.pool-max:20}") int maxConexiones,
+                               @Value("${app.pagos.culqi.max-concurrentes:10}") int maxConcurrentes,
+                               @Value("${app.pagos.culqi.espera-bulkhead-ms:200}") long esperaBulkheadMillis,
+                               @Value("${app.pagos.culqi.circuito.umbral-fallos:50}") float umbralFallos,
+                               @Value("${app.pagos.culqi.circuito.ventana:20}") int ventana,
+                               @Value("${app.pagos.culqi.circuito.abierto-segundos:30}") long abiertoSegundos) {
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConexiones)
+                        .setMaxConnPerRoute(maxConexiones)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                                .setTimeToLive(TimeValue.ofMinutes(5))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .disableAutomaticRetries()
+                .build();
+
+        this.restClient = RestClient.builder()
+                .baseUrl(culqiApiUrl)
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + culqiSecretKey)
+                .build();
+
+        this.circuitBreaker = CircuitBreaker.of("culqi", CircuitBreakerConfig.custom()
+                .failureRateThreshold(umbralFallos)
+                .slowCallRateThreshold(umbralFallos)
+                .slowCallDurationThreshold(Duration.ofMillis(readTimeoutMillis / 2))
+                .slidingWindowSize(ventana)
+                .minimumNumberOfCalls(Math.min(10, ventana))
+                .waitDurationInOpenState(Duration.ofSeconds(abiertoSegundos))
+                .permittedNumberOfCallsInHalfOpenState(2)
+                .build());
+        this.circuitBreaker.getEventPublisher().onStateTransition(evento ->
+                log.warn("Circuito de Culqi: {}", evento.getStateTransition()));
+
+        this.bulkhead = Bulkhead.of("culqi", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentes)
+                .maxWaitDuration(Duration.ofMillis(esperaBulkheadMillis))
+                .build());
+    }
+
+    @Override
+    public String nombre() {
+        return "Culqi";
+    }
+
+    @Override
+    public ResultadoCargo crearCargo(SolicitudCargo solicitud) {
+        Supplier<ResultadoCargo> llamada = Bulkhead.decorateSupplier(bulkhead,
+                CircuitBreaker.decorateSupplier(circuitBreaker, () -> llamarCulqi(solicitud)));
+        try {
+            return llamada.get();
+        } catch (CallNotPermittedException e) {
+            throw new PasarelaPagoException("La pasarela de pagos no está disponible, intente en unos minutos", false);
+        } catch (BulkheadFullException e) {
+            throw new PasarelaPagoException("Hay demasiados pagos en curso, intente nuevamente", false);
+        } catch (RestClientException e) {
+            throw new PasarelaPagoException("No se pudo completar el cargo en Culqi: " + e.getMessage(), e,
+                    !sinConexion(e));
+        }
+    }
+
+    /**
+     * El POST no llegó a salir: no se obtuvo conexión del pool o no se pudo conectar con Culqi.
+     * Cualquier otro error (timeout de respuesta, 5xx, conexión cortada) deja el cargo en duda.
+     */
+    private static boolean sinConexion(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConnectException
+                    || causa instanceof UnknownHostException
+                    || causa instanceof ConnectTimeoutException
+                    || causa instanceof ConnectionRequestTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * POST /charges. Un 4xx es un rechazo (no cuenta como fallo del circuito); 5xx y errores de red sí.
+     */
+    private ResultadoCargo llamarCulqi(SolicitudCargo solicitud) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("amount", solicitud.monto().multiply(new BigDecimal("100")).intValue()); // Culqi usa centavos
+        body.put("currency_code", solicitud.moneda());
+        body.put("email", solicitud.email());
+        body.put("source_id", solicitud.token());
+        body.put("description", solicitud.descripcion() != null
+                ? solicitud.descripcion()
+                : "Reserva " + solicitud.codigoReserva());
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("reserva_id", solicitud.reservaId());
+        metadata.put("codigo_reserva", solicitud.codigoReserva());
+        metadata.put("hotel_id", solicitud.hotelId());
+        body.put("metadata", metadata);
+
+        log.info("📡 Creando cargo en Culqi para reserva {}", solicitud.codigoReserva());
+        try {
+            Map<?, ?> respuesta = restClient.post()
+                    .uri("/charges")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body)
+                    .retrieve()
+                    .body(Map.class);
+            String transaccionId = respuesta != null ? (String) respuesta.get("id") : null;
+            log.info("✅ Cargo creado en Culqi: {}", transaccionId);
+            return ResultadoCargo.aprobado(transaccionId);
+        } catch (HttpClientErrorException e) {
+            log.warn("Cargo rechazado por Culqi ({}): {}", e.getStatusCode(), e.getResponseBodyAsString());
+            return ResultadoCargo.rechazado(mensajeDeRechazo(e));
+        }
+    }
+
+    private static String mensajeDeRechazo(HttpClientErrorException e) {
+        try {
+            Map<?, ?> error = e.getResponseBodyAs(Map.class);
+            if (error != null && error.get("user_message") != null) {
+                return error.get("user_message").toString();
+            }
+        } catch (RuntimeException ignorada) {
+            // cuerpo no JSON: se usa el estado HTTP
+        }
+        return "Cargo rechazado por la pasarela (" + e.getStatusCode().value() + ")";
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        httpClient.close();
+    }
+}
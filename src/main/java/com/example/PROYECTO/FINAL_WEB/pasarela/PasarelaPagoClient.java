@@ -0,0 +1,19 @@
+package com.example.PROYECTO.FINAL_WEB.pasarela;
+
+/**
+ * Cliente de la pasarela de pagos. PagoService lo llama fuera de cualquier transacción.
+ * Implementaciones: CulqiPasarelaClient (por defecto) y PasarelaPagoStub (app.pagos.pasarela=stub).
+ */
+public interface PasarelaPagoClient {
+
+    /**
+     * Nombre del proveedor que se guarda en pago.proveedor_pago
+     */
+    String nombre();
+
+    /**
+     * Crear un cargo. Un rechazo de la pasarela (tarjeta denegada, datos inválidos) se devuelve
+     * como resultado no exitoso; la pasarela caída, lenta o saturada lanza PasarelaPagoException.
+     */
+    ResultadoCargo crearCargo(SolicitudCargo solicitud);
+}
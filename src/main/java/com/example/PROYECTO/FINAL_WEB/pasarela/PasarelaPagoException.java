@@ -0,0 +1,26 @@
+package com.example.PROYECTO.FINAL_WEB.pasarela;
+
+/**
+ * La pasarela no respondió, respondió con error de servidor o no se la llamó
+ * (circuito abierto o demasiados cargos en curso).
+ * cargoEnviado indica si la solicitud pudo llegar a la pasarela: en ese caso no se sabe
+ * si el cargo se creó y el pago no puede darse por fallido.
+ */
+public class PasarelaPagoException extends RuntimeException {
+
+    private final boolean cargoEnviado;
+
+    public PasarelaPagoException(String message, boolean cargoEnviado) {
+        super(message);
+        this.cargoEnviado = cargoEnviado;
+    }
+
+    public PasarelaPagoException(String message, Throwable cause, boolean cargoEnviado) {
+        super(message, cause);
+        this.cargoEnviado = cargoEnviado;
+    }
+
+    public boolean isCargoEnviado() {
+        return cargoEnviado;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.PROYECTO.FINAL_WEB.pasarela;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Pasarela local para desarrollo y pruebas (app.pagos.pasarela=stub): aprueba todos los cargos
+ * salvo los de tokens que contienen "rechazo"; los que contienen "caida" simulan la pasarela caída.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.pagos.pasarela", havingValue = "stub")
+public class PasarelaPagoStub implements PasarelaPagoClient {
+
+    @Override
+    public String nombre() {
+        return "Stub";
+    }
+
+    @Override
+    public ResultadoCargo crearCargo(SolicitudCargo solicitud) {
+        String token = solicitud.token() != null ? solicitud.token() : "";
+        if (token.contains("caida")) {
+            throw new PasarelaPagoException("Pasarela de pagos no disponible (stub)", false);
+        }
+        if (token.contains("rechazo")) {
+            return ResultadoCargo.rechazado("Tarjeta rechazada (stub)");
+        }
+        log.info("Cargo simulado para reserva {}: {} {}", solicitud.codigoReserva(), solicitud.monto(), solicitud.moneda());
+        return ResultadoCargo.aprobado("stub_" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.PROYECTO.FINAL_WEB.pasarela;
+
+/**
+ * Resultado de un cargo: id de transacción si fue aprobado, o el motivo del rechazo.
+ * Un resultado incierto es un cargo enviado sin respuesta de la pasarela: pudo haberse cobrado.
+ */
+public record ResultadoCargo(boolean exitoso, String transaccionId, String mensaje, boolean incierto) {
+
+    public static ResultadoCargo aprobado(String transaccionId) {
+        return new ResultadoCargo(true, transaccionId, null, false);
+    }
+
+    public static ResultadoCargo rechazado(String mensaje) {
+        return new ResultadoCargo(false, null, mensaje, false);
+    }
+
+    public static ResultadoCargo incierto(String mensaje) {
+        return new ResultadoCargo(false, null, mensaje, true);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.PROYECTO.FINAL_WEB.pasarela;
+
+import java.math.BigDecimal;
+
+/**
+ * Datos del cargo, copiados de la reserva antes de cerrar la transacción
+ */
+public record SolicitudCargo(Long pagoId,
+                             Long reservaId,
+                             String codigoReserva,
+                             Long hotelId,
+                             BigDecimal monto,
+                             String moneda,
+                             String email,
+                             String token,
+                             String descripcion) {
+}
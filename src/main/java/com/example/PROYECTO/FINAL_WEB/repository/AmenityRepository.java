@@ -1,8 +1,11 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.Amenity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,12 +21,14 @@ public interface AmenityRepository extends JpaRepository<Amenity, Long> {
     /**
      * Buscar amenidad por nombre
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT a FROM Amenity a WHERE LOWER(a.nombre) = LOWER(:nombre)")
     Optional<Amenity> findByNombreIgnoreCase(@Param("nombre") String nombre);
 
     /**
      * Buscar amenidades por categoría
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT a FROM Amenity a WHERE a.categoria = :categoria ORDER BY a.nombre ASC")
     List<Amenity> findByCategoria(@Param("categoria") String categoria);
 
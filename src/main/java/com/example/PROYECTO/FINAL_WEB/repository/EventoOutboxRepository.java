@@ -0,0 +1,70 @@
+package com.example.PROYECTO.FINAL_WEB.repository;
+
+import com.example.PROYECTO.FINAL_WEB.entity.EventoOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository para EventoOutbox
+ */
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Reclamar eventos pendientes disponibles, en orden de creación.
+     * Lock de escritura con SKIP LOCKED (lock.timeout = -2): las filas que otra instancia está
+     * reclamando se saltan en lugar de esperar (FOR UPDATE SKIP LOCKED en PostgreSQL,
+     * READPAST en SQL Server)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT e FROM EventoOutbox e " +
+           "WHERE e.estado = 'pendiente' AND e.disponibleEn <= :ahora " +
+           "ORDER BY e.id")
+    List<EventoOutbox> reclamarPendientes(@Param("ahora") LocalDateTime ahora, Pageable lote);
+
+    /**
+     * Marcar un evento como entregado a todos sus consumidores
+     */
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.estado = 'procesado', e.procesadoEn = :ahora, e.ultimoError = null " +
+           "WHERE e.id = :id")
+    int marcarProcesado(@Param("id") Long id, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Registrar un intento fallido: se reprograma o queda como fallido
+     */
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.estado = :estado, e.intentos = e.intentos + 1, " +
+           "e.ultimoError = :error, e.disponibleEn = :reintentoEn " +
+           "WHERE e.id = :id")
+    int registrarFallo(@Param("id") Long id,
+                       @Param("estado") String estado,
+                       @Param("error") String error,
+                       @Param("reintentoEn") LocalDateTime reintentoEn);
+
+    /**
+     * Eliminar eventos ya procesados antes de la fecha límite
+     */
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.estado = 'procesado' AND e.procesadoEn < :fechaLimite")
+    int eliminarProcesadosAntesDe(@Param("fechaLimite") LocalDateTime fechaLimite);
+
+    /**
+     * Cantidad de eventos por estado
+     */
+    @Query("SELECT e.estado, COUNT(e) FROM EventoOutbox e GROUP BY e.estado")
+    List<Object[]> contarPorEstado();
+}
@@ -1,6 +1,7 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.HabitacionImagen;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,4 +36,17 @@ public interface HabitacionImagenRepository extends JpaRepository<HabitacionImag
      * Cuenta las imágenes de una habitación
      */
     long countByHabitacionId(Long habitacionId);
+
+    /**
+     * Siguiente lote (keyset por id) de imágenes que aún guardan base64 en la columna url
+     */
+    @Query("SELECT hi FROM HabitacionImagen hi WHERE hi.id > :ultimoId " +
+           "AND hi.url NOT LIKE '/%' AND hi.url NOT LIKE 'http%' ORDER BY hi.id")
+    List<HabitacionImagen> findPendientesDeMigrar(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    /**
+     * Siguiente lote (keyset por id) de imágenes migradas que aún conservan su base64 de respaldo
+     */
+    @Query("SELECT hi FROM HabitacionImagen hi WHERE hi.id > :ultimoId AND hi.base64Respaldo IS NOT NULL ORDER BY hi.id")
+    List<HabitacionImagen> findConRespaldo(@Param("ultimoId") Long ultimoId, Pageable pageable);
 }
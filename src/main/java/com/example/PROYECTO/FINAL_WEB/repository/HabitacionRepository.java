@@ -1,7 +1,9 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.Habitacion;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,6 +30,15 @@ public interface HabitacionRepository extends JpaRepository<Habitacion, Long> {
            "WHERE h.id = :id AND h.eliminadoEn IS NULL")
     Optional<Habitacion> findByIdWithDetails(@Param("id") Long id);
 
+    /**
+     * Bloquear la fila de la habitación (SELECT ... FOR UPDATE).
+     * Serializa las reservas por horas, que no reclaman noches en room_availability,
+     * con las reservas por noche de la misma habitación.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Habitacion h WHERE h.id = :id")
+    Optional<Habitacion> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Buscar habitaciones por hotel
      */
@@ -0,0 +1,35 @@
+package com.example.PROYECTO.FINAL_WEB.repository;
+
+import com.example.PROYECTO.FINAL_WEB.entity.HotelAmenity;
+import com.example.PROYECTO.FINAL_WEB.entity.HotelAmenityId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository para HotelAmenity
+ */
+@Repository
+public interface HotelAmenityRepository extends JpaRepository<HotelAmenity, HotelAmenityId> {
+
+    /**
+     * Buscar amenidades de varios hoteles junto con su amenity (mapeo por lotes)
+     */
+    @Query("SELECT ha FROM HotelAmenity ha " +
+           "JOIN FETCH ha.amenity " +
+           "WHERE ha.hotel.id IN :hotelIds")
+    List<HotelAmenity> findByHotelIdInWithAmenity(@Param("hotelIds") Collection<Long> hotelIds);
+
+    /**
+     * Id de hotel y nombre de amenidad de los hoteles con id en (desdeId, hastaId]
+     * (documentos del índice de búsqueda; el rango recorre la PK hotel_id, amenity_id)
+     */
+    @Query("SELECT ha.hotel.id, a.nombre FROM HotelAmenity ha " +
+           "JOIN ha.amenity a " +
+           "WHERE ha.hotel.id > :desdeId AND ha.hotel.id <= :hastaId")
+    List<Object[]> findNombresAmenidadPorRangoHotel(@Param("desdeId") Long desdeId, @Param("hastaId") Long hastaId);
+}
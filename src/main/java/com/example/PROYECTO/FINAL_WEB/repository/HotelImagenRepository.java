@@ -1,11 +1,13 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.HotelImagen;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +22,12 @@ public interface HotelImagenRepository extends JpaRepository<HotelImagen, Long>
      */
     List<HotelImagen> findByHotelIdOrderByOrdenAsc(Long hotelId);
 
+    /**
+     * Busca las imágenes de varios hoteles en una sola consulta (mapeo por lotes)
+     */
+    @Query("SELECT hi FROM HotelImagen hi WHERE hi.hotel.id IN :hotelIds ORDER BY hi.hotel.id, hi.orden ASC")
+    List<HotelImagen> findByHotelIdIn(@Param("hotelIds") Collection<Long> hotelIds);
+
     /**
      * Busca la imagen principal de un hotel
      */
@@ -35,4 +43,17 @@ public interface HotelImagenRepository extends JpaRepository<HotelImagen, Long>
      * Cuenta las imágenes de un hotel
      */
     long countByHotelId(Long hotelId);
+
+    /**
+     * Siguiente lote (keyset por id) de imágenes que aún guardan base64 en la columna url
+     */
+    @Query("SELECT hi FROM HotelImagen hi WHERE hi.id > :ultimoId " +
+           "AND hi.url NOT LIKE '/%' AND hi.url NOT LIKE 'http%' ORDER BY hi.id")
+    List<HotelImagen> findPendientesDeMigrar(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    /**
+     * Siguiente lote (keyset por id) de imágenes migradas que aún conservan su base64 de respaldo
+     */
+    @Query("SELECT hi FROM HotelImagen hi WHERE hi.id > :ultimoId AND hi.base64Respaldo IS NOT NULL ORDER BY hi.id")
+    List<HotelImagen> findConRespaldo(@Param("ultimoId") Long ultimoId, Pageable pageable);
 }
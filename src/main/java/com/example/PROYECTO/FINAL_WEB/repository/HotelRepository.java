@@ -1,5 +1,6 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
+import com.example.PROYECTO.FINAL_WEB.dto.response.HotelListResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.Hotel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,7 +20,18 @@ import java.util.Optional;
  * Repository para Hotel con queries JPQL avanzadas
  */
 @Repository
-public interface HotelRepository extends JpaRepository<Hotel, Long> {
+public interface HotelRepository extends JpaRepository<Hotel, Long>, HotelRepositoryCustom {
+
+    /**
+     * Proyección de listado: hotel + dirección + imagen principal en una sola fila
+     */
+    String SELECT_LISTADO = "SELECT new com.example.PROYECTO.FINAL_WEB.dto.response.HotelListResponse(" +
+           "h.id, h.nombre, d.ciudad, d.pais, h.estrellas, h.precioMinimo, h.precioMaximo, " +
+           "h.puntuacionPromedio, h.totalReviews, h.destacado, img.url, h.creadoEn) " +
+           "FROM Hotel h " +
+           "LEFT JOIN h.direccion d " +
+           "LEFT JOIN HotelImagen img ON img.hotel = h AND img.id = (" +
+           "  SELECT MIN(i.id) FROM HotelImagen i WHERE i.hotel = h AND i.esPrincipal = true) ";
 
     /**
      * Buscar hotel por ID incluyendo dirección y propietario (fetch join para evitar N+1)
@@ -30,39 +43,70 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     Optional<Hotel> findByIdWithDetails(@Param("id") Long id);
 
     /**
-     * Buscar hoteles aprobados y activos
+     * Buscar hoteles aprobados y activos (proyección de listado)
      */
-    @Query("SELECT h FROM Hotel h WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL")
-    Page<Hotel> findHotelesAprobados(Pageable pageable);
+    @Query(value = SELECT_LISTADO +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL",
+           countQuery = "SELECT COUNT(h) FROM Hotel h WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL")
+    Page<HotelListResponse> findHotelesAprobados(Pageable pageable);
 
     /**
-     * Buscar hoteles destacados
+     * Proyección de listado de los hoteles indicados (página ya resuelta por HotelGeoIndex)
      */
-    @Query("SELECT h FROM Hotel h " +
-           "LEFT JOIN FETCH h.direccion " +
-           "WHERE h.destacado = true AND h.estado = 'aprobado' AND h.eliminadoEn IS NULL " +
-           "ORDER BY h.puntuacionPromedio DESC")
-    List<Hotel> findHotelesDestacados();
+    @Query(SELECT_LISTADO + "WHERE h.id IN :ids")
+    List<HotelListResponse> findListadoPorIds(@Param("ids") Collection<Long> ids);
 
     /**
-     * Buscar hoteles por ciudad (búsqueda compleja con filtros)
+     * Id, latitud y longitud de los hoteles aprobados con coordenadas (carga de HotelGeoIndex)
      */
-    @Query("SELECT DISTINCT h FROM Hotel h " +
-           "LEFT JOIN FETCH h.direccion d " +
-           "WHERE (:ciudad IS NULL OR LOWER(d.ciudad) LIKE LOWER(CONCAT('%', :ciudad, '%'))) " +
-           "AND (:pais IS NULL OR LOWER(d.pais) LIKE LOWER(CONCAT('%', :pais, '%'))) " +
-           "AND (:estrellas IS NULL OR h.estrellas = :estrellas) " +
-           "AND (:precioMin IS NULL OR h.precioMinimo >= :precioMin) " +
-           "AND (:precioMax IS NULL OR h.precioMaximo <= :precioMax) " +
-           "AND h.estado = 'aprobado' AND h.eliminadoEn IS NULL")
-    Page<Hotel> buscarHotelesConFiltros(
-        @Param("ciudad") String ciudad,
-        @Param("pais") String pais,
-        @Param("estrellas") Integer estrellas,
-        @Param("precioMin") BigDecimal precioMin,
-        @Param("precioMax") BigDecimal precioMax,
-        Pageable pageable
-    );
+    @Query("SELECT h.id, d.latitud, d.longitud FROM Hotel h JOIN h.direccion d " +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL " +
+           "AND d.latitud IS NOT NULL AND d.longitud IS NOT NULL")
+    List<Object[]> findCoordenadasHotelesAprobados();
+
+    /**
+     * Id, latitud y longitud de un hotel si está aprobado y tiene coordenadas
+     */
+    @Query("SELECT h.id, d.latitud, d.longitud FROM Hotel h JOIN h.direccion d " +
+           "WHERE h.id = :id AND h.estado = 'aprobado' AND h.eliminadoEn IS NULL " +
+           "AND d.latitud IS NOT NULL AND d.longitud IS NOT NULL")
+    List<Object[]> findCoordenadasHotelAprobado(@Param("id") Long id);
+
+    /**
+     * Hoteles aprobados cuyo nombre empieza con el texto (búsqueda mientras carga el índice de texto)
+     */
+    @Query(value = SELECT_LISTADO +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL AND LOWER(h.nombre) LIKE :prefijo " +
+           "ORDER BY h.puntuacionPromedio DESC, h.id",
+           countQuery = "SELECT COUNT(h) FROM Hotel h " +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL AND LOWER(h.nombre) LIKE :prefijo")
+    Page<HotelListResponse> findListadoPorPrefijoNombre(@Param("prefijo") String prefijo, Pageable pageable);
+
+    /**
+     * Id, nombre, descripción, ciudad, país y puntuación de hoteles aprobados con id mayor a desdeId,
+     * en orden de id (carga por lotes del índice de búsqueda por texto)
+     */
+    @Query("SELECT h.id, h.nombre, h.descripcion, d.ciudad, d.pais, h.puntuacionPromedio FROM Hotel h " +
+           "LEFT JOIN h.direccion d " +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL AND h.id > :desdeId " +
+           "ORDER BY h.id")
+    List<Object[]> findDocumentosBusqueda(@Param("desdeId") Long desdeId, Pageable lote);
+
+    /**
+     * Los mismos datos de findDocumentosBusqueda para un hotel, si está aprobado
+     */
+    @Query("SELECT h.id, h.nombre, h.descripcion, d.ciudad, d.pais, h.puntuacionPromedio FROM Hotel h " +
+           "LEFT JOIN h.direccion d " +
+           "WHERE h.id = :id AND h.estado = 'aprobado' AND h.eliminadoEn IS NULL")
+    List<Object[]> findDocumentoBusqueda(@Param("id") Long id);
+
+    /**
+     * Buscar hoteles destacados (proyección de listado)
+     */
+    @Query(SELECT_LISTADO +
+           "WHERE h.destacado = true AND h.estado = 'aprobado' AND h.eliminadoEn IS NULL " +
+           "ORDER BY h.puntuacionPromedio DESC")
+    List<HotelListResponse> findHotelesDestacados();
 
     /**
      * Buscar hoteles por propietario
@@ -143,6 +187,23 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
            "ORDER BY COUNT(h) DESC")
     List<Object[]> getEstadisticasPorCiudad();
 
+    /**
+     * Ciudad, país y cantidad de hoteles aprobados (sugerencias de destino)
+     */
+    @Query("SELECT d.ciudad, d.pais, COUNT(h) FROM Hotel h " +
+           "JOIN h.direccion d " +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL " +
+           "GROUP BY d.ciudad, d.pais")
+    List<Object[]> findCiudadesConHoteles();
+
+    /**
+     * Id, nombre y ciudad de los hoteles aprobados (sugerencias de hotel)
+     */
+    @Query("SELECT h.id, h.nombre, d.ciudad FROM Hotel h " +
+           "LEFT JOIN h.direccion d " +
+           "WHERE h.estado = 'aprobado' AND h.eliminadoEn IS NULL")
+    List<Object[]> findNombresHotelesAprobados();
+
     /**
      * Buscar hoteles disponibles en fechas específicas
      */
@@ -0,0 +1,64 @@
+package com.example.PROYECTO.FINAL_WEB.repository;
+
+import com.example.PROYECTO.FINAL_WEB.dto.request.HotelSearchRequest;
+import com.example.PROYECTO.FINAL_WEB.dto.response.HotelListResponse;
+import com.example.PROYECTO.FINAL_WEB.util.CursorPaginacion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Búsqueda de hoteles con filtros opcionales que no se expresa bien con una sola @Query
+ */
+public interface HotelRepositoryCustom {
+
+    /**
+     * Campos por los que se puede ordenar el listado y el tipo de su valor en un cursor
+     */
+    Map<String, Class<?>> ORDENES_PERMITIDOS = Map.of(
+            "puntuacionPromedio", BigDecimal.class,
+            "precioMinimo", BigDecimal.class,
+            "estrellas", Integer.class,
+            "nombre", String.class,
+            "totalReviews", Integer.class,
+            "creadoEn", LocalDateTime.class);
+
+    /**
+     * Campo de orden efectivo: los no permitidos ordenan por puntuación
+     */
+    static String campoOrden(String propiedad) {
+        return ORDENES_PERMITIDOS.containsKey(propiedad) ? propiedad : "puntuacionPromedio";
+    }
+
+    /**
+     * Página de hoteles aprobados que cumplen todos los filtros presentes en la búsqueda
+     * (los filtros nulos no agregan condiciones). La disponibilidad por fechas y huéspedes,
+     * las amenidades y el radio se resuelven en la misma consulta SQL.
+     */
+    Page<HotelListResponse> buscar(HotelSearchRequest filtros, Pageable pageable);
+
+    /**
+     * Hasta limite hoteles con los mismos filtros que buscar, ordenados por campo (los valores nulos
+     * cuentan como 0) e id, a continuación de la posición del cursor (null: desde el principio).
+     * No usa OFFSET: cada página recorre el orden desde la última fila entregada.
+     */
+    List<HotelListResponse> buscarDesde(HotelSearchRequest filtros, String campo, boolean ascendente,
+                                        CursorPaginacion posicion, int limite);
+
+    /**
+     * Cantidad de hoteles que cumplen los filtros (incluido el radio)
+     */
+    long contar(HotelSearchRequest filtros);
+
+    /**
+     * De los candidatos (ya filtrados por distancia en HotelGeoIndex), los que siguen aprobados
+     * y cumplen el resto de filtros; el radio de la búsqueda no se vuelve a evaluar.
+     */
+    Set<Long> filtrarIds(HotelSearchRequest filtros, Collection<Long> candidatos);
+}
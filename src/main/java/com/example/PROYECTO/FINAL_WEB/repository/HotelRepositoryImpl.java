@@ -0,0 +1,358 @@
+package com.example.PROYECTO.FINAL_WEB.repository;
+
+import com.example.PROYECTO.FINAL_WEB.dto.request.HotelSearchRequest;
+import com.example.PROYECTO.FINAL_WEB.dto.response.HotelListResponse;
+import com.example.PROYECTO.FINAL_WEB.entity.*;
+import com.example.PROYECTO.FINAL_WEB.util.CursorPaginacion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Implementación con Criteria API de {@link HotelRepositoryCustom}.
+ * Solo se agregan los predicados de los filtros presentes, cada uno con un índice que lo respalda
+ * (ver database/indices_busqueda_hoteles.sql):
+ * - ciudad/pais: prefijo sobre LOWER(ciudad), LOWER(pais)
+ * - estrellas, precio, puntuación, destacado: columnas de hotel con estado = 'aprobado'
+ * - amenidades: semi-join sobre la PK (hotel_id, amenity_id) de hotel_amenity
+ * - fechas/huéspedes: EXISTS de una habitación con capacidad sin reservas activas que se crucen
+ *   (anti-join sobre reserva por habitacion_id + fechas) ni noches bloqueadas en room_availability
+ * - radio: caja de latitud/longitud (índice en direccion) más la distancia exacta por haversine;
+ *   es el respaldo mientras HotelGeoIndex no está cargado
+ */
+public class HotelRepositoryImpl implements HotelRepositoryCustom {
+
+    private static final double RADIO_TIERRA_KM = 6371.0;
+
+    /**
+     * Ids por consulta en filtrarIds (SQL Server admite hasta 2100 parámetros)
+     */
+    private static final int LOTE_IDS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<HotelListResponse> buscar(HotelSearchRequest filtros, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<HotelListResponse> query = cb.createQuery(HotelListResponse.class);
+        Root<Hotel> h = query.from(Hotel.class);
+        Join<Hotel, Direccion> d = h.join("direccion", JoinType.LEFT);
+
+        query.select(listado(cb, query, h, d))
+                .where(predicados(cb, query, h, d, filtros, true))
+                .orderBy(orden(cb, h, pageable.getSort()));
+
+        List<HotelListResponse> contenido = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(contenido, pageable, () -> contar(filtros));
+    }
+
+    @Override
+    public List<HotelListResponse> buscarDesde(HotelSearchRequest filtros, String campo, boolean ascendente,
+                                               CursorPaginacion posicion, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<HotelListResponse> query = cb.createQuery(HotelListResponse.class);
+        Root<Hotel> h = query.from(Hotel.class);
+        Join<Hotel, Direccion> d = h.join("direccion", JoinType.LEFT);
+
+        Expression<?> clave = claveOrden(cb, h, campo);
+        List<Predicate> condiciones = new ArrayList<>(Arrays.asList(predicados(cb, query, h, d, filtros, true)));
+        if (posicion != null) {
+            condiciones.add(despuesDe(cb, h, clave, ascendente,
+                    posicion.valorComo(HotelRepositoryCustom.ORDENES_PERMITIDOS.get(campo)), posicion.id()));
+        }
+
+        query.select(listado(cb, query, h, d))
+                .where(condiciones.toArray(Predicate[]::new))
+                .orderBy(ascendente ? cb.asc(clave) : cb.desc(clave), cb.asc(h.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public long contar(HotelSearchRequest filtros) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Hotel> h = query.from(Hotel.class);
+        Join<Hotel, Direccion> d = h.join("direccion", JoinType.LEFT);
+        query.select(cb.count(h)).where(predicados(cb, query, h, d, filtros, true));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Set<Long> filtrarIds(HotelSearchRequest filtros, Collection<Long> candidatos) {
+        List<Long> ids = new ArrayList<>(candidatos);
+        Set<Long> validos = new HashSet<>();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        for (int desde = 0; desde < ids.size(); desde += LOTE_IDS) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + LOTE_IDS, ids.size()));
+            CriteriaQuery<Long> query = cb.createQuery(Long.class);
+            Root<Hotel> h = query.from(Hotel.class);
+            Join<Hotel, Direccion> d = h.join("direccion", JoinType.LEFT);
+            Predicate[] predicados = predicados(cb, query, h, d, filtros, false);
+            Predicate[] conIds = Arrays.copyOf(predicados, predicados.length + 1);
+            conIds[predicados.length] = h.get("id").in(lote);
+            query.select(h.get("id")).where(conIds);
+            validos.addAll(entityManager.createQuery(query).getResultList());
+        }
+        return validos;
+    }
+
+    /**
+     * Proyección de listado, como en HotelRepository.SELECT_LISTADO
+     */
+    private CompoundSelection<HotelListResponse> listado(CriteriaBuilder cb, CriteriaQuery<?> query,
+                                                          Root<Hotel> h, Join<Hotel, Direccion> d) {
+        return cb.construct(HotelListResponse.class,
+                h.get("id"), h.get("nombre"), d.get("ciudad"), d.get("pais"), h.get("estrellas"),
+                h.get("precioMinimo"), h.get("precioMaximo"), h.get("puntuacionPromedio"),
+                h.get("totalReviews"), h.get("destacado"), imagenPrincipal(cb, query, h), h.get("creadoEn"));
+    }
+
+    private Predicate[] predicados(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Hotel> h,
+                                   Join<Hotel, Direccion> d, HotelSearchRequest filtros, boolean incluirRadio) {
+        List<Predicate> predicados = new ArrayList<>();
+        predicados.add(cb.equal(h.get("estado"), "aprobado"));
+        predicados.add(cb.isNull(h.get("eliminadoEn")));
+
+        if (tieneTexto(filtros.getCiudad())) {
+            predicados.add(cb.like(cb.lower(d.get("ciudad")), prefijo(filtros.getCiudad()), '\\'));
+        }
+        if (tieneTexto(filtros.getPais())) {
+            predicados.add(cb.like(cb.lower(d.get("pais")), prefijo(filtros.getPais()), '\\'));
+        }
+        if (filtros.getEstrellas() != null) {
+            predicados.add(cb.equal(h.get("estrellas"), filtros.getEstrellas()));
+        }
+        if (filtros.getPrecioMinimo() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(h.get("precioMinimo"), filtros.getPrecioMinimo()));
+        }
+        if (filtros.getPrecioMaximo() != null) {
+            predicados.add(cb.lessThanOrEqualTo(h.get("precioMaximo"), filtros.getPrecioMaximo()));
+        }
+        if (filtros.getPuntuacionMinima() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(h.get("puntuacionPromedio"), filtros.getPuntuacionMinima()));
+        }
+        if (filtros.getDestacado() != null) {
+            predicados.add(cb.equal(h.get("destacado"), filtros.getDestacado()));
+        }
+
+        List<String> amenidades = amenidades(filtros.getAmenidades());
+        if (!amenidades.isEmpty()) {
+            predicados.add(cb.equal(cantidadAmenidades(cb, query, h, amenidades), (long) amenidades.size()));
+        }
+
+        if (filtros.getFechaCheckin() != null && filtros.getFechaCheckout() != null) {
+            predicados.add(cb.exists(habitacionDisponible(cb, query, h, filtros)));
+        } else if (filtros.getCantidadHuespedes() != null) {
+            predicados.add(cb.exists(habitacionConCapacidad(cb, query, h, filtros.getCantidadHuespedes())));
+        }
+
+        if (incluirRadio && filtros.getLatitud() != null && filtros.getLongitud() != null
+                && filtros.getRadioKm() != null) {
+            predicados.addAll(dentroDelRadio(cb, d, filtros.getLatitud(), filtros.getLongitud(), filtros.getRadioKm()));
+        }
+        return predicados.toArray(Predicate[]::new);
+    }
+
+    /**
+     * URL de la imagen principal (la de menor id), como en HotelRepository.SELECT_LISTADO
+     */
+    private Expression<String> imagenPrincipal(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Hotel> h) {
+        Subquery<Long> primera = query.subquery(Long.class);
+        Root<HotelImagen> i = primera.from(HotelImagen.class);
+        primera.select(cb.min(i.get("id")))
+                .where(cb.equal(i.get("hotel"), h), cb.isTrue(i.get("esPrincipal")));
+
+        Subquery<String> url = query.subquery(String.class);
+        Root<HotelImagen> img = url.from(HotelImagen.class);
+        url.select(img.get("url")).where(cb.equal(img.get("id"), primera));
+        return url;
+    }
+
+    /**
+     * Cantidad de las amenidades pedidas que tiene el hotel (todas deben estar)
+     */
+    private Subquery<Long> cantidadAmenidades(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Hotel> h,
+                                              List<String> amenidades) {
+        Subquery<Long> sub = query.subquery(Long.class);
+        Root<HotelAmenity> ha = sub.from(HotelAmenity.class);
+        Join<HotelAmenity, Amenity> a = ha.join("amenity");
+        sub.select(cb.countDistinct(a.get("id")))
+                .where(cb.equal(ha.get("hotel"), h), cb.lower(a.get("nombre")).in(amenidades));
+        return sub;
+    }
+
+    /**
+     * Alguna habitación activa con capacidad suficiente
+     */
+    private Subquery<Long> habitacionConCapacidad(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Hotel> h,
+                                                  Integer huespedes) {
+        Subquery<Long> sub = query.subquery(Long.class);
+        Root<Habitacion> hab = sub.from(Habitacion.class);
+        sub.select(hab.get("id")).where(condicionesHabitacion(cb, h, hab, huespedes).toArray(Predicate[]::new));
+        return sub;
+    }
+
+    /**
+     * Alguna habitación activa con capacidad, sin reservas activas que se crucen con
+     * [checkin, checkout) y sin noches bloqueadas o en mantenimiento en ese rango
+     */
+    private Subquery<Long> habitacionDisponible(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Hotel> h,
+                                                HotelSearchRequest filtros) {
+        Subquery<Long> sub = query.subquery(Long.class);
+        Root<Habitacion> hab = sub.from(Habitacion.class);
+        List<Predicate> condiciones = condicionesHabitacion(cb, h, hab, filtros.getCantidadHuespedes());
+
+        Subquery<Long> reservada = sub.subquery(Long.class);
+        Root<Reserva> r = reservada.from(Reserva.class);
+        reservada.select(r.get("id")).where(
+                cb.equal(r.get("habitacion"), hab),
+                r.get("estado").in("confirmada", "pendiente"),
+                cb.lessThan(r.get("fechaCheckin"), filtros.getFechaCheckout()),
+                cb.greaterThan(r.get("fechaCheckout"), filtros.getFechaCheckin()));
+        condiciones.add(cb.not(cb.exists(reservada)));
+
+        Subquery<Long> bloqueada = sub.subquery(Long.class);
+        Root<RoomAvailability> ra = bloqueada.from(RoomAvailability.class);
+        bloqueada.select(ra.get("id")).where(
+                cb.equal(ra.get("habitacion"), hab),
+                cb.greaterThanOrEqualTo(ra.get("fecha"), filtros.getFechaCheckin()),
+                cb.lessThan(ra.get("fecha"), filtros.getFechaCheckout()),
+                ra.get("estado").in("bloqueado", "mantenimiento"));
+        condiciones.add(cb.not(cb.exists(bloqueada)));
+
+        sub.select(hab.get("id")).where(condiciones.toArray(Predicate[]::new));
+        return sub;
+    }
+
+    private List<Predicate> condicionesHabitacion(CriteriaBuilder cb, Root<Hotel> h, Root<Habitacion> hab,
+                                                  Integer huespedes) {
+        List<Predicate> condiciones = new ArrayList<>();
+        condiciones.add(cb.equal(hab.get("hotel"), h));
+        condiciones.add(cb.equal(hab.get("estado"), "disponible"));
+        condiciones.add(cb.isNull(hab.get("eliminadoEn")));
+        if (huespedes != null) {
+            condiciones.add(cb.greaterThanOrEqualTo(hab.get("capacidad"), huespedes));
+        }
+        return condiciones;
+    }
+
+    /**
+     * Caja delimitadora (usa el índice de latitud/longitud) y distancia exacta: con
+     * a = sen²(Δφ/2) + cos φ1 · cos φ2 · sen²(Δλ/2), la distancia es ≤ radio si a ≤ sen²(radio / 2R).
+     * Se compara a directamente para no depender de asin/sqrt en SQL.
+     */
+    private List<Predicate> dentroDelRadio(CriteriaBuilder cb, Join<Hotel, Direccion> d,
+                                           double latitud, double longitud, double radioKm) {
+        double deltaLatitud = Math.toDegrees(radioKm / RADIO_TIERRA_KM);
+        double cosenoLatitud = Math.max(Math.cos(Math.toRadians(latitud)), 0.01);
+        double deltaLongitud = Math.min(Math.toDegrees(radioKm / (RADIO_TIERRA_KM * cosenoLatitud)), 180.0);
+
+        Expression<Double> lat = d.get("latitud");
+        Expression<Double> lng = d.get("longitud");
+        Expression<Double> latRad = cb.prod(lat, Math.PI / 180.0);
+        Expression<Double> senoMedioLat = seno(cb, cb.prod(cb.diff(latRad, Math.toRadians(latitud)), 0.5));
+        Expression<Double> senoMedioLng = seno(cb, cb.prod(cb.diff(cb.prod(lng, Math.PI / 180.0), Math.toRadians(longitud)), 0.5));
+        Expression<Double> a = cb.sum(
+                cb.prod(senoMedioLat, senoMedioLat),
+                cb.prod(cb.prod(coseno(cb, latRad), Math.cos(Math.toRadians(latitud))),
+                        cb.prod(senoMedioLng, senoMedioLng)));
+        double limite = Math.pow(Math.sin(radioKm / (2 * RADIO_TIERRA_KM)), 2);
+
+        return List.of(
+                cb.between(lat, latitud - deltaLatitud, latitud + deltaLatitud),
+                cb.between(lng, longitud - deltaLongitud, longitud + deltaLongitud),
+                cb.lessThanOrEqualTo(a, limite));
+    }
+
+    private static Expression<Double> seno(CriteriaBuilder cb, Expression<Double> radianes) {
+        return cb.function("sin", Double.class, radianes);
+    }
+
+    private static Expression<Double> coseno(CriteriaBuilder cb, Expression<Double> radianes) {
+        return cb.function("cos", Double.class, radianes);
+    }
+
+    /**
+     * Orden solicitado (solo columnas indexadas/permitidas) con el id como desempate estable
+     */
+    private List<Order> orden(CriteriaBuilder cb, Root<Hotel> h, Sort sort) {
+        List<Order> orden = new ArrayList<>();
+        for (Sort.Order o : sort) {
+            String propiedad = HotelRepositoryCustom.campoOrden(o.getProperty());
+            orden.add(o.isAscending() ? cb.asc(h.get(propiedad)) : cb.desc(h.get(propiedad)));
+        }
+        if (orden.isEmpty()) {
+            orden.add(cb.desc(h.get("puntuacionPromedio")));
+        }
+        orden.add(cb.asc(h.get("id")));
+        return orden;
+    }
+
+    /**
+     * Columna de orden para la paginación por cursor; las numéricas que admiten nulos se comparan
+     * como 0 para que el orden y la condición del cursor coincidan en cualquier motor
+     */
+    private static Expression<?> claveOrden(CriteriaBuilder cb, Root<Hotel> h, String campo) {
+        return switch (campo) {
+            case "nombre", "creadoEn" -> h.get(campo);
+            case "estrellas", "totalReviews" -> cb.coalesce(h.<Integer>get(campo), cb.literal(0));
+            default -> cb.coalesce(h.<BigDecimal>get(campo), cb.literal(BigDecimal.ZERO));
+        };
+    }
+
+    /**
+     * Filas posteriores a (valor, id) en el orden de la clave; el id desempata siempre ascendente.
+     * La cota redundante sobre la clave es la que permite empezar a recorrer el índice en el cursor.
+     */
+    @SuppressWarnings("unchecked")
+    private static <Y extends Comparable<? super Y>> Predicate despuesDe(CriteriaBuilder cb, Root<Hotel> h,
+                                                                         Expression<?> clave, boolean ascendente,
+                                                                         Object valor, Long id) {
+        Expression<Y> columna = (Expression<Y>) clave;
+        Y desde = (Y) valor;
+        Predicate cota = ascendente ? cb.greaterThanOrEqualTo(columna, desde) : cb.lessThanOrEqualTo(columna, desde);
+        Predicate posterior = ascendente ? cb.greaterThan(columna, desde) : cb.lessThan(columna, desde);
+        return cb.and(cota, cb.or(posterior, cb.and(cb.equal(columna, desde), cb.greaterThan(h.<Long>get("id"), id))));
+    }
+
+    private static List<String> amenidades(String[] amenidades) {
+        if (amenidades == null) {
+            return List.of();
+        }
+        return Arrays.stream(amenidades)
+                .filter(HotelRepositoryImpl::tieneTexto)
+                .map(amenidad -> amenidad.trim().toLowerCase(Locale.ROOT))
+                .distinct()
+                .toList();
+    }
+
+    private static String prefijo(String texto) {
+        return texto.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static boolean tieneTexto(String texto) {
+        return texto != null && !texto.isBlank();
+    }
+}
@@ -1,12 +1,18 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.Pago;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository para Pago
@@ -34,4 +40,61 @@ public interface PagoRepository extends JpaRepository<Pago, Long> {
            "WHERE p.reserva.id = :reservaId " +
            "AND p.estado = 'completado'")
     boolean reservaTienePagoCompletado(@Param("reservaId") Long reservaId);
+
+    /**
+     * Verificar si la reserva ya tiene un pago en proceso, por verificar o completado
+     */
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END " +
+           "FROM Pago p " +
+           "WHERE p.reserva.id = :reservaId " +
+           "AND p.estado IN ('procesando', 'por_verificar', 'completado')")
+    boolean reservaTienePagoEnCurso(@Param("reservaId") Long reservaId);
+
+    /**
+     * Verificar si la reserva tiene un cargo en curso en la pasarela o pendiente de verificar
+     */
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END " +
+           "FROM Pago p " +
+           "WHERE p.reserva.id = :reservaId " +
+           "AND p.estado IN ('procesando', 'por_verificar')")
+    boolean reservaTieneCargoSinResolver(@Param("reservaId") Long reservaId);
+
+    /**
+     * Pagos cuyo cargo quedó sin respuesta de la pasarela, del más antiguo al más reciente
+     */
+    @Query("SELECT p FROM Pago p JOIN FETCH p.reserva WHERE p.estado = 'por_verificar' ORDER BY p.creadoEn ASC")
+    List<Pago> findPagosPorVerificar();
+
+    /**
+     * Cargar pago con lock de escritura (conciliación de un cargo por verificar)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Pago p WHERE p.id = :id")
+    Optional<Pago> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Buscar el pago registrado por un usuario con una clave de idempotencia
+     */
+    @Query("SELECT p FROM Pago p JOIN FETCH p.reserva " +
+           "WHERE p.usuario.id = :usuarioId AND p.claveIdempotencia = :clave")
+    Optional<Pago> findByClaveIdempotencia(@Param("usuarioId") Long usuarioId, @Param("clave") String clave);
+
+    /**
+     * Pagos "procesando" de las reservas indicadas creados antes de fechaLimite: el proceso que
+     * llamó a la pasarela no llegó a registrar el resultado (caída o error al confirmar)
+     */
+    @Query("SELECT p.id FROM Pago p " +
+           "WHERE p.reserva.id IN :reservaIds " +
+           "AND p.estado = 'procesando' " +
+           "AND p.creadoEn < :fechaLimite")
+    List<Long> findProcesandoAntesDe(@Param("reservaIds") Collection<Long> reservaIds,
+                                     @Param("fechaLimite") LocalDateTime fechaLimite);
+
+    /**
+     * Dejar por verificar los pagos indicados que siguen "procesando"
+     */
+    @Modifying
+    @Query("UPDATE Pago p SET p.estado = 'por_verificar', p.actualizadoEn = :ahora " +
+           "WHERE p.id IN :ids AND p.estado = 'procesando'")
+    int marcarPorVerificar(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
 }
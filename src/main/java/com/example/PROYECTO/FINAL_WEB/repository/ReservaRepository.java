@@ -1,9 +1,11 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.Reserva;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,6 +46,13 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
            "WHERE r.id = :id")
     Optional<Reserva> findByIdWithDetails(@Param("id") Long id);
 
+    /**
+     * Cargar reserva con lock de escritura (inicio de un pago)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reserva r WHERE r.id = :id")
+    Optional<Reserva> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Buscar reservas por usuario
      */
@@ -50,6 +61,33 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
            "ORDER BY r.creadoEn DESC")
     Page<Reserva> findByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
 
+    /**
+     * Primera página de reservas de un usuario en orden de clave (creadoEn, id) descendente
+     */
+    @Query("SELECT r FROM Reserva r " +
+           "WHERE r.usuario.id = :usuarioId " +
+           "ORDER BY r.creadoEn DESC, r.id DESC")
+    List<Reserva> findByUsuarioIdPrimeras(@Param("usuarioId") Long usuarioId, Pageable limite);
+
+    /**
+     * Reservas de un usuario posteriores al cursor (creadoEn, id) en orden descendente
+     */
+    @Query("SELECT r FROM Reserva r " +
+           "WHERE r.usuario.id = :usuarioId " +
+           "AND r.creadoEn <= :creadoEn " +
+           "AND (r.creadoEn < :creadoEn OR (r.creadoEn = :creadoEn AND r.id < :id)) " +
+           "ORDER BY r.creadoEn DESC, r.id DESC")
+    List<Reserva> findByUsuarioIdDespuesDe(@Param("usuarioId") Long usuarioId,
+                                           @Param("creadoEn") LocalDateTime creadoEn,
+                                           @Param("id") Long id,
+                                           Pageable limite);
+
+    /**
+     * Contar reservas de un usuario
+     */
+    @Query("SELECT COUNT(r) FROM Reserva r WHERE r.usuario.id = :usuarioId")
+    long countByUsuarioId(@Param("usuarioId") Long usuarioId);
+
     /**
      * Buscar reservas activas de un usuario
      */
@@ -68,6 +106,35 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
            "ORDER BY r.creadoEn DESC")
     Page<Reserva> findByHotelId(@Param("hotelId") Long hotelId, Pageable pageable);
 
+    /**
+     * Primera página de reservas de un hotel en orden de clave (creadoEn, id) descendente
+     */
+    @Query("SELECT r FROM Reserva r " +
+           "JOIN r.habitacion h " +
+           "WHERE h.hotel.id = :hotelId " +
+           "ORDER BY r.creadoEn DESC, r.id DESC")
+    List<Reserva> findByHotelIdPrimeras(@Param("hotelId") Long hotelId, Pageable limite);
+
+    /**
+     * Reservas de un hotel posteriores al cursor (creadoEn, id) en orden descendente
+     */
+    @Query("SELECT r FROM Reserva r " +
+           "JOIN r.habitacion h " +
+           "WHERE h.hotel.id = :hotelId " +
+           "AND r.creadoEn <= :creadoEn " +
+           "AND (r.creadoEn < :creadoEn OR (r.creadoEn = :creadoEn AND r.id < :id)) " +
+           "ORDER BY r.creadoEn DESC, r.id DESC")
+    List<Reserva> findByHotelIdDespuesDe(@Param("hotelId") Long hotelId,
+                                         @Param("creadoEn") LocalDateTime creadoEn,
+                                         @Param("id") Long id,
+                                         Pageable limite);
+
+    /**
+     * Contar reservas de un hotel
+     */
+    @Query("SELECT COUNT(r) FROM Reserva r JOIN r.habitacion h WHERE h.hotel.id = :hotelId")
+    long countByHotelId(@Param("hotelId") Long hotelId);
+
     /**
      * Buscar reservas por habitación y fechas (para verificar solapamientos)
      */
@@ -81,6 +148,66 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
         @Param("checkout") LocalDate checkout
     );
 
+    /**
+     * Solapamiento de una reserva por horas (day use) con otra por horas del mismo día
+     * o con una reserva por noche que ocupe esa fecha
+     */
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reserva r " +
+           "WHERE r.habitacion.id = :habitacionId " +
+           "AND r.estado IN ('confirmada', 'pendiente') " +
+           "AND ((r.reservaPorHoras = true AND r.fechaCheckin = :fecha " +
+           "      AND r.horaCheckin < :horaFin AND r.horaCheckout > :horaInicio) " +
+           "  OR ((r.reservaPorHoras IS NULL OR r.reservaPorHoras = false) " +
+           "      AND r.fechaCheckin <= :fecha AND r.fechaCheckout > :fecha))")
+    boolean existeSolapamientoPorHoras(
+        @Param("habitacionId") Long habitacionId,
+        @Param("fecha") LocalDate fecha,
+        @Param("horaInicio") LocalTime horaInicio,
+        @Param("horaFin") LocalTime horaFin
+    );
+
+    /**
+     * Alguna reserva por horas (day use) activa en una fecha de [checkin, checkout)
+     */
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reserva r " +
+           "WHERE r.habitacion.id = :habitacionId " +
+           "AND r.estado IN ('confirmada', 'pendiente') " +
+           "AND r.reservaPorHoras = true " +
+           "AND r.fechaCheckin >= :checkin AND r.fechaCheckin < :checkout")
+    boolean existeReservaPorHorasEnRango(
+        @Param("habitacionId") Long habitacionId,
+        @Param("checkin") LocalDate checkin,
+        @Param("checkout") LocalDate checkout
+    );
+
+    /**
+     * Rangos [checkin, checkout) de reservas activas por noche de una habitación (índice de disponibilidad)
+     */
+    @Query("SELECT r.fechaCheckin, r.fechaCheckout FROM Reserva r " +
+           "WHERE r.habitacion.id = :habitacionId " +
+           "AND r.estado IN ('confirmada', 'pendiente') " +
+           "AND (r.reservaPorHoras IS NULL OR r.reservaPorHoras = false) " +
+           "AND r.fechaCheckout > :desde")
+    List<Object[]> findRangosActivosPorHabitacion(
+        @Param("habitacionId") Long habitacionId,
+        @Param("desde") LocalDate desde
+    );
+
+    /**
+     * Reservas activas por noche de un hotel que se cruzan con [inicio, fin] (calendario)
+     * Columnas: habitacionId, fechaCheckin, fechaCheckout
+     */
+    @Query("SELECT r.habitacion.id, r.fechaCheckin, r.fechaCheckout FROM Reserva r " +
+           "WHERE r.habitacion.hotel.id = :hotelId " +
+           "AND r.estado IN ('confirmada', 'pendiente') " +
+           "AND (r.reservaPorHoras IS NULL OR r.reservaPorHoras = false) " +
+           "AND r.fechaCheckin <= :fin AND r.fechaCheckout > :inicio")
+    List<Object[]> findRangosActivosPorHotel(
+        @Param("hotelId") Long hotelId,
+        @Param("inicio") LocalDate inicio,
+        @Param("fin") LocalDate fin
+    );
+
     /**
      * Buscar próximas reservas (check-in en los próximos días)
      */
@@ -143,13 +270,49 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Object[]> getEstadisticasPorMes(@Param("year") int year);
 
     /**
-     * Buscar reservas pendientes de pago
+     * Reservas pendientes con el hold vencido, paginadas por id
+     * (las que no tienen expira_en esperan la confirmación del anfitrión y no vencen)
+     * Columnas: id, habitacionId
      */
-    @Query("SELECT r FROM Reserva r " +
+    @Query("SELECT r.id, r.habitacion.id FROM Reserva r " +
            "WHERE r.estado = 'pendiente' " +
-           "AND r.creadoEn < :fechaLimite " +
-           "ORDER BY r.creadoEn ASC")
-    List<Reserva> findReservasPendientesVencidas(@Param("fechaLimite") LocalDateTime fechaLimite);
+           "AND r.id > :ultimoId " +
+           "AND r.expiraEn <= :ahora " +
+           "ORDER BY r.id ASC")
+    List<Object[]> findReservasPendientesVencidas(@Param("ultimoId") Long ultimoId,
+                                                  @Param("ahora") LocalDateTime ahora,
+                                                  Pageable pageable);
+
+    /**
+     * Holds vigentes para reconstruir la cola de expiración al iniciar
+     * Columnas: id, habitacionId, expiraEn
+     */
+    @Query("SELECT r.id, r.habitacion.id, r.expiraEn FROM Reserva r " +
+           "WHERE r.estado = 'pendiente' AND r.expiraEn IS NOT NULL")
+    List<Object[]> findHoldsPendientes();
+
+    /**
+     * Bloquear las reservas del lote que siguen pendientes (las pagadas o canceladas entre tanto se excluyen).
+     * Tampoco vencen las que tienen un cargo en curso en la pasarela ni las que tienen un cargo por
+     * verificar (pudo cobrarse: espera la conciliación).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.id FROM Reserva r " +
+           "WHERE r.id IN :ids " +
+           "AND r.estado = 'pendiente' " +
+           "AND r.expiraEn <= :ahora " +
+           "AND NOT EXISTS (SELECT p.id FROM Pago p WHERE p.reserva = r " +
+           "                AND p.estado IN ('procesando', 'por_verificar'))")
+    List<Long> bloquearHoldsVencidos(@Param("ids") Collection<Long> ids,
+                                     @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cancelar en lote las reservas cuyo hold venció
+     */
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = 'cancelada', r.fechaCancelacion = :ahora, r.motivoCancelacion = :motivo " +
+           "WHERE r.id IN :ids")
+    int expirarHolds(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora, @Param("motivo") String motivo);
 
     /**
      * Verificar disponibilidad antes de reservar (query transaccional)
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,6 +28,39 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
            "ORDER BY r.creadoEn DESC")
     Page<Review> findByHotelId(@Param("hotelId") Long hotelId, Pageable pageable);
 
+    /**
+     * Primera página de reviews de un hotel en orden de clave (creadoEn, id) descendente
+     */
+    @Query("SELECT r FROM Review r " +
+           "WHERE r.hotel.id = :hotelId " +
+           "AND r.eliminadoEn IS NULL " +
+           "ORDER BY r.creadoEn DESC, r.id DESC")
+    List<Review> findByHotelIdPrimeras(@Param("hotelId") Long hotelId, Pageable limite);
+
+    /**
+     * Reviews de un hotel posteriores al cursor (creadoEn, id) en orden descendente
+     */
+    @Query("SELECT r FROM Review r " +
+           "WHERE r.hotel.id = :hotelId " +
+           "AND r.eliminadoEn IS NULL " +
+           "AND r.creadoEn <= :creadoEn " +
+           "AND (r.creadoEn < :creadoEn OR (r.creadoEn = :creadoEn AND r.id < :id)) " +
+           "ORDER BY r.creadoEn DESC, r.id DESC")
+    List<Review> findByHotelIdDespuesDe(@Param("hotelId") Long hotelId,
+                                        @Param("creadoEn") LocalDateTime creadoEn,
+                                        @Param("id") Long id,
+                                        Pageable limite);
+
+    /**
+     * Buscar reviews de varios hoteles junto con su autor (mapeo por lotes)
+     */
+    @Query("SELECT r FROM Review r " +
+           "JOIN FETCH r.usuario " +
+           "WHERE r.hotel.id IN :hotelIds " +
+           "AND r.eliminadoEn IS NULL " +
+           "ORDER BY r.creadoEn DESC")
+    List<Review> findByHotelIdInWithUsuario(@Param("hotelIds") Collection<Long> hotelIds);
+
     /**
      * Buscar reviews verificadas de un hotel
      */
@@ -2,14 +2,18 @@ package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.RoomAvailability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailability, Long> {
+public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailability, Long>, RoomAvailabilityRepositoryCustom {
     
     List<RoomAvailability> findByHabitacionIdAndFechaBetween(
         Long habitacionId, LocalDate inicio, LocalDate fin
@@ -20,4 +24,46 @@ public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailabili
     );
     
     Optional<RoomAvailability> findByHabitacionIdAndFecha(Long habitacionId, LocalDate fecha);
+
+    /**
+     * Fechas no disponibles (reservado, bloqueado, mantenimiento) de una habitación desde una fecha
+     */
+    @Query("SELECT ra.fecha FROM RoomAvailability ra " +
+           "WHERE ra.habitacion.id = :habitacionId " +
+           "AND ra.estado <> 'disponible' " +
+           "AND ra.fecha >= :desde")
+    List<LocalDate> findFechasNoDisponibles(@Param("habitacionId") Long habitacionId, @Param("desde") LocalDate desde);
+
+    /**
+     * Liberar en una sola sentencia las noches reservadas de un rango
+     */
+    @Modifying
+    @Query("UPDATE RoomAvailability ra SET ra.estado = 'disponible' " +
+           "WHERE ra.habitacion.id = :habitacionId " +
+           "AND ra.fecha BETWEEN :inicio AND :fin " +
+           "AND ra.estado = 'reservado'")
+    int liberarRango(@Param("habitacionId") Long habitacionId, @Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    /**
+     * Liberar en un solo UPDATE las noches [checkin, checkout) de un lote de reservas
+     */
+    @Modifying
+    @Query("UPDATE RoomAvailability ra SET ra.estado = 'disponible' " +
+           "WHERE ra.estado = 'reservado' " +
+           "AND EXISTS (SELECT r.id FROM Reserva r " +
+           "            WHERE r.id IN :reservaIds " +
+           "            AND r.habitacion.id = ra.habitacion.id " +
+           "            AND r.fechaCheckin <= ra.fecha AND r.fechaCheckout > ra.fecha)")
+    int liberarNochesDeReservas(@Param("reservaIds") Collection<Long> reservaIds);
+
+    /**
+     * Estado y precio por noche de todas las habitaciones de un hotel en un rango (calendario)
+     * Columnas: habitacionId, fecha, estado, precioDia
+     */
+    @Query("SELECT ra.habitacion.id, ra.fecha, ra.estado, ra.precioDia FROM RoomAvailability ra " +
+           "WHERE ra.habitacion.hotel.id = :hotelId " +
+           "AND ra.fecha BETWEEN :inicio AND :fin")
+    List<Object[]> findCalendarioByHotelId(@Param("hotelId") Long hotelId,
+                                           @Param("inicio") LocalDate inicio,
+                                           @Param("fin") LocalDate fin);
 }
@@ -0,0 +1,24 @@
+package com.example.PROYECTO.FINAL_WEB.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Operaciones de disponibilidad por rangos que no se expresan bien con JPA
+ * (upsert masivo y reclamo de noches sobre la restricción única habitacion_id + fecha)
+ */
+public interface RoomAvailabilityRepositoryCustom {
+
+    /**
+     * Insertar o actualizar el estado de todas las noches de [inicio, fin] (ambos inclusive)
+     * @return cantidad de filas insertadas o actualizadas
+     */
+    int upsertRango(Long habitacionId, LocalDate inicio, LocalDate fin, String estado);
+
+    /**
+     * Reclamar para una reserva las noches de [inicio, fin] que estén disponibles o no tengan fila.
+     * Las noches ya ocupadas no se tocan; la restricción única (habitacion_id, fecha) impide que dos
+     * transacciones concurrentes reclamen la misma noche.
+     * @return cantidad de noches reclamadas (menor que el rango si alguna estaba ocupada)
+     */
+    int reclamarRango(Long habitacionId, LocalDate inicio, LocalDate fin, String estado);
+}
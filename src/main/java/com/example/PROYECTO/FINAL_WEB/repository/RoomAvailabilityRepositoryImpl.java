@@ -0,0 +1,103 @@
+package com.example.PROYECTO.FINAL_WEB.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementación JDBC de {@link RoomAvailabilityRepositoryCustom}.
+ * En PostgreSQL el rango completo es un único INSERT ... ON CONFLICT sobre generate_series;
+ * en otros motores se usa un UPDATE por rango más un batch JDBC para las noches faltantes.
+ * El reclamo de noches es la misma operación pero solo sobre filas en estado disponible.
+ * Usa la misma conexión de la transacción JPA en curso.
+ */
+@RequiredArgsConstructor
+public class RoomAvailabilityRepositoryImpl implements RoomAvailabilityRepositoryCustom {
+
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO room_availability (habitacion_id, fecha, estado, creado_en, actualizado_en) " +
+            "SELECT ?, d::date, ?, ?, ? FROM generate_series(?::date, ?::date, interval '1 day') AS d " +
+            "ON CONFLICT (habitacion_id, fecha) DO UPDATE " +
+            "SET estado = EXCLUDED.estado, actualizado_en = EXCLUDED.actualizado_en";
+
+    private static final String RECLAMAR_POSTGRES = UPSERT_POSTGRES +
+            " WHERE room_availability.estado = 'disponible'";
+
+    private static final String RECLAMAR_DISPONIBLES =
+            "UPDATE room_availability SET estado = ?, actualizado_en = ? " +
+            "WHERE habitacion_id = ? AND fecha BETWEEN ? AND ? AND estado = 'disponible'";
+
+    private static final String UPDATE_RANGO =
+            "UPDATE room_availability SET estado = ?, actualizado_en = ? " +
+            "WHERE habitacion_id = ? AND fecha BETWEEN ? AND ?";
+
+    private static final String SELECT_FECHAS =
+            "SELECT fecha FROM room_availability WHERE habitacion_id = ? AND fecha BETWEEN ? AND ?";
+
+    private static final String INSERT_NOCHE =
+            "INSERT INTO room_availability (habitacion_id, fecha, estado, creado_en, actualizado_en) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public int upsertRango(Long habitacionId, LocalDate inicio, LocalDate fin, String estado) {
+        return escribirRango(habitacionId, inicio, fin, estado, UPSERT_POSTGRES, UPDATE_RANGO);
+    }
+
+    @Override
+    public int reclamarRango(Long habitacionId, LocalDate inicio, LocalDate fin, String estado) {
+        return escribirRango(habitacionId, inicio, fin, estado, RECLAMAR_POSTGRES, RECLAMAR_DISPONIBLES);
+    }
+
+    /**
+     * Las noches sin fila se insertan; un INSERT concurrente sobre la misma noche falla por la
+     * restricción única (DataIntegrityViolationException), que el llamador traduce a conflicto
+     */
+    private int escribirRango(Long habitacionId, LocalDate inicio, LocalDate fin, String estado,
+                              String sqlPostgres, String sqlUpdate) {
+        if (fin.isBefore(inicio)) {
+            return 0;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        if (esPostgres()) {
+            return jdbcTemplate.update(sqlPostgres, habitacionId, estado, ahora, ahora,
+                    Date.valueOf(inicio), Date.valueOf(fin));
+        }
+
+        int actualizadas = jdbcTemplate.update(sqlUpdate, estado, ahora, habitacionId,
+                Date.valueOf(inicio), Date.valueOf(fin));
+
+        Set<LocalDate> existentes = new HashSet<>(jdbcTemplate.query(SELECT_FECHAS,
+                (rs, i) -> rs.getDate(1).toLocalDate(), habitacionId, Date.valueOf(inicio), Date.valueOf(fin)));
+        List<Object[]> nuevas = new ArrayList<>();
+        for (LocalDate fecha = inicio; !fecha.isAfter(fin); fecha = fecha.plusDays(1)) {
+            if (!existentes.contains(fecha)) {
+                nuevas.add(new Object[]{habitacionId, Date.valueOf(fecha), estado, ahora, ahora});
+            }
+        }
+        if (!nuevas.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_NOCHE, nuevas);
+        }
+        return actualizadas + nuevas.size();
+    }
+
+    private boolean esPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                    conexion.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        }
+        return postgres;
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.PROYECTO.FINAL_WEB.repository;
 
 import com.example.PROYECTO.FINAL_WEB.entity.TipoHabitacion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,12 +21,14 @@ public interface TipoHabitacionRepository extends JpaRepository<TipoHabitacion,
     /**
      * Buscar tipo por nombre
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT t FROM TipoHabitacion t WHERE LOWER(t.nombre) = LOWER(:nombre)")
     Optional<TipoHabitacion> findByNombreIgnoreCase(@Param("nombre") String nombre);
 
     /**
      * Listar todos ordenados por nombre
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT t FROM TipoHabitacion t ORDER BY t.nombre ASC")
     List<TipoHabitacion> findAllOrdenados();
 }
@@ -29,6 +29,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     @Query("SELECT u FROM Usuario u WHERE LOWER(u.email) = LOWER(:email) AND u.estado = 'activo' AND u.eliminadoEn IS NULL")
     Optional<Usuario> findByEmailAndActivo(@Param("email") String email);
 
+    /**
+     * ID del usuario con ese email (principal de tokens sin id, ej: auditoría)
+     */
+    @Query("SELECT u.id FROM Usuario u WHERE LOWER(u.email) = LOWER(:email) AND u.eliminadoEn IS NULL")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
     /**
      * Verificar si existe un email (para registro)
      */
@@ -61,6 +67,13 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     @Query("UPDATE Usuario u SET u.eliminadoEn = :fecha, u.estado = 'inactivo' WHERE u.id = :id")
     void softDelete(@Param("id") Long id, @Param("fecha") LocalDateTime fecha);
 
+    /**
+     * IDs de usuarios desactivados o eliminados desde una fecha (revocación de tokens)
+     */
+    @Query("SELECT u.id FROM Usuario u WHERE (u.estado <> 'activo' OR u.eliminadoEn IS NOT NULL) " +
+           "AND (u.actualizadoEn >= :desde OR u.eliminadoEn >= :desde)")
+    List<Long> findIdsDesactivadosDesde(@Param("desde") LocalDateTime desde);
+
     /**
      * Contar usuarios por rol y estado
      */
@@ -1,5 +1,6 @@
 package com.example.PROYECTO.FINAL_WEB.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,7 +17,10 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 /**
- * Filtro JWT que intercepta las peticiones HTTP y valida el token
+ * Filtro JWT que intercepta las peticiones HTTP y valida el token.
+ * Los access tokens con claims uid/rol se resuelven sin consultar la BD; los usuarios dados de baja
+ * se rechazan con UsuariosRevocados. Los tokens sin esos claims (emitidos antes) siguen cargando
+ * el usuario por email.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,6 +31,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private UsuariosRevocados usuariosRevocados;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -34,15 +41,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getClaimsIfValid(jwt) : null;
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (claims != null) {
+                UsernamePasswordAuthenticationToken authentication = construirAutenticacion(claims);
+                if (authentication != null) {
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -51,6 +57,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Construye la autenticación desde los claims, o null si el usuario fue revocado
+     */
+    private UsernamePasswordAuthenticationToken construirAutenticacion(Claims claims) {
+        Object usuarioId = claims.get(JwtTokenProvider.CLAIM_USUARIO_ID);
+        String rol = claims.get(JwtTokenProvider.CLAIM_ROL, String.class);
+
+        if (usuarioId instanceof Number id && StringUtils.hasText(rol)
+                && "access".equals(claims.get(JwtTokenProvider.CLAIM_TIPO))) {
+            if (usuariosRevocados.estaRevocado(id.longValue())) {
+                return null;
+            }
+            UsuarioAutenticado principal = new UsuarioAutenticado(id.longValue(), claims.getSubject(), rol);
+            return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        }
+
+        UserDetails userDetails = customUserDetailsService.loadUserByUsername(claims.getSubject());
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
     /**
      * Extrae el token JWT del header Authorization
      */
@@ -1,7 +1,12 @@
 package com.example.PROYECTO.FINAL_WEB.security;
 
+import com.example.PROYECTO.FINAL_WEB.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,15 +14,22 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Utilidad para generación y validación de tokens JWT
+ * Utilidad para generación y validación de tokens JWT.
+ * La clave y el parser se crean una sola vez; los tokens ya verificados se guardan con sus claims
+ * en una caché acotada hasta su expiración, así una petición repetida no vuelve a calcular HS512.
  */
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_TIPO = "type";
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_ROL = "rol";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -27,11 +39,51 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long jwtRefreshExpirationMs;
 
+    @Value("${jwt.cache-max-entradas:10000}")
+    private long maxTokensCacheados;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> tokensVerificados;
+
     /**
-     * Genera la clave secreta a partir del string en properties
+     * Genera la clave secreta y el parser a partir del string en properties
      */
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(maxTokensCacheados)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        Date expiracion = claims.getExpiration();
+                        long restante = expiracion != null ? expiracion.getTime() - System.currentTimeMillis() : 0;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, restante));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Claims de un token verificado: desde la caché o verificando la firma una sola vez.
+     * Los tokens inválidos lanzan JwtException y no se guardan. Los claims devueltos son compartidos.
+     */
+    private Claims parsear(String token) {
+        return tokensVerificados.get(token, t -> jwtParser.parseClaimsJws(t).getBody());
     }
 
     /**
@@ -46,18 +98,33 @@ public class JwtTokenProvider {
      * Genera token JWT desde email/username
      */
     public String generateToken(String email) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_TIPO, "access");
+        return generarAccessToken(email, claims);
+    }
 
+    /**
+     * Genera token JWT con el id y el rol del usuario como claims,
+     * para que el filtro autentique sin consultar la BD
+     */
+    public String generateToken(Usuario usuario) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "access");
+        claims.put(CLAIM_TIPO, "access");
+        claims.put(CLAIM_USUARIO_ID, usuario.getId());
+        claims.put(CLAIM_ROL, usuario.getRol());
+        return generarAccessToken(usuario.getEmail(), claims);
+    }
+
+    private String generarAccessToken(String email, Map<String, Object> claims) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -69,14 +136,14 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + jwtRefreshExpirationMs);
 
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
+        claims.put(CLAIM_TIPO, "refresh");
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -84,11 +151,7 @@ public class JwtTokenProvider {
      * Obtiene el email/username del token JWT
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parsear(token);
 
         return claims.getSubject();
     }
@@ -116,12 +179,15 @@ public class JwtTokenProvider {
      * Valida el token JWT
      */
     public boolean validateToken(String token) {
+        return getClaimsIfValid(token) != null;
+    }
+
+    /**
+     * Valida el token JWT y devuelve sus claims en un solo parseo, o null si no es válido
+     */
+    public Claims getClaimsIfValid(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parsear(token);
         } catch (SecurityException ex) {
             System.err.println("Invalid JWT signature: " + ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -133,18 +199,14 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             System.err.println("JWT claims string is empty: " + ex.getMessage());
         }
-        return false;
+        return null;
     }
 
     /**
      * Obtiene la fecha de expiración del token
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parsear(token);
 
         return claims.getExpiration();
     }
@@ -1,5 +1,6 @@
 package com.example.PROYECTO.FINAL_WEB.security;
 
+import com.example.PROYECTO.FINAL_WEB.cache.RespuestaJsonCacheFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -39,6 +40,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RespuestaJsonCacheFilter respuestaJsonCacheFilter;
+
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
 
@@ -108,6 +112,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/reviews/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/amenidades/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/tipos-habitacion/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/imagenes/**").permitAll()
                 .requestMatchers("/static/**", "/uploads/**").permitAll()
                 
                 // Endpoints de administrador
@@ -127,6 +132,9 @@ public class SecurityConfig {
         // Agregar el filtro JWT antes del filtro de autenticación de usuario/contraseña
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // Lecturas anónimas de hoteles servidas desde la caché de respuestas (después de CORS y JWT)
+        http.addFilterAfter(respuestaJsonCacheFilter, JwtAuthenticationFilter.class);
+
         return http.build();
     }
 }
@@ -0,0 +1,33 @@
+package com.example.PROYECTO.FINAL_WEB.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal construido a partir de los claims del JWT (sin consultar la BD).
+ * getName() devuelve el email, igual que el UserDetails que reemplaza.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UsuarioAutenticado implements AuthenticatedPrincipal, Serializable {
+
+    private final Long id;
+    private final String email;
+    private final String rol;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + rol.toUpperCase()));
+    }
+}
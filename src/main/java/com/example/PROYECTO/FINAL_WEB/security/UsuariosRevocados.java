@@ -0,0 +1,92 @@
+package com.example.PROYECTO.FINAL_WEB.security;
+
+import com.example.PROYECTO.FINAL_WEB.repository.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usuarios desactivados o eliminados cuyos access tokens todavía podrían estar vigentes.
+ * Como el filtro JWT ya no consulta la BD, este conjunto es lo que corta el acceso: se recarga
+ * periódicamente con los usuarios dados de baja dentro de la vigencia de un token
+ * (jwt.expiration) y UsuarioService lo actualiza en este nodo en cuanto se confirma el cambio
+ * (si la transacción se revierte, el conjunto no cambia).
+ */
+@Slf4j
+@Component
+public class UsuariosRevocados {
+
+    private final UsuarioRepository usuarioRepository;
+    private final long vigenciaTokenMillis;
+
+    private volatile Set<Long> revocados = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Revocaciones locales recientes (id -> instante), para no perderlas si una recarga
+     * consultó la BD antes de que se confirmaran
+     */
+    private final Map<Long, Long> revocacionesLocales = new ConcurrentHashMap<>();
+
+    public UsuariosRevocados(UsuarioRepository usuarioRepository,
+                             @Value("${jwt.expiration}") long vigenciaTokenMillis) {
+        this.usuarioRepository = usuarioRepository;
+        this.vigenciaTokenMillis = vigenciaTokenMillis;
+    }
+
+    public boolean estaRevocado(Long usuarioId) {
+        return revocados.contains(usuarioId);
+    }
+
+    public void revocar(Long usuarioId) {
+        despuesDelCommit(() -> {
+            revocacionesLocales.put(usuarioId, System.currentTimeMillis());
+            revocados.add(usuarioId);
+        });
+    }
+
+    public void restaurar(Long usuarioId) {
+        despuesDelCommit(() -> {
+            revocacionesLocales.remove(usuarioId);
+            revocados.remove(usuarioId);
+        });
+    }
+
+    /**
+     * Reemplazar el conjunto con el estado actual de la BD
+     */
+    @Scheduled(fixedDelayString = "${app.seguridad.revocacion.intervalo-ms:60000}")
+    public void recargar() {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime desde = LocalDateTime.now().minus(Duration.ofMillis(vigenciaTokenMillis));
+        Set<Long> nuevos = ConcurrentHashMap.newKeySet();
+        nuevos.addAll(usuarioRepository.findIdsDesactivadosDesde(desde));
+        revocacionesLocales.entrySet().removeIf(e -> e.getValue() < inicio - 60_000L);
+        nuevos.addAll(revocacionesLocales.keySet());
+        if (nuevos.size() != revocados.size()) {
+            log.info("Usuarios con tokens revocados: {}", nuevos.size());
+        }
+        revocados = nuevos;
+    }
+
+    private void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.repository.UsuarioRepository;
+import com.example.PROYECTO.FINAL_WEB.security.UsuarioAutenticado;
+import com.example.PROYECTO.FINAL_WEB.util.BufferCircular;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Auditoría asíncrona sobre audit_log.
+ * Los servicios llaman a registrar(...) con una foto de los valores antes/después; el cambio se
+ * encola al confirmar la transacción en un BufferCircular acotado y un hilo lo escribe por lotes
+ * JDBC. Si el buffer está lleno se espera unos instantes a que el escritor libere espacio y, si
+ * sigue lleno, el registro se descarta y se cuenta: la auditoría nunca bloquea una petición.
+ */
+@Slf4j
+@Service
+public class AuditoriaService {
+
+    public static final String ACCION_INSERT = "INSERT";
+    public static final String ACCION_UPDATE = "UPDATE";
+    public static final String ACCION_DELETE = "DELETE";
+
+    private static final String INSERT_AUDIT_LOG =
+            "INSERT INTO audit_log (usuario_id, tabla, registro_id, accion, valores_antiguos, valores_nuevos, " +
+            "ip_address, user_agent, creado_en) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int REINTENTOS_BUFFER_LLENO = 64;
+    private static final String ATRIBUTO_USUARIO_ID = AuditoriaService.class.getName() + ".usuarioId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UsuarioRepository usuarioRepository;
+    private final ObjectMapper objectMapper;
+    private final BufferCircular<Cambio> buffer;
+    private final int tamanioLote;
+    private final long esperaNanos;
+
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder fallidos = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+
+    private volatile Thread escritor;
+    private volatile boolean activo;
+
+    public AuditoriaService(JdbcTemplate jdbcTemplate,
+                            UsuarioRepository usuarioRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${app.auditoria.capacidad:8192}") int capacidad,
+                            @Value("${app.auditoria.lote:200}") int tamanioLote,
+                            @Value("${app.auditoria.espera-ms:200}") long esperaMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.usuarioRepository = usuarioRepository;
+        this.objectMapper = objectMapper;
+        this.buffer = new BufferCircular<>(capacidad);
+        this.tamanioLote = tamanioLote;
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMillis);
+    }
+
+    /**
+     * Registrar un cambio; se encola solo si la transacción actual confirma
+     */
+    public void registrar(String tabla, Long registroId, String accion,
+                          Map<String, Object> valoresAntiguos, Map<String, Object> valoresNuevos) {
+        HttpServletRequest request = requestActual();
+        Cambio cambio = new Cambio(usuarioActual(request), tabla, registroId, accion, valoresAntiguos, valoresNuevos,
+                request != null ? ipCliente(request) : null,
+                request != null ? recortar(request.getHeader("User-Agent"), 500) : null,
+                LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    encolar(cambio);
+                }
+            });
+        } else {
+            encolar(cambio);
+        }
+    }
+
+    /**
+     * Mapa de valores para auditar (admite nulls, conserva el orden)
+     */
+    public static Map<String, Object> valores(Object... clavesYValores) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < clavesYValores.length; i += 2) {
+            valores.put((String) clavesYValores[i], clavesYValores[i + 1]);
+        }
+        return valores;
+    }
+
+    /**
+     * Contadores del pipeline de auditoría desde el arranque
+     */
+    public Map<String, Long> obtenerEstadisticas() {
+        Map<String, Long> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("encolados", encolados.sum());
+        estadisticas.put("escritos", escritos.sum());
+        estadisticas.put("descartados", descartados.sum());
+        estadisticas.put("fallidos", fallidos.sum());
+        estadisticas.put("lotes", lotes.sum());
+        estadisticas.put("pendientes", (long) buffer.tamanio());
+        estadisticas.put("capacidad", (long) buffer.capacidad());
+        return estadisticas;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        activo = true;
+        escritor = new Thread(this::procesar, "auditoria-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+        log.info("Escritor de auditoría iniciado (capacidad {}, lote {})", buffer.capacidad(), tamanioLote);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        Thread hilo = escritor;
+        activo = false;
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+            hilo.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void encolar(Cambio cambio) {
+        for (int intento = 0; intento < REINTENTOS_BUFFER_LLENO; intento++) {
+            if (buffer.offer(cambio)) {
+                encolados.increment();
+                if (buffer.tamanio() >= tamanioLote) {
+                    despertarEscritor();
+                }
+                return;
+            }
+            despertarEscritor();
+            Thread.onSpinWait();
+        }
+        descartados.increment();
+        log.debug("Buffer de auditoría lleno, se descarta {} {} {}", cambio.accion, cambio.tabla, cambio.registroId);
+    }
+
+    private void despertarEscritor() {
+        Thread hilo = escritor;
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+        }
+    }
+
+    private void procesar() {
+        while (activo) {
+            if (escribirLote() < tamanioLote) {
+                LockSupport.parkNanos(this, esperaNanos);
+            }
+        }
+        // Vaciar lo pendiente al apagar
+        int escritosAlApagar;
+        do {
+            escritosAlApagar = escribirLote();
+        } while (escritosAlApagar > 0);
+    }
+
+    private int escribirLote() {
+        List<Cambio> lote = new ArrayList<>(tamanioLote);
+        buffer.drenar(lote::add, tamanioLote);
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG, lote, lote.size(), (ps, cambio) -> {
+                if (cambio.usuarioId != null) {
+                    ps.setLong(1, cambio.usuarioId);
+                } else {
+                    ps.setNull(1, Types.BIGINT);
+                }
+                ps.setString(2, cambio.tabla);
+                ps.setLong(3, cambio.registroId);
+                ps.setString(4, cambio.accion);
+                ps.setString(5, aJson(cambio.valoresAntiguos));
+                ps.setString(6, aJson(cambio.valoresNuevos));
+                ps.setString(7, cambio.ipAddress);
+                ps.setString(8, cambio.userAgent);
+                ps.setTimestamp(9, Timestamp.valueOf(cambio.creadoEn));
+            });
+            escritos.add(lote.size());
+            lotes.increment();
+        } catch (DataAccessException e) {
+            fallidos.add(lote.size());
+            log.error("Error escribiendo lote de auditoría ({} registros): {}", lote.size(), e.getMessage());
+        }
+        return lote.size();
+    }
+
+    private String aJson(Map<String, Object> valores) {
+        if (valores == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(valores);
+        } catch (JsonProcessingException e) {
+            return valores.toString();
+        }
+    }
+
+    /**
+     * Usuario autenticado que origina el cambio, o null si lo hace el sistema (hilos de fondo, tareas
+     * programadas). Los tokens sin id (anteriores a UsuarioAutenticado) traen un UserDetails: su id se
+     * busca por email una vez por petición.
+     */
+    private Long usuarioActual(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return usuario.getId();
+        }
+        if (!(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+            return null;
+        }
+        if (request != null && request.getAttribute(ATRIBUTO_USUARIO_ID) instanceof Long id) {
+            return id;
+        }
+        Long id = usuarioRepository.findIdByEmail(userDetails.getUsername()).orElse(null);
+        if (request != null && id != null) {
+            request.setAttribute(ATRIBUTO_USUARIO_ID, id);
+        }
+        return id;
+    }
+
+    private static HttpServletRequest requestActual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos instanceof ServletRequestAttributes servlet ? servlet.getRequest() : null;
+    }
+
+    /**
+     * Detrás de un proxy, ForwardedHeaderFilter ya reemplazó la dirección remota;
+     * X-Forwarded-For no se lee aquí porque cualquier cliente puede enviarlo
+     */
+    private static String ipCliente(HttpServletRequest request) {
+        return recortar(request.getRemoteAddr(), 50);
+    }
+
+    private static String recortar(String texto, int maximo) {
+        return texto != null && texto.length() > maximo ? texto.substring(0, maximo) : texto;
+    }
+
+    private record Cambio(Long usuarioId, String tabla, Long registroId, String accion,
+                          Map<String, Object> valoresAntiguos, Map<String, Object> valoresNuevos,
+                          String ipAddress, String userAgent, LocalDateTime creadoEn) {
+    }
+}
@@ -9,6 +9,7 @@ import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
 import com.example.PROYECTO.FINAL_WEB.exception.UnauthorizedException;
 import com.example.PROYECTO.FINAL_WEB.repository.UsuarioRepository;
 import com.example.PROYECTO.FINAL_WEB.security.JwtTokenProvider;
+import com.example.PROYECTO.FINAL_WEB.security.UsuarioAutenticado;
 import com.example.PROYECTO.FINAL_WEB.util.AppConstants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -62,7 +63,7 @@ public class AuthService {
         usuario = usuarioRepository.save(usuario);
 
         // Generar tokens
-        String token = tokenProvider.generateToken(usuario.getEmail());
+        String token = tokenProvider.generateToken(usuario);
         String refreshToken = tokenProvider.generateRefreshToken(usuario.getEmail());
 
         return AuthResponse.builder()
@@ -90,13 +91,14 @@ public class AuthService {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
+            Usuario usuario = usuarioRepository.findByEmailAndActivo(request.getEmail().toLowerCase())
+                    .orElseThrow(() -> new UnauthorizedException("Credenciales inválidas"));
+
             // Generar tokens
-            String token = tokenProvider.generateToken(authentication);
+            String token = tokenProvider.generateToken(usuario);
             String refreshToken = tokenProvider.generateRefreshToken(request.getEmail());
 
             // Actualizar último acceso
-            Usuario usuario = usuarioRepository.findByEmailAndActivo(request.getEmail().toLowerCase())
-                    .orElseThrow(() -> new UnauthorizedException("Credenciales inválidas"));
 
             usuarioRepository.actualizarUltimoAcceso(usuario.getId(), LocalDateTime.now());
 
@@ -126,7 +128,7 @@ public class AuthService {
         Usuario usuario = usuarioRepository.findByEmailAndActivo(email)
                 .orElseThrow(() -> new UnauthorizedException("Usuario no encontrado"));
 
-        String newToken = tokenProvider.generateToken(email);
+        String newToken = tokenProvider.generateToken(usuario);
         String newRefreshToken = tokenProvider.generateRefreshToken(email);
 
         return AuthResponse.builder()
@@ -148,6 +150,13 @@ public class AuthService {
             throw new UnauthorizedException("Usuario no autenticado");
         }
 
+        // Con el principal del JWT se busca por clave primaria en lugar de LOWER(email)
+        if (authentication.getPrincipal() instanceof UsuarioAutenticado principal) {
+            return usuarioRepository.findById(principal.getId())
+                    .filter(Usuario::isActivo)
+                    .orElseThrow(() -> new UnauthorizedException("Usuario no encontrado"));
+        }
+
         String email = authentication.getName();
         return usuarioRepository.findByEmailAndActivo(email)
                 .orElseThrow(() -> new UnauthorizedException("Usuario no encontrado"));
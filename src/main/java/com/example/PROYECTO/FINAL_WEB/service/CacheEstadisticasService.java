@@ -0,0 +1,58 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.config.CacheConfig;
+import com.example.PROYECTO.FINAL_WEB.dto.response.EstadisticaCacheResponse;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estadísticas de aciertos/fallos de la caché de segundo nivel y de la caché de consultas
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheEstadisticasService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager hibernateCacheManager;
+
+    public List<EstadisticaCacheResponse> obtenerEstadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<EstadisticaCacheResponse> regiones = new ArrayList<>();
+
+        for (String region : CacheConfig.REGIONES_ENTIDAD) {
+            CacheRegionStatistics stats = estadisticas.getDomainDataRegionStatistics(region);
+            regiones.add(construir(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount()));
+        }
+        regiones.add(construir(CacheConfig.REGION_CONSULTAS, estadisticas.getQueryCacheHitCount(),
+                estadisticas.getQueryCacheMissCount(), estadisticas.getQueryCachePutCount()));
+        return regiones;
+    }
+
+    private EstadisticaCacheResponse construir(String region, long aciertos, long fallos, long escrituras) {
+        long total = aciertos + fallos;
+        return EstadisticaCacheResponse.builder()
+                .region(region)
+                .aciertos(aciertos)
+                .fallos(fallos)
+                .escrituras(escrituras)
+                .elementos(elementos(region))
+                .tasaAciertos(total == 0 ? 0 : (double) aciertos / total)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long elementos(String region) {
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+        return cache == null ? 0
+                : cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+    }
+}
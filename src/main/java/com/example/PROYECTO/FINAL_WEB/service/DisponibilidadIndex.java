@@ -0,0 +1,152 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.repository.ReservaRepository;
+import com.example.PROYECTO.FINAL_WEB.repository.RoomAvailabilityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Índice en memoria de noches ocupadas por habitación.
+ * Cada habitación tiene un BitSet donde el bit i representa el día BASE + i.
+ * Se carga de forma diferida desde room_availability (estados distintos de disponible)
+ * y desde las reservas activas; las escrituras se aplican al confirmar la transacción.
+ * Las entradas se recargan pasado el TTL para acotar la desincronización con la BD.
+ * Cada cambio aplicado incrementa la versión de la habitación; una carga solo se publica
+ * si la versión no cambió mientras se leía la BD (si no, la carga puede ser anterior al cambio).
+ */
+@Slf4j
+@Component
+public class DisponibilidadIndex {
+
+    private static final LocalDate BASE = LocalDate.of(2020, 1, 1);
+
+    private final RoomAvailabilityRepository availabilityRepository;
+    private final ReservaRepository reservaRepository;
+    private final long ttlMillis;
+
+    private final ConcurrentMap<Long, Ocupacion> habitaciones = new ConcurrentHashMap<>();
+    // compute sobre esta clave serializa cambios y publicación de cargas de una misma habitación
+    private final ConcurrentMap<Long, Long> versiones = new ConcurrentHashMap<>();
+
+    public DisponibilidadIndex(RoomAvailabilityRepository availabilityRepository,
+                               ReservaRepository reservaRepository,
+                               @Value("${app.disponibilidad.indice.ttl-minutos:10}") long ttlMinutos) {
+        this.availabilityRepository = availabilityRepository;
+        this.reservaRepository = reservaRepository;
+        this.ttlMillis = ttlMinutos * 60_000L;
+    }
+
+    /**
+     * Indica si ninguna noche del rango [inicio, fin] (ambos inclusive) está ocupada
+     */
+    public boolean estaLibre(Long habitacionId, LocalDate inicio, LocalDate fin) {
+        return primerDiaOcupado(habitacionId, inicio, fin) == null;
+    }
+
+    /**
+     * Primer día ocupado dentro de [inicio, fin], o null si el rango está libre
+     */
+    public LocalDate primerDiaOcupado(Long habitacionId, LocalDate inicio, LocalDate fin) {
+        Ocupacion ocupacion = obtener(habitacionId);
+        int desde = offset(inicio);
+        int hasta = offset(fin) + 1;
+        int encontrado;
+        synchronized (ocupacion) {
+            encontrado = ocupacion.dias.nextSetBit(desde);
+        }
+        return encontrado >= 0 && encontrado < hasta ? BASE.plusDays(encontrado) : null;
+    }
+
+    /**
+     * Marcar noches [inicio, fin] como ocupadas (al confirmar la transacción actual)
+     */
+    public void marcarOcupado(Long habitacionId, LocalDate inicio, LocalDate fin) {
+        despuesDelCommit(() -> versiones.compute(habitacionId, (id, version) -> {
+            Ocupacion ocupacion = habitaciones.get(id);
+            if (ocupacion != null) {
+                synchronized (ocupacion) {
+                    ocupacion.dias.set(offset(inicio), offset(fin) + 1);
+                }
+            }
+            return siguiente(version);
+        }));
+    }
+
+    /**
+     * Descartar el índice de una habitación; se recarga desde la BD en el próximo acceso
+     */
+    public void invalidar(Long habitacionId) {
+        despuesDelCommit(() -> versiones.compute(habitacionId, (id, version) -> {
+            habitaciones.remove(id);
+            return siguiente(version);
+        }));
+    }
+
+    private Ocupacion obtener(Long habitacionId) {
+        Ocupacion ocupacion = habitaciones.get(habitacionId);
+        if (ocupacion == null || System.currentTimeMillis() - ocupacion.cargadoEn > ttlMillis) {
+            long version = versiones.getOrDefault(habitacionId, 0L);
+            Ocupacion cargada = cargar(habitacionId);
+            versiones.compute(habitacionId, (id, actual) -> {
+                if ((actual == null ? 0L : actual) == version) {
+                    habitaciones.put(id, cargada);
+                }
+                return actual;
+            });
+            ocupacion = cargada;
+        }
+        return ocupacion;
+    }
+
+    private static Long siguiente(Long version) {
+        return version == null ? 1L : version + 1;
+    }
+
+    private Ocupacion cargar(Long habitacionId) {
+        LocalDate hoy = LocalDate.now();
+        Ocupacion ocupacion = new Ocupacion();
+        availabilityRepository.findFechasNoDisponibles(habitacionId, hoy)
+                .forEach(fecha -> ocupacion.dias.set(offset(fecha)));
+        reservaRepository.findRangosActivosPorHabitacion(habitacionId, hoy).forEach(rango -> {
+            LocalDate checkin = (LocalDate) rango[0];
+            LocalDate checkout = (LocalDate) rango[1];
+            if (checkout.isAfter(checkin)) {
+                ocupacion.dias.set(offset(checkin), offset(checkout));
+            }
+        });
+        log.debug("Índice de disponibilidad cargado para habitación {}: {} noches ocupadas",
+                habitacionId, ocupacion.dias.cardinality());
+        return ocupacion;
+    }
+
+    private void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private static int offset(LocalDate fecha) {
+        return (int) Math.max(0, ChronoUnit.DAYS.between(BASE, fecha));
+    }
+
+    private static final class Ocupacion {
+        private final BitSet dias = new BitSet();
+        private final long cargadoEn = System.currentTimeMillis();
+    }
+}
@@ -1,16 +1,23 @@
 package com.example.PROYECTO.FINAL_WEB.service;
 
+import com.example.PROYECTO.FINAL_WEB.dto.response.CalendarioDisponibilidadResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.Habitacion;
 import com.example.PROYECTO.FINAL_WEB.entity.RoomAvailability;
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
 import com.example.PROYECTO.FINAL_WEB.repository.HabitacionRepository;
+import com.example.PROYECTO.FINAL_WEB.repository.ReservaRepository;
 import com.example.PROYECTO.FINAL_WEB.repository.RoomAvailabilityRepository;
+import com.example.PROYECTO.FINAL_WEB.util.AppConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
@@ -20,6 +27,10 @@ public class DisponibilidadService {
 
     private final RoomAvailabilityRepository availabilityRepository;
     private final HabitacionRepository habitacionRepository;
+    private final ReservaRepository reservaRepository;
+    private final DisponibilidadIndex disponibilidadIndex;
+
+    private static final int MAX_DIAS_CALENDARIO = 366;
 
     @Transactional(readOnly = true)
     public Map<LocalDate, BigDecimal> obtenerPreciosPorFecha(Long habitacionId, LocalDate inicio, LocalDate fin) {
@@ -47,43 +58,166 @@ public class DisponibilidadService {
         return precios;
     }
 
+    /**
+     * Calendario de un hotel (habitaciones x días) con una consulta de habitaciones, una sobre
+     * room_availability y una sobre reservas; cada habitación se codifica en segmentos consecutivos
+     */
     @Transactional(readOnly = true)
+    public CalendarioDisponibilidadResponse obtenerCalendarioHotel(Long hotelId, LocalDate inicio, LocalDate fin) {
+        if (fin.isBefore(inicio)) {
+            throw new BusinessException("La fecha fin no puede ser anterior a la fecha inicio");
+        }
+        int dias = (int) ChronoUnit.DAYS.between(inicio, fin) + 1;
+        if (dias > MAX_DIAS_CALENDARIO) {
+            throw new BusinessException("El calendario admite como máximo " + MAX_DIAS_CALENDARIO + " días");
+        }
+
+        List<Habitacion> habitaciones = habitacionRepository.findByHotelId(hotelId);
+        Map<Long, String[]> estados = new HashMap<>();
+        Map<Long, BigDecimal[]> precios = new HashMap<>();
+        for (Habitacion habitacion : habitaciones) {
+            String estadoBase = AppConstants.HABITACION_DISPONIBLE.equalsIgnoreCase(habitacion.getEstado())
+                ? AppConstants.DISPONIBILIDAD_DISPONIBLE : habitacion.getEstado();
+            String[] estadosHabitacion = new String[dias];
+            BigDecimal[] preciosHabitacion = new BigDecimal[dias];
+            Arrays.fill(estadosHabitacion, estadoBase);
+            Arrays.fill(preciosHabitacion, habitacion.getPrecioBase());
+            estados.put(habitacion.getId(), estadosHabitacion);
+            precios.put(habitacion.getId(), preciosHabitacion);
+        }
+
+        for (Object[] fila : availabilityRepository.findCalendarioByHotelId(hotelId, inicio, fin)) {
+            String[] estadosHabitacion = estados.get((Long) fila[0]);
+            if (estadosHabitacion == null) {
+                continue;
+            }
+            int dia = (int) ChronoUnit.DAYS.between(inicio, (LocalDate) fila[1]);
+            if (AppConstants.DISPONIBILIDAD_DISPONIBLE.equals(estadosHabitacion[dia])) {
+                estadosHabitacion[dia] = (String) fila[2];
+            }
+            if (fila[3] != null) {
+                precios.get((Long) fila[0])[dia] = (BigDecimal) fila[3];
+            }
+        }
+
+        for (Object[] fila : reservaRepository.findRangosActivosPorHotel(hotelId, inicio, fin)) {
+            String[] estadosHabitacion = estados.get((Long) fila[0]);
+            if (estadosHabitacion == null) {
+                continue;
+            }
+            int desde = (int) Math.max(0, ChronoUnit.DAYS.between(inicio, (LocalDate) fila[1]));
+            int hasta = (int) Math.min(dias, ChronoUnit.DAYS.between(inicio, (LocalDate) fila[2]));
+            for (int dia = desde; dia < hasta; dia++) {
+                estadosHabitacion[dia] = AppConstants.DISPONIBILIDAD_RESERVADO;
+            }
+        }
+
+        List<CalendarioDisponibilidadResponse.HabitacionCalendarioDTO> calendario = new ArrayList<>();
+        for (Habitacion habitacion : habitaciones) {
+            calendario.add(CalendarioDisponibilidadResponse.HabitacionCalendarioDTO.builder()
+                .habitacionId(habitacion.getId())
+                .numero(habitacion.getNumero())
+                .precioBase(habitacion.getPrecioBase())
+                .segmentos(comprimirSegmentos(inicio, estados.get(habitacion.getId()), precios.get(habitacion.getId())))
+                .build());
+        }
+
+        return CalendarioDisponibilidadResponse.builder()
+            .hotelId(hotelId)
+            .inicio(inicio)
+            .fin(fin)
+            .habitaciones(calendario)
+            .build();
+    }
+
+    /**
+     * Codificación run-length: días consecutivos con el mismo estado y precio forman un segmento
+     */
+    private List<CalendarioDisponibilidadResponse.SegmentoDTO> comprimirSegmentos(
+            LocalDate inicio, String[] estados, BigDecimal[] precios) {
+        List<CalendarioDisponibilidadResponse.SegmentoDTO> segmentos = new ArrayList<>();
+        int desde = 0;
+        for (int dia = 1; dia <= estados.length; dia++) {
+            boolean corte = dia == estados.length
+                || !Objects.equals(estados[dia], estados[desde])
+                || !mismoPrecio(precios[dia], precios[desde]);
+            if (corte) {
+                segmentos.add(CalendarioDisponibilidadResponse.SegmentoDTO.builder()
+                    .desde(inicio.plusDays(desde))
+                    .hasta(inicio.plusDays(dia - 1))
+                    .estado(estados[desde])
+                    .precio(precios[desde])
+                    .build());
+                desde = dia;
+            }
+        }
+        return segmentos;
+    }
+
+    private boolean mismoPrecio(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    /**
+     * Consulta resuelta en memoria por el índice de disponibilidad (sin acceso a la BD
+     * salvo en la carga inicial de la habitación)
+     */
     public boolean estaDisponible(Long habitacionId, LocalDate inicio, LocalDate fin) {
-        List<RoomAvailability> bloqueadas = availabilityRepository
-            .findByHabitacionIdAndFechaBetweenAndEstado(habitacionId, inicio, fin, "reservado");
-        
-        return bloqueadas.isEmpty();
+        return disponibilidadIndex.estaLibre(habitacionId, inicio, fin);
     }
 
+    /**
+     * Bloquear el rango [inicio, fin] con un único upsert por rango
+     */
     @Transactional
     public void bloquearFechas(Long habitacionId, LocalDate inicio, LocalDate fin) {
-        LocalDate current = inicio;
-        while (!current.isAfter(fin)) {
-            RoomAvailability availability = availabilityRepository
-                .findByHabitacionIdAndFecha(habitacionId, current)
-                .orElse(RoomAvailability.builder()
-                    .habitacion(habitacionRepository.findById(habitacionId).orElseThrow())
-                    .fecha(current)
-                    .build());
-            
-            availability.setEstado("reservado");
-            availabilityRepository.save(availability);
-            
-            current = current.plusDays(1);
+        availabilityRepository.upsertRango(habitacionId, inicio, fin, AppConstants.DISPONIBILIDAD_RESERVADO);
+        disponibilidadIndex.marcarOcupado(habitacionId, inicio, fin);
+    }
+
+    /**
+     * Reclamar las noches [checkin, checkout) de una reserva. No necesita SERIALIZABLE: la
+     * restricción única (habitacion_id, fecha) y el filtro estado = 'disponible' garantizan que
+     * cada noche la gane una sola transacción; el resto recibe un conflicto.
+     */
+    @Transactional
+    public void reclamarNoches(Long habitacionId, LocalDate checkin, LocalDate checkout) {
+        LocalDate ultimaNoche = checkout.minusDays(1);
+        long noches = ChronoUnit.DAYS.between(checkin, checkout);
+        int reclamadas;
+        try {
+            reclamadas = availabilityRepository.reclamarRango(
+                habitacionId, checkin, ultimaNoche, AppConstants.DISPONIBILIDAD_RESERVADO);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("La habitación acaba de ser reservada para las fechas seleccionadas", e);
+        }
+        if (reclamadas < noches) {
+            throw new ConflictException("La habitación no está disponible para las fechas seleccionadas");
         }
+        disponibilidadIndex.marcarOcupado(habitacionId, checkin, ultimaNoche);
     }
 
+    /**
+     * Devolver las noches [checkin, checkout) de una reserva cancelada
+     */
+    @Transactional
+    public void liberarNoches(Long habitacionId, LocalDate checkin, LocalDate checkout) {
+        liberarFechas(habitacionId, checkin, checkout.minusDays(1));
+    }
+
+    /**
+     * Liberar las noches reservadas del rango [inicio, fin] con un único UPDATE
+     */
     @Transactional
     public void liberarFechas(Long habitacionId, LocalDate inicio, LocalDate fin) {
-        LocalDate current = inicio;
-        while (!current.isAfter(fin)) {
-            availabilityRepository.findByHabitacionIdAndFecha(habitacionId, current)
-                .ifPresent(availability -> {
-                    availability.setEstado("disponible");
-                    availabilityRepository.save(availability);
-                });
-            
-            current = current.plusDays(1);
-        }
+        availabilityRepository.liberarRango(habitacionId, inicio, fin);
+        disponibilidadIndex.invalidar(habitacionId);
+    }
+
+    /**
+     * Forzar la recarga del índice de una habitación (p. ej. tras cancelar una reserva)
+     */
+    public void invalidarIndice(Long habitacionId) {
+        disponibilidadIndex.invalidar(habitacionId);
     }
 }
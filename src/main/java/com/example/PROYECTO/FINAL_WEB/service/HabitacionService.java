@@ -41,6 +41,12 @@ public class HabitacionService {
     @Autowired
     private HabitacionImagenRepository habitacionImagenRepository;
 
+    @Autowired
+    private ImagenStorageService imagenStorageService;
+
+    @Autowired
+    private ImagenVarianteService imagenVarianteService;
+
     /**
      * Crear nueva habitación (solo propietario del hotel)
      */
@@ -86,7 +92,7 @@ public class HabitacionService {
         if (request.getImagen() != null && !request.getImagen().trim().isEmpty()) {
             HabitacionImagen imagenPrincipal = HabitacionImagen.builder()
                     .habitacion(habitacion)
-                    .url(request.getImagen())
+                    .url(imagenStorageService.guardar(request.getImagen()))
                     .altText(habitacion.getNumero() + " - " + habitacion.getNombreCorto())
                     .orden(orden++)
                     .esPrincipal(true)
@@ -100,7 +106,7 @@ public class HabitacionService {
                 if (imagenBase64 != null && !imagenBase64.trim().isEmpty()) {
                     HabitacionImagen imagen = HabitacionImagen.builder()
                             .habitacion(habitacion)
-                            .url(imagenBase64)
+                            .url(imagenStorageService.guardar(imagenBase64))
                             .altText(habitacion.getNumero() + " - Imagen adicional")
                             .orden(orden++)
                             // Solo es principal si no hay imagen principal definida y es la primera
@@ -217,7 +223,7 @@ public class HabitacionService {
             if (request.getImagen() != null && !request.getImagen().trim().isEmpty()) {
                 HabitacionImagen imagenPrincipal = HabitacionImagen.builder()
                         .habitacion(habitacion)
-                        .url(request.getImagen())
+                        .url(imagenStorageService.guardar(request.getImagen()))
                         .altText(habitacion.getNumero() + " - " + habitacion.getNombreCorto())
                         .orden(orden++)
                         .esPrincipal(true)
@@ -230,7 +236,7 @@ public class HabitacionService {
                 if (imagenBase64 != null && !imagenBase64.trim().isEmpty()) {
                     HabitacionImagen imagen = HabitacionImagen.builder()
                             .habitacion(habitacion)
-                            .url(imagenBase64)
+                            .url(imagenStorageService.guardar(imagenBase64))
                             .altText(habitacion.getNumero() + " - Imagen adicional")
                             .orden(orden++)
                             .esPrincipal(request.getImagen() == null && orden == 1)
@@ -241,7 +247,7 @@ public class HabitacionService {
         } else if (request.getImagen() != null && !request.getImagen().trim().isEmpty()) {
             // Solo actualizar imagen principal si no hay array de imágenes
             final Habitacion habitacionFinal = habitacion;
-            final String imagenUrl = request.getImagen();
+            final String imagenUrl = imagenStorageService.guardar(request.getImagen());
             habitacionImagenRepository.findImagenPrincipalByHabitacionId(habitacion.getId())
                     .ifPresentOrElse(
                             imagenExistente -> {
@@ -337,6 +343,8 @@ public class HabitacionService {
                 .metrosCuadrados(habitacion.getMetrosCuadrados())
                 .estado(habitacion.getEstado())
                 .imagenPrincipal(imagenPrincipal)
+                .miniatura(imagenVarianteService.urlMiniatura(imagenPrincipal))
+                .variantes(imagenVarianteService.urlsVariantes(imagenPrincipal))
                 .imagenes(imagenes)
                 .creadoEn(habitacion.getCreadoEn());
 
@@ -0,0 +1,255 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
+import com.example.PROYECTO.FINAL_WEB.repository.HotelRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice geográfico en memoria de los hoteles aprobados con coordenadas.
+ * Cada hotel se guarda con su geohash de 52 bits (26 por eje, longitud y latitud intercalados),
+ * en un conjunto ordenado: todos los puntos de una celda geohash forman un rango contiguo.
+ * Una búsqueda por radio elige el nivel de celda que cubre la caja del radio con 2x2 celdas
+ * como máximo, recorre esos rangos y filtra por distancia haversine exacta.
+ * Se carga completo al arrancar y periódicamente (cambios de otras instancias); cada
+ * HotelModificadoEvent local actualiza solo ese hotel tras el commit.
+ * Cada lectura de la BD toma una marca antes de leer y solo se aplica si no se aplicó ya
+ * una lectura posterior del mismo hotel: una carga completa lenta no revierte un cambio reciente.
+ */
+@Slf4j
+@Component
+public class HotelGeoIndex {
+
+    private static final int BITS_POR_EJE = 26;
+    private static final double RADIO_TIERRA_KM = 6371.0;
+    private static final double KM_POR_GRADO = Math.PI * RADIO_TIERRA_KM / 180.0;
+    private static final Set<String> MOTIVOS_UBICACION = Set.of("actualizado", "aprobado", "rechazado", "eliminado");
+
+    private final HotelRepository hotelRepository;
+    private final TransactionTemplate lecturaNueva;
+
+    private final NavigableSet<Punto> puntos = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<Long, Punto> porHotel = new ConcurrentHashMap<>();
+    private volatile boolean listo;
+
+    private final AtomicLong marcas = new AtomicLong();
+    // Marca de la última lectura aplicada por hotel y de la última carga completa (protegidas por this)
+    private final Map<Long, Long> marcaPorHotel = new HashMap<>();
+    private long marcaCarga;
+
+    public HotelGeoIndex(HotelRepository hotelRepository, PlatformTransactionManager transactionManager) {
+        this.hotelRepository = hotelRepository;
+        this.lecturaNueva = new TransactionTemplate(transactionManager);
+        this.lecturaNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lecturaNueva.setReadOnly(true);
+    }
+
+    /**
+     * Hasta que termina la primera carga la búsqueda usa la caja de coordenadas en la BD
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    public int tamanio() {
+        return porHotel.size();
+    }
+
+    /**
+     * Hoteles a no más de radioKm del punto, del más cercano al más lejano
+     */
+    public List<Cercano> cercanos(double latitud, double longitud, double radioKm) {
+        double deltaLatitud = radioKm / KM_POR_GRADO;
+        double deltaLongitud = Math.min(radioKm / (KM_POR_GRADO * Math.max(Math.cos(Math.toRadians(latitud)), 0.01)), 180.0);
+        int nivel = nivelPara(deltaLatitud, deltaLongitud);
+
+        long desdeLat = indice(latitud - deltaLatitud, -90, 180, nivel);
+        long hastaLat = indice(latitud + deltaLatitud, -90, 180, nivel);
+        long desdeLng = indice(longitud - deltaLongitud, -180, 360, nivel);
+        long hastaLng = indice(longitud + deltaLongitud, -180, 360, nivel);
+        int desplazamiento = 2 * (BITS_POR_EJE - nivel);
+
+        List<Cercano> encontrados = new ArrayList<>();
+        for (long celdaLat = desdeLat; celdaLat <= hastaLat; celdaLat++) {
+            for (long celdaLng = desdeLng; celdaLng <= hastaLng; celdaLng++) {
+                long prefijo = intercalar(celdaLng, celdaLat, nivel);
+                long desde = prefijo << desplazamiento;
+                long hasta = ((prefijo + 1) << desplazamiento) - 1;
+                for (Punto punto : puntos.subSet(Punto.limite(desde, Long.MIN_VALUE), true,
+                                                 Punto.limite(hasta, Long.MAX_VALUE), true)) {
+                    double distancia = distanciaKm(latitud, longitud, punto.latitud(), punto.longitud());
+                    if (distancia <= radioKm) {
+                        encontrados.add(new Cercano(punto.hotelId(), distancia));
+                    }
+                }
+            }
+        }
+        encontrados.sort(Comparator.comparingDouble(Cercano::distanciaKm).thenComparing(Cercano::hotelId));
+        return encontrados;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.geo.reconstruccion-ms:600000}",
+               initialDelayString = "${app.geo.reconstruccion-ms:600000}")
+    public void reconstruir() {
+        try {
+            long inicio = System.currentTimeMillis();
+            long marca = marcas.incrementAndGet();
+            List<Object[]> filas = lecturaNueva.execute(status -> hotelRepository.findCoordenadasHotelesAprobados());
+            synchronized (this) {
+                if (marca < marcaCarga) {
+                    return;
+                }
+                Map<Long, Punto> nuevos = new ConcurrentHashMap<>();
+                for (Object[] fila : filas) {
+                    Punto punto = Punto.de((Long) fila[0], (Double) fila[1], (Double) fila[2]);
+                    nuevos.put(punto.hotelId(), punto);
+                }
+                // Hoteles releídos después de empezar esta carga: lo que hay en memoria es más reciente
+                Set<Long> recientes = new HashSet<>();
+                marcaPorHotel.forEach((hotelId, marcaHotel) -> {
+                    if (marcaHotel > marca) {
+                        recientes.add(hotelId);
+                    }
+                });
+                porHotel.keySet().removeIf(id -> !recientes.contains(id) && !nuevos.containsKey(id));
+                puntos.removeIf(punto -> !recientes.contains(punto.hotelId())
+                        && !punto.equals(nuevos.get(punto.hotelId())));
+                nuevos.values().stream()
+                        .filter(punto -> !recientes.contains(punto.hotelId()))
+                        .forEach(this::colocar);
+                marcaPorHotel.values().removeIf(marcaHotel -> marcaHotel <= marca);
+                marcaCarga = marca;
+                listo = true;
+            }
+            log.info("Índice geográfico cargado: {} hoteles en {} ms", porHotel.size(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el índice geográfico: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Releer la ubicación y el estado del hotel modificado (solo cambios que pueden moverlo)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHotelModificado(HotelModificadoEvent evento) {
+        if (!MOTIVOS_UBICACION.contains(evento.getMotivo())) {
+            return;
+        }
+        try {
+            long marca = marcas.incrementAndGet();
+            List<Object[]> filas = lecturaNueva.execute(status ->
+                    hotelRepository.findCoordenadasHotelAprobado(evento.getHotelId()));
+            synchronized (this) {
+                // Una lectura posterior del hotel (o una carga completa posterior) ya se aplicó
+                if (marca < marcaCarga || marca < marcaPorHotel.getOrDefault(evento.getHotelId(), 0L)) {
+                    return;
+                }
+                marcaPorHotel.put(evento.getHotelId(), marca);
+                if (filas.isEmpty()) {
+                    quitar(evento.getHotelId());
+                } else {
+                    Object[] fila = filas.get(0);
+                    colocar(Punto.de((Long) fila[0], (Double) fila[1], (Double) fila[2]));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo actualizar el hotel {} en el índice geográfico: {}", evento.getHotelId(), e.getMessage());
+        }
+    }
+
+    private void colocar(Punto punto) {
+        Punto anterior = porHotel.put(punto.hotelId(), punto);
+        if (anterior != null && !anterior.equals(punto)) {
+            puntos.remove(anterior);
+        }
+        puntos.add(punto);
+    }
+
+    private void quitar(Long hotelId) {
+        Punto anterior = porHotel.remove(hotelId);
+        if (anterior != null) {
+            puntos.remove(anterior);
+        }
+    }
+
+    /**
+     * Nivel más fino (bits por eje) cuya celda es al menos tan grande como la caja del radio
+     */
+    private static int nivelPara(double deltaLatitud, double deltaLongitud) {
+        for (int nivel = BITS_POR_EJE; nivel > 1; nivel--) {
+            double altoCelda = 180.0 / (1L << nivel);
+            double anchoCelda = 360.0 / (1L << nivel);
+            if (altoCelda >= 2 * deltaLatitud && anchoCelda >= 2 * deltaLongitud) {
+                return nivel;
+            }
+        }
+        return 1;
+    }
+
+    private static long indice(double valor, double minimo, double rango, int nivel) {
+        long celdas = 1L << nivel;
+        long indice = (long) Math.floor((valor - minimo) / rango * celdas);
+        return Math.max(0, Math.min(celdas - 1, indice));
+    }
+
+    private static long intercalar(long indiceLongitud, long indiceLatitud, int nivel) {
+        long codigo = 0;
+        for (int bit = nivel - 1; bit >= 0; bit--) {
+            codigo = (codigo << 1) | ((indiceLongitud >>> bit) & 1);
+            codigo = (codigo << 1) | ((indiceLatitud >>> bit) & 1);
+        }
+        return codigo;
+    }
+
+    public static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double senoMedioLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double senoMedioLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = senoMedioLat * senoMedioLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * senoMedioLng * senoMedioLng;
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public record Cercano(Long hotelId, double distanciaKm) {
+    }
+
+    private record Punto(long geohash, long hotelId, double latitud, double longitud) implements Comparable<Punto> {
+
+        static Punto de(Long hotelId, double latitud, double longitud) {
+            long geohash = intercalar(indice(longitud, -180, 360, BITS_POR_EJE),
+                                      indice(latitud, -90, 180, BITS_POR_EJE), BITS_POR_EJE);
+            return new Punto(geohash, hotelId, latitud, longitud);
+        }
+
+        static Punto limite(long geohash, long hotelId) {
+            return new Punto(geohash, hotelId, 0, 0);
+        }
+
+        @Override
+        public int compareTo(Punto otro) {
+            int porGeohash = Long.compare(geohash, otro.geohash);
+            return porGeohash != 0 ? porGeohash : Long.compare(hotelId, otro.hotelId);
+        }
+    }
+}
@@ -1,28 +1,43 @@
 package com.example.PROYECTO.FINAL_WEB.service;
 
+import com.example.PROYECTO.FINAL_WEB.busqueda.AutocompletadoDestinos;
+import com.example.PROYECTO.FINAL_WEB.busqueda.IndiceBusquedaHoteles;
+import com.example.PROYECTO.FINAL_WEB.cache.HotelDetalleCache;
 import com.example.PROYECTO.FINAL_WEB.dto.request.HotelRequest;
 import com.example.PROYECTO.FINAL_WEB.dto.request.HotelSearchRequest;
+import com.example.PROYECTO.FINAL_WEB.dto.response.HotelListResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.HotelResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.PageResponse;
+import com.example.PROYECTO.FINAL_WEB.dto.response.SugerenciaResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.*;
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
 import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
 import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
 import com.example.PROYECTO.FINAL_WEB.repository.*;
 import com.example.PROYECTO.FINAL_WEB.util.AppConstants;
+import com.example.PROYECTO.FINAL_WEB.util.CursorPaginacion;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +67,44 @@ public class HotelService {
     @Autowired
     private HotelImagenRepository hotelImagenRepository;
 
+    @Autowired
+    private HotelAmenityRepository hotelAmenityRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ImagenStorageService imagenStorageService;
+
+    @Autowired
+    private ImagenVarianteService imagenVarianteService;
+
+    @Autowired
+    private HotelDetalleCache hotelDetalleCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+
+    @Autowired
+    private IndiceBusquedaHoteles indiceBusquedaHoteles;
+
+    @Autowired
+    private AutocompletadoDestinos autocompletadoDestinos;
+
+    private TransactionTemplate lecturaTemplate;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+    }
+
     /**
      * Crear nuevo hotel (solo para propietarios)
      */
@@ -106,7 +159,7 @@ public class HotelService {
         if (request.getImagen() != null && !request.getImagen().trim().isEmpty()) {
             HotelImagen imagen = HotelImagen.builder()
                     .hotel(hotel)
-                    .url(request.getImagen())
+                    .url(imagenStorageService.guardar(request.getImagen()))
                     .altText(hotel.getNombre())
                     .tipo("portada")
                     .orden(0)
@@ -124,39 +177,122 @@ public class HotelService {
     }
 
     /**
-     * Buscar hoteles con filtros y paginación
+     * Buscar hoteles con filtros y paginación.
+     * Con latitud/longitud los resultados van del más cercano al más lejano (HotelGeoIndex);
+     * mientras el índice no está cargado se usa la caja de coordenadas en la BD y el orden pedido.
      */
     @Transactional(readOnly = true)
-    public PageResponse<HotelResponse> buscarHoteles(HotelSearchRequest request) {
+    public PageResponse<HotelListResponse> buscarHoteles(HotelSearchRequest request) {
+        validarBusqueda(request);
         Sort sort = Sort.by(
-            request.getSortDirection().equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC,
-            request.getSortBy()
+            "ASC".equalsIgnoreCase(request.getSortDirection()) ? Sort.Direction.ASC : Sort.Direction.DESC,
+            request.getSortBy() != null ? request.getSortBy() : "puntuacionPromedio"
         );
 
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
-
-        Page<Hotel> hotelPage;
-
-        // Si hay filtros específicos, usar el método de búsqueda complejo
-        if (request.getCiudad() != null || request.getPrecioMinimo() != null || 
-            request.getEstrellas() != null) {
-            hotelPage = hotelRepository.buscarHotelesConFiltros(
-                request.getCiudad(),
-                request.getPais(),
-                request.getEstrellas(),
-                request.getPrecioMinimo(),
-                request.getPrecioMaximo(),
-                pageable
-            );
+        int size = Math.min(request.getSize() != null ? request.getSize() : AppConstants.DEFAULT_PAGE_SIZE,
+                AppConstants.MAX_PAGE_SIZE);
+        if (request.getCursor() != null) {
+            return buscarPorCursor(request, size);
+        }
+        Pageable pageable = PageRequest.of(request.getPage() != null ? request.getPage() : 0, size, sort);
+
+        // Solo los filtros presentes se traducen en condiciones SQL (HotelRepositoryImpl)
+        Page<HotelListResponse> hotelPage = request.getLatitud() != null && hotelGeoIndex.estaListo()
+                ? buscarPorDistancia(request, pageable)
+                : hotelRepository.buscar(request, pageable);
+
+        return aPageResponse(hotelPage);
+    }
+
+    /**
+     * Página por cursor (clave de orden + id): cuesta lo mismo a cualquier profundidad y el total
+     * (un COUNT con todos los filtros) solo se calcula si se pide
+     */
+    private PageResponse<HotelListResponse> buscarPorCursor(HotelSearchRequest request, int size) {
+        if (size < 1) {
+            throw new BusinessException("El tamaño de página debe ser al menos 1");
+        }
+        if (request.getLatitud() != null) {
+            throw new BusinessException("La búsqueda por distancia no admite paginación por cursor");
+        }
+        String campo = HotelRepositoryCustom.campoOrden(request.getSortBy());
+        boolean ascendente = "ASC".equalsIgnoreCase(request.getSortDirection());
+        CursorPaginacion posicion = request.getCursor().isBlank() ? null
+                : CursorPaginacion.decodificar(request.getCursor()).validarOrden(campo, ascendente);
+
+        List<HotelListResponse> hoteles = hotelRepository.buscarDesde(request, campo, ascendente, posicion, size + 1);
+        boolean hayMas = hoteles.size() > size;
+        List<HotelListResponse> content = hayMas ? hoteles.subList(0, size) : hoteles;
+        content.forEach(this::asignarMiniatura);
+
+        String siguiente = null;
+        if (hayMas) {
+            HotelListResponse ultimo = content.get(size - 1);
+            siguiente = CursorPaginacion.de(campo, ascendente, claveOrden(ultimo, campo), ultimo.getId()).codificar();
+        }
+        Long total = Boolean.TRUE.equals(request.getIncluirTotal()) ? hotelRepository.contar(request) : null;
+        return PageResponse.porCursor(content, size, posicion == null, siguiente, total);
+    }
+
+    /**
+     * Valor del campo de orden en una fila, con los nulos como 0 (igual que HotelRepositoryImpl)
+     */
+    private static Object claveOrden(HotelListResponse hotel, String campo) {
+        return switch (campo) {
+            case "nombre" -> hotel.getNombre();
+            case "creadoEn" -> hotel.getCreadoEn();
+            case "estrellas" -> hotel.getEstrellas() != null ? hotel.getEstrellas() : 0;
+            case "totalReviews" -> hotel.getTotalReviews() != null ? hotel.getTotalReviews() : 0;
+            case "precioMinimo" -> hotel.getPrecioMinimo() != null ? hotel.getPrecioMinimo() : BigDecimal.ZERO;
+            default -> hotel.getPuntuacionPromedio() != null ? hotel.getPuntuacionPromedio() : BigDecimal.ZERO;
+        };
+    }
+
+    /**
+     * Búsqueda por texto libre (nombre, descripción, ciudad, país, amenidades) ordenada por relevancia.
+     * Se resuelve en IndiceBusquedaHoteles y solo se cargan de la BD los hoteles de la página;
+     * mientras el índice carga se busca por prefijo del nombre.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<HotelListResponse> buscarPorTexto(String texto, Integer page, Integer size) {
+        if (texto == null || texto.isBlank()) {
+            throw new BusinessException("Debe indicar el texto a buscar");
+        }
+        int tamanio = Math.min(size != null && size > 0 ? size : AppConstants.DEFAULT_PAGE_SIZE,
+                AppConstants.MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(page != null && page > 0 ? page : 0, tamanio);
+
+        Page<HotelListResponse> hotelPage;
+        if (indiceBusquedaHoteles.estaListo()) {
+            IndiceBusquedaHoteles.Resultado resultado =
+                    indiceBusquedaHoteles.buscar(texto, (int) pageable.getOffset(), tamanio);
+            Map<Long, HotelListResponse> porId = listadoPorId(resultado.ids());
+            List<HotelListResponse> contenido = resultado.ids().stream()
+                    .map(porId::get)
+                    .filter(hotel -> hotel != null)
+                    .toList();
+            hotelPage = new PageImpl<>(contenido, pageable, resultado.total());
         } else {
-            hotelPage = hotelRepository.findHotelesAprobados(pageable);
+            String prefijo = texto.trim().toLowerCase().replace("%", "").replace("_", "") + "%";
+            hotelPage = hotelRepository.findListadoPorPrefijoNombre(prefijo, pageable);
         }
+        return aPageResponse(hotelPage);
+    }
 
-        List<HotelResponse> content = hotelPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Sugerencias de ciudades y hoteles para el texto escrito; se responden desde memoria
+     */
+    public List<SugerenciaResponse> autocompletar(String texto, Integer limite) {
+        int cantidad = Math.min(limite != null && limite > 0 ? limite : AppConstants.AUTOCOMPLETADO_LIMITE,
+                AppConstants.AUTOCOMPLETADO_MAX_LIMITE);
+        return autocompletadoDestinos.sugerir(texto, cantidad);
+    }
 
-        return PageResponse.<HotelResponse>builder()
+    private PageResponse<HotelListResponse> aPageResponse(Page<HotelListResponse> hotelPage) {
+        List<HotelListResponse> content = hotelPage.getContent();
+        content.forEach(this::asignarMiniatura);
+
+        return PageResponse.<HotelListResponse>builder()
                 .content(content)
                 .pageNumber(hotelPage.getNumber())
                 .pageSize(hotelPage.getSize())
@@ -169,24 +305,101 @@ public class HotelService {
     }
 
     /**
-     * Obtener hotel por ID con detalles completos
+     * Proyección de listado de los hoteles indicados, por id (el orden lo decide quien llama)
      */
-    @Transactional(readOnly = true)
-    public HotelResponse getHotelById(Long id) {
-        Hotel hotel = hotelRepository.findByIdWithDetails(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Hotel", "id", id));
+    private Map<Long, HotelListResponse> listadoPorId(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return hotelRepository.findListadoPorIds(ids).stream()
+                .collect(Collectors.toMap(HotelListResponse::getId, Function.identity()));
+    }
 
-        return mapToResponse(hotel);
+    /**
+     * Candidatos del índice geográfico ordenados por distancia, filtrados por el resto de criterios
+     * en la BD (solo ids); luego se carga el listado únicamente de los hoteles de la página
+     */
+    private Page<HotelListResponse> buscarPorDistancia(HotelSearchRequest request, Pageable pageable) {
+        List<HotelGeoIndex.Cercano> cercanos = hotelGeoIndex.cercanos(
+                request.getLatitud(), request.getLongitud(), request.getRadioKm());
+        if (cercanos.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Set<Long> validos = hotelRepository.filtrarIds(request,
+                cercanos.stream().map(HotelGeoIndex.Cercano::hotelId).toList());
+        List<HotelGeoIndex.Cercano> resultado = cercanos.stream()
+                .filter(cercano -> validos.contains(cercano.hotelId()))
+                .toList();
+
+        int desde = (int) Math.min(pageable.getOffset(), resultado.size());
+        List<HotelGeoIndex.Cercano> pagina = resultado.subList(desde,
+                Math.min(desde + pageable.getPageSize(), resultado.size()));
+        if (pagina.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, resultado.size());
+        }
+
+        Map<Long, HotelListResponse> porId = listadoPorId(
+                pagina.stream().map(HotelGeoIndex.Cercano::hotelId).toList());
+        List<HotelListResponse> contenido = new ArrayList<>();
+        for (HotelGeoIndex.Cercano cercano : pagina) {
+            HotelListResponse hotel = porId.get(cercano.hotelId());
+            if (hotel != null) {
+                hotel.setDistanciaKm(Math.round(cercano.distanciaKm() * 100) / 100.0);
+                contenido.add(hotel);
+            }
+        }
+        return new PageImpl<>(contenido, pageable, resultado.size());
+    }
+
+    /**
+     * Fechas completas y en orden; el radio solo aplica con latitud y longitud
+     */
+    private void validarBusqueda(HotelSearchRequest request) {
+        if ((request.getFechaCheckin() == null) != (request.getFechaCheckout() == null)) {
+            throw new BusinessException("Debe indicar la fecha de checkin y la de checkout");
+        }
+        if (request.getFechaCheckin() != null && !request.getFechaCheckout().isAfter(request.getFechaCheckin())) {
+            throw new BusinessException("La fecha de checkout debe ser posterior a la de checkin");
+        }
+        if ((request.getLatitud() == null) != (request.getLongitud() == null)) {
+            throw new BusinessException("Debe indicar latitud y longitud");
+        }
+        if (request.getLatitud() != null && request.getRadioKm() == null) {
+            request.setRadioKm(AppConstants.RADIO_BUSQUEDA_KM);
+        }
+        if (request.getRadioKm() != null && request.getRadioKm() <= 0) {
+            throw new BusinessException("El radio de búsqueda debe ser mayor a cero");
+        }
+    }
+
+    /**
+     * Obtener hotel por ID con detalles completos.
+     * Se sirve desde HotelDetalleCache; solo en un fallo se abre transacción y se consulta la BD.
+     */
+    public HotelResponse getHotelById(Long id) {
+        return hotelDetalleCache.obtener(id, hotelId -> lecturaTemplate.execute(status -> {
+            Hotel hotel = hotelRepository.findByIdWithDetails(hotelId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hotel", "id", hotelId));
+            return mapToResponse(hotel);
+        }));
     }
 
     /**
      * Obtener hoteles destacados
      */
     @Transactional(readOnly = true)
-    public List<HotelResponse> getHotelesDestacados() {
-        return hotelRepository.findHotelesDestacados().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public List<HotelListResponse> getHotelesDestacados() {
+        List<HotelListResponse> destacados = hotelRepository.findHotelesDestacados();
+        destacados.forEach(this::asignarMiniatura);
+        return destacados;
+    }
+
+    /**
+     * Las tarjetas de listado muestran la variante pequeña de la imagen principal
+     */
+    private void asignarMiniatura(HotelListResponse hotel) {
+        hotel.setMiniatura(imagenVarianteService.urlMiniatura(hotel.getImagenPrincipal()));
     }
 
     /**
@@ -194,9 +407,7 @@ public class HotelService {
      */
     @Transactional(readOnly = true)
     public List<HotelResponse> getHotelesByPropietario(Long propietarioId) {
-        return hotelRepository.findByPropietarioId(propietarioId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(hotelRepository.findByPropietarioId(propietarioId));
     }
 
     /**
@@ -216,6 +427,8 @@ public class HotelService {
             }
         }
 
+        Map<String, Object> valoresAntiguos = valoresAuditables(hotel);
+
         // Actualizar campos
         hotel.setNombre(request.getNombre());
         hotel.setDescripcion(request.getDescripcion());
@@ -226,7 +439,7 @@ public class HotelService {
         // Actualizar imagen principal si se proporciona
         if (request.getImagen() != null && !request.getImagen().isEmpty()) {
             final Hotel hotelFinal = hotel;
-            final String imagenUrl = request.getImagen();
+            final String imagenUrl = imagenStorageService.guardar(request.getImagen());
             // Buscar imagen principal existente
             hotelImagenRepository.findImagenPrincipalByHotelId(hotel.getId())
                     .ifPresentOrElse(
@@ -248,7 +461,9 @@ public class HotelService {
                     );
         }
 
+        eventPublisher.publishEvent(new HotelModificadoEvent(id, "actualizado"));
         hotel = hotelRepository.save(hotel);
+        auditoriaService.registrar("hotel", id, AuditoriaService.ACCION_UPDATE, valoresAntiguos, valoresAuditables(hotel));
 
         // Actualizar rango de precios
         actualizarRangoPreciosHotel(id);
@@ -264,8 +479,13 @@ public class HotelService {
         Hotel hotel = hotelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel", "id", id));
 
+        String estadoAnterior = hotel.getEstado();
         hotel.setEstado(AppConstants.HOTEL_APROBADO);
+        eventPublisher.publishEvent(new HotelModificadoEvent(id, "aprobado"));
         hotel = hotelRepository.save(hotel);
+        auditoriaService.registrar("hotel", id, AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", estadoAnterior),
+                AuditoriaService.valores("estado", hotel.getEstado()));
 
         return mapToResponse(hotel);
     }
@@ -278,8 +498,13 @@ public class HotelService {
         Hotel hotel = hotelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel", "id", id));
 
+        String estadoAnterior = hotel.getEstado();
         hotel.setEstado(AppConstants.HOTEL_RECHAZADO);
+        eventPublisher.publishEvent(new HotelModificadoEvent(id, "rechazado"));
         hotel = hotelRepository.save(hotel);
+        auditoriaService.registrar("hotel", id, AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", estadoAnterior),
+                AuditoriaService.valores("estado", hotel.getEstado()));
 
         return mapToResponse(hotel);
     }
@@ -290,6 +515,8 @@ public class HotelService {
             throw new ResourceNotFoundException("Hotel", "id", id);
         }
         hotelRepository.softDelete(id, LocalDateTime.now());
+        eventPublisher.publishEvent(new HotelModificadoEvent(id, "eliminado"));
+        auditoriaService.registrar("hotel", id, AuditoriaService.ACCION_DELETE, null, null);
     }
 
     /**
@@ -307,6 +534,7 @@ public class HotelService {
             
             if (min != null && max != null) {
                 hotelRepository.actualizarRangoPrecios(hotelId, min, max);
+                eventPublisher.publishEvent(new HotelModificadoEvent(hotelId, "precios"));
                 log.info("Rango de precios actualizado correctamente para hotel ID: {}", hotelId);
             } else {
                 log.warn("Precio mínimo o máximo es null para hotel ID: {}", hotelId);
@@ -341,8 +569,73 @@ public class HotelService {
      * Mapear entidad a DTO de respuesta
      */
     private HotelResponse mapToResponse(Hotel hotel) {
-        // Obtener imágenes del hotel
-        List<HotelImagen> imagenesEntidad = hotelImagenRepository.findByHotelIdOrderByOrdenAsc(hotel.getId());
+        return mapToResponses(List.of(hotel)).get(0);
+    }
+
+    /**
+     * Mapear una lista de hoteles a DTOs cargando sus relaciones por lotes.
+     * Imágenes, amenidades, reviews, direcciones y propietarios se obtienen con un
+     * número fijo de consultas IN, sin importar el tamaño de la página.
+     */
+    private List<HotelResponse> mapToResponses(List<Hotel> hoteles) {
+        if (hoteles.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> hotelIds = hoteles.stream().map(Hotel::getId).collect(Collectors.toList());
+
+        Map<Long, List<HotelImagen>> imagenesPorHotel = hotelImagenRepository.findByHotelIdIn(hotelIds).stream()
+                .collect(Collectors.groupingBy(hi -> hi.getHotel().getId()));
+        Map<Long, List<HotelAmenity>> amenidadesPorHotel = hotelAmenityRepository.findByHotelIdInWithAmenity(hotelIds).stream()
+                .collect(Collectors.groupingBy(ha -> ha.getHotel().getId()));
+        Map<Long, List<Review>> reviewsPorHotel = reviewRepository.findByHotelIdInWithUsuario(hotelIds).stream()
+                .collect(Collectors.groupingBy(r -> r.getHotel().getId()));
+        Map<Long, Direccion> direcciones = cargarRelacion(hoteles, Hotel::getDireccion, Direccion::getId,
+                direccionRepository::findAllById);
+        Map<Long, Usuario> propietarios = cargarRelacion(hoteles, Hotel::getPropietario, Usuario::getId,
+                usuarioRepository::findAllById);
+
+        return hoteles.stream()
+                .map(hotel -> mapToResponse(hotel,
+                        imagenesPorHotel.getOrDefault(hotel.getId(), List.of()),
+                        amenidadesPorHotel.getOrDefault(hotel.getId(), List.of()),
+                        reviewsPorHotel.getOrDefault(hotel.getId(), List.of()),
+                        hotel.getDireccion() != null ? direcciones.get(hotel.getDireccion().getId()) : null,
+                        hotel.getPropietario() != null ? propietarios.get(hotel.getPropietario().getId()) : null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolver una relación ManyToOne de varios hoteles en una sola consulta.
+     * Las relaciones ya inicializadas (p. ej. por JOIN FETCH) no se vuelven a consultar.
+     */
+    private <T> Map<Long, T> cargarRelacion(List<Hotel> hoteles, Function<Hotel, T> relacion,
+                                            Function<T, Long> idDe, Function<Set<Long>, List<T>> cargador) {
+        Map<Long, T> resultado = new HashMap<>();
+        Set<Long> pendientes = new HashSet<>();
+        for (Hotel hotel : hoteles) {
+            T valor = relacion.apply(hotel);
+            if (valor == null) {
+                continue;
+            }
+            if (Hibernate.isInitialized(valor)) {
+                resultado.put(idDe.apply(valor), valor);
+            } else {
+                pendientes.add(idDe.apply(valor));
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            cargador.apply(pendientes).forEach(valor -> resultado.put(idDe.apply(valor), valor));
+        }
+        return resultado;
+    }
+
+    /**
+     * Armar el DTO de un hotel a partir de relaciones ya cargadas en memoria
+     */
+    private HotelResponse mapToResponse(Hotel hotel, List<HotelImagen> imagenesEntidad,
+                                        List<HotelAmenity> hotelAmenities, List<Review> reviews,
+                                        Direccion direccion, Usuario propietario) {
         String imagenPrincipal = imagenesEntidad.stream()
                 .filter(HotelImagen::getEsPrincipal)
                 .findFirst()
@@ -367,37 +660,39 @@ public class HotelService {
                 .puntuacionPromedio(hotel.getPuntuacionPromedio())
                 .totalReviews(hotel.getTotalReviews())
                 .imagenPrincipal(imagenPrincipal)
+                .miniatura(imagenVarianteService.urlMiniatura(imagenPrincipal))
+                .variantes(imagenVarianteService.urlsVariantes(imagenPrincipal))
                 .imagenes(imagenes)
                 .creadoEn(hotel.getCreadoEn())
                 .actualizadoEn(hotel.getActualizadoEn());
 
         // Dirección
-        if (hotel.getDireccion() != null) {
+        if (direccion != null) {
             builder.direccion(HotelResponse.DireccionDTO.builder()
-                    .id(hotel.getDireccion().getId())
-                    .calle(hotel.getDireccion().getCalle())
-                    .ciudad(hotel.getDireccion().getCiudad())
-                    .estadoProvincia(hotel.getDireccion().getEstadoProvincia())
-                    .pais(hotel.getDireccion().getPais())
-                    .codigoPostal(hotel.getDireccion().getCodigoPostal())
-                    .latitud(hotel.getDireccion().getLatitud())
-                    .longitud(hotel.getDireccion().getLongitud())
-                    .direccionCompleta(hotel.getDireccion().getDireccionCompleta())
+                    .id(direccion.getId())
+                    .calle(direccion.getCalle())
+                    .ciudad(direccion.getCiudad())
+                    .estadoProvincia(direccion.getEstadoProvincia())
+                    .pais(direccion.getPais())
+                    .codigoPostal(direccion.getCodigoPostal())
+                    .latitud(direccion.getLatitud())
+                    .longitud(direccion.getLongitud())
+                    .direccionCompleta(direccion.getDireccionCompleta())
                     .build());
         }
 
         // Propietario
-        if (hotel.getPropietario() != null) {
+        if (propietario != null) {
             builder.propietario(HotelResponse.PropietarioDTO.builder()
-                    .id(hotel.getPropietario().getId())
-                    .nombre(hotel.getPropietario().getNombre())
-                    .email(hotel.getPropietario().getEmail())
+                    .id(propietario.getId())
+                    .nombre(propietario.getNombre())
+                    .email(propietario.getEmail())
                     .build());
         }
 
         // Amenidades
-        if (hotel.getHotelAmenities() != null && !hotel.getHotelAmenities().isEmpty()) {
-            List<HotelResponse.AmenidadDTO> amenidadesDTO = hotel.getHotelAmenities().stream()
+        if (!hotelAmenities.isEmpty()) {
+            List<HotelResponse.AmenidadDTO> amenidadesDTO = hotelAmenities.stream()
                     .map(ha -> HotelResponse.AmenidadDTO.builder()
                             .id(ha.getAmenity().getId())
                             .nombre(ha.getAmenity().getNombre())
@@ -410,10 +705,9 @@ public class HotelService {
             builder.amenidades(amenidadesDTO);
         }
 
-        // Reviews (solo las no eliminadas)
-        if (hotel.getReviews() != null && !hotel.getReviews().isEmpty()) {
-            List<HotelResponse.ReviewDTO> reviewsDTO = hotel.getReviews().stream()
-                    .filter(r -> r.getEliminadoEn() == null)
+        // Reviews (la consulta ya excluye las eliminadas)
+        if (!reviews.isEmpty()) {
+            List<HotelResponse.ReviewDTO> reviewsDTO = reviews.stream()
                     .map(r -> HotelResponse.ReviewDTO.builder()
                             .id(r.getId())
                             .usuario(HotelResponse.UsuarioSimpleDTO.builder()
@@ -484,7 +778,7 @@ public class HotelService {
             if (!imagenBase64.trim().isEmpty()) {
                 HotelImagen imagen = HotelImagen.builder()
                         .hotel(hotel)
-                        .url(imagenBase64)
+                        .url(imagenStorageService.guardar(imagenBase64))
                         .altText(hotel.getNombre())
                         .tipo("portada")
                         .orden(0)
@@ -503,7 +797,7 @@ public class HotelService {
     @Transactional(readOnly = true)
     public List<HotelResponse> obtenerHotelesPorPropietario(Long propietarioId) {
         List<Hotel> hoteles = hotelRepository.findByPropietarioIdAndEliminadoEnIsNull(propietarioId);
-        return hoteles.stream().map(this::mapToResponse).collect(Collectors.toList());
+        return mapToResponses(hoteles);
     }
 
     /**
@@ -518,6 +812,8 @@ public class HotelService {
             throw new BusinessException("No tienes permiso para editar este hotel");
         }
 
+        Map<String, Object> valoresAntiguos = valoresAuditables(hotel);
+
         hotel.setNombre((String) hotelData.get("nombre"));
         hotel.setDescripcion((String) hotelData.get("descripcion"));
         hotel.setTelefono((String) hotelData.get("telefono"));
@@ -536,7 +832,7 @@ public class HotelService {
             String imagenBase64 = (String) hotelData.get("imagen");
             if (!imagenBase64.trim().isEmpty()) {
                 final Hotel hotelFinal = hotel;
-                final String imagenUrl = imagenBase64;
+                final String imagenUrl = imagenStorageService.guardar(imagenBase64);
                 hotelImagenRepository.findImagenPrincipalByHotelId(hotel.getId())
                         .ifPresentOrElse(
                                 imagenExistente -> {
@@ -568,7 +864,9 @@ public class HotelService {
             direccion.setCodigoPostal((String) direccionData.get("codigoPostal"));
         }
 
+        eventPublisher.publishEvent(new HotelModificadoEvent(hotelId, "actualizado"));
         hotel = hotelRepository.save(hotel);
+        auditoriaService.registrar("hotel", hotelId, AuditoriaService.ACCION_UPDATE, valoresAntiguos, valoresAuditables(hotel));
         return mapToResponse(hotel);
     }
 
@@ -586,6 +884,21 @@ public class HotelService {
 
         hotel.setEliminadoEn(LocalDateTime.now());
         hotelRepository.save(hotel);
+        eventPublisher.publishEvent(new HotelModificadoEvent(hotelId, "eliminado"));
+        auditoriaService.registrar("hotel", hotelId, AuditoriaService.ACCION_DELETE, null, null);
+    }
+
+    /**
+     * Campos editables del hotel que se guardan en auditoría
+     */
+    private Map<String, Object> valoresAuditables(Hotel hotel) {
+        return AuditoriaService.valores(
+                "nombre", hotel.getNombre(),
+                "descripcion", hotel.getDescripcion(),
+                "telefono", hotel.getTelefono(),
+                "emailContacto", hotel.getEmailContacto(),
+                "estrellas", hotel.getEstrellas(),
+                "estado", hotel.getEstado());
     }
 
     /**
@@ -594,6 +907,6 @@ public class HotelService {
     @Transactional(readOnly = true)
     public List<HotelResponse> obtenerHotelesPendientes() {
         List<Hotel> hoteles = hotelRepository.findByEstadoAndEliminadoEnIsNull("pendiente");
-        return hoteles.stream().map(this::mapToResponse).collect(Collectors.toList());
+        return mapToResponses(hoteles);
     }
 }
@@ -0,0 +1,193 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.entity.HabitacionImagen;
+import com.example.PROYECTO.FINAL_WEB.entity.HotelImagen;
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.repository.HabitacionImagenRepository;
+import com.example.PROYECTO.FINAL_WEB.repository.HotelImagenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Migración por lotes de imágenes guardadas como base64 en la base de datos
+ * hacia el almacén de archivos ({@link ImagenStorageService}).
+ * El base64 original queda en base64_respaldo hasta que el archivo sobrevive a un reinicio
+ * ({@link #confirmarArchivosMigrados()}): si el disco no era persistente, la imagen se restaura.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImagenMigracionService {
+
+    private final HotelImagenRepository hotelImagenRepository;
+    private final HabitacionImagenRepository habitacionImagenRepository;
+    private final ImagenStorageService imagenStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean(false);
+
+    @Value("${app.imagenes.migracion.lote:50}")
+    private int tamanioLote;
+
+    @Value("${app.imagenes.almacen-persistente:false}")
+    private boolean almacenPersistente;
+
+    /**
+     * Migrar todas las imágenes base64 pendientes. Cada lote se confirma en su propia transacción.
+     * Solo se ejecuta si app.upload-dir está en un almacenamiento persistente.
+     * @return cantidad de imágenes migradas por tipo
+     */
+    public Map<String, Integer> migrarImagenesBase64() {
+        if (!almacenPersistente || imagenStorageService.enDirectorioTemporal()) {
+            throw new BusinessException("La migración de imágenes requiere un directorio de subida persistente "
+                    + "(UPLOAD_DIR en un disco persistente y app.imagenes.almacen-persistente=true)");
+        }
+        return enExclusiva(() -> {
+            Map<String, Integer> resultado = new LinkedHashMap<>();
+            resultado.put("hotel", migrarEnLotes("hotel",
+                    hotelImagenRepository::findPendientesDeMigrar,
+                    HotelImagen::getId, HotelImagen::getUrl, (imagen, base64) -> {
+                        String url = imagenStorageService.guardar(base64);
+                        imagen.setBase64Respaldo(base64);
+                        imagen.setUrl(url);
+                    }));
+            resultado.put("habitacion", migrarEnLotes("habitacion",
+                    habitacionImagenRepository::findPendientesDeMigrar,
+                    HabitacionImagen::getId, HabitacionImagen::getUrl, (imagen, base64) -> {
+                        String url = imagenStorageService.guardar(base64);
+                        imagen.setBase64Respaldo(base64);
+                        imagen.setUrl(url);
+                    }));
+            return resultado;
+        }, "Migración de imágenes");
+    }
+
+    /**
+     * Revisar las imágenes migradas que conservan respaldo: el respaldo se descarta cuando el archivo
+     * existe desde antes del arranque de este proceso (sobrevivió a un reinicio); si el archivo falta,
+     * se vuelve a escribir desde el respaldo.
+     * @return cantidad de imágenes confirmadas, restauradas y aún pendientes de confirmar
+     */
+    public Map<String, Integer> confirmarArchivosMigrados() {
+        return enExclusiva(() -> {
+            long inicioProceso = ManagementFactory.getRuntimeMXBean().getStartTime();
+            Map<String, Integer> resultado = new LinkedHashMap<>();
+            resultado.put("confirmadas", 0);
+            resultado.put("restauradas", 0);
+            resultado.put("pendientes", 0);
+            BiConsumer<String, Integer> sumar = (clave, cantidad) -> resultado.merge(clave, cantidad, Integer::sum);
+            migrarEnLotes("hotel", hotelImagenRepository::findConRespaldo,
+                    HotelImagen::getId, HotelImagen::getBase64Respaldo, (imagen, base64) -> sumar.accept(
+                            confirmar(imagen.getUrl(), base64, inicioProceso, () -> imagen.setBase64Respaldo(null)), 1));
+            migrarEnLotes("habitacion", habitacionImagenRepository::findConRespaldo,
+                    HabitacionImagen::getId, HabitacionImagen::getBase64Respaldo, (imagen, base64) -> sumar.accept(
+                            confirmar(imagen.getUrl(), base64, inicioProceso, () -> imagen.setBase64Respaldo(null)), 1));
+            return resultado;
+        }, "Confirmación de imágenes migradas");
+    }
+
+    /**
+     * Estado del archivo de una imagen migrada: "confirmadas", "restauradas" o "pendientes"
+     */
+    private String confirmar(String url, String base64, long inicioProceso, Runnable descartarRespaldo) {
+        String nombre = imagenStorageService.nombreDesdeUrl(url);
+        if (nombre == null) {
+            // La imagen se reemplazó después de migrarla: el respaldo ya no corresponde
+            descartarRespaldo.run();
+            return "confirmadas";
+        }
+        Path archivo = imagenStorageService.resolver(nombre);
+        if (!Files.isRegularFile(archivo)) {
+            if (!url.equals(imagenStorageService.guardar(base64))) {
+                descartarRespaldo.run();
+                return "confirmadas";
+            }
+            log.warn("Imagen {} restaurada desde su respaldo base64", nombre);
+            return "restauradas";
+        }
+        try {
+            if (Files.getLastModifiedTime(archivo).toMillis() < inicioProceso) {
+                descartarRespaldo.run();
+                return "confirmadas";
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return "pendientes";
+    }
+
+    private Map<String, Integer> enExclusiva(Supplier<Map<String, Integer>> proceso, String nombre) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            throw new BusinessException("La migración de imágenes ya está en ejecución");
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            Map<String, Integer> resultado = proceso.get();
+            log.info("{} completada en {} ms: {}", nombre, System.currentTimeMillis() - inicio, resultado);
+            return resultado;
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    /**
+     * Procesar por lotes las imágenes que devuelve buscarLote. Un error en una imagen (archivo, formato)
+     * se registra y se sigue con la siguiente; si falla la confirmación de un lote se pasa al siguiente.
+     */
+    private <T> int migrarEnLotes(String tipo,
+                                  BiFunction<Long, Pageable, List<T>> buscarLote,
+                                  Function<T, Long> idDe,
+                                  Function<T, String> valorDe,
+                                  BiConsumer<T, String> procesar) {
+        long[] ultimoId = {0L};
+        int[] procesadas = {0};
+        boolean hayMas = true;
+
+        while (hayMas) {
+            int[] leidas = {0};
+            long desdeId = ultimoId[0];
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<T> lote = buscarLote.apply(desdeId, PageRequest.of(0, tamanioLote));
+                    leidas[0] = lote.size();
+                    for (T imagen : lote) {
+                        ultimoId[0] = idDe.apply(imagen);
+                        try {
+                            procesar.accept(imagen, valorDe.apply(imagen));
+                            procesadas[0]++;
+                        } catch (RuntimeException e) {
+                            log.warn("Imagen de {} con id {} no procesada: {}", tipo, ultimoId[0], e.getMessage());
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.error("Lote de imágenes de {} con id {} a {} no guardado: {}", tipo, desdeId + 1, ultimoId[0], e.getMessage());
+            }
+            hayMas = leidas[0] == tamanioLote;
+        }
+
+        if (procesadas[0] > 0) {
+            log.info("Imágenes de {} procesadas: {}", tipo, procesadas[0]);
+        }
+        return procesadas[0];
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén de imágenes direccionado por contenido.
+ * Los payloads base64 se decodifican una sola vez y se guardan como archivos
+ * {upload-dir}/imagenes/{ab}/{sha256}.{ext}; la entidad solo conserva la URL pública.
+ */
+@Slf4j
+@Service
+public class ImagenStorageService {
+
+    public static final String URL_BASE = "/api/imagenes/";
+
+    private static final Pattern NOMBRE_VALIDO = Pattern.compile("^[0-9a-f]{64}(_\\d{2,4})?\\.(jpg|png|gif|webp)$");
+
+    private static final List<String> EXTENSIONES = List.of("jpg", "png", "gif", "webp");
+
+    private final Path directorio;
+
+    public ImagenStorageService(@Value("${app.upload-dir:./uploads}") String uploadDir) {
+        this.directorio = Paths.get(uploadDir, "imagenes").toAbsolutePath().normalize();
+    }
+
+    /**
+     * Guardar la imagen si viene en base64 y devolver su URL pública.
+     * Las URLs existentes (http, /api/imagenes/...) se devuelven sin cambios.
+     */
+    public String guardar(String imagen) {
+        if (imagen == null || imagen.isBlank() || !esBase64(imagen)) {
+            return imagen;
+        }
+
+        String contenido = imagen.trim();
+        String tipoDeclarado = null;
+        if (contenido.startsWith("data:")) {
+            int coma = contenido.indexOf(',');
+            if (coma < 0) {
+                throw new BusinessException("Imagen en formato data URI inválido");
+            }
+            String cabecera = contenido.substring(5, coma);
+            int puntoComa = cabecera.indexOf(';');
+            tipoDeclarado = puntoComa >= 0 ? cabecera.substring(0, puntoComa) : cabecera;
+            contenido = contenido.substring(coma + 1);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(contenido);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("La imagen no es un base64 válido");
+        }
+        if (bytes.length == 0) {
+            throw new BusinessException("La imagen está vacía");
+        }
+
+        String extension = detectarExtension(bytes, tipoDeclarado);
+        String nombre = sha256(bytes) + "." + extension;
+        Path destino = resolver(nombre);
+
+        if (!Files.exists(destino)) {
+            escribir(destino, bytes);
+            log.debug("Imagen almacenada: {} ({} bytes)", nombre, bytes.length);
+        }
+        return URL_BASE + nombre;
+    }
+
+    /**
+     * Indica si las imágenes se guardan bajo el directorio temporal del sistema,
+     * que no sobrevive a un reinicio del contenedor
+     */
+    public boolean enDirectorioTemporal() {
+        return directorio.startsWith(Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath().normalize());
+    }
+
+    /**
+     * Indica si el valor guardado en la columna url es un payload base64 (no una URL)
+     */
+    public boolean esBase64(String url) {
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        String valor = url.trim();
+        return !(valor.startsWith("/") || valor.startsWith("http://") || valor.startsWith("https://"));
+    }
+
+    /**
+     * Resolver el archivo físico de una imagen a partir de su nombre público
+     */
+    public Path resolver(String nombre) {
+        if (nombre == null || !NOMBRE_VALIDO.matcher(nombre).matches()) {
+            throw new ResourceNotFoundException("Imagen", "nombre", nombre);
+        }
+        return directorio.resolve(nombre.substring(0, 2)).resolve(nombre);
+    }
+
+    /**
+     * Nombre de archivo (sin la ruta base) de una URL servida por este almacén, o null si es externa
+     */
+    public String nombreDesdeUrl(String url) {
+        if (url == null || !url.startsWith(URL_BASE)) {
+            return null;
+        }
+        String nombre = url.substring(URL_BASE.length());
+        return NOMBRE_VALIDO.matcher(nombre).matches() ? nombre : null;
+    }
+
+    /**
+     * Nombre del archivo de una variante redimensionada: {sha256}_{ancho}.jpg
+     */
+    public String nombreVariante(String nombreOriginal, int ancho) {
+        return hashDe(nombreOriginal) + "_" + ancho + ".jpg";
+    }
+
+    /**
+     * Buscar el archivo original del que proviene una variante
+     */
+    public Optional<String> nombreOriginal(String nombreVariante) {
+        String hash = hashDe(nombreVariante);
+        return EXTENSIONES.stream()
+                .map(extension -> hash + "." + extension)
+                .filter(nombre -> Files.isRegularFile(resolver(nombre)))
+                .findFirst();
+    }
+
+    /**
+     * Indica si el nombre corresponde a una variante ({sha256}_{ancho}.jpg)
+     */
+    public boolean esVariante(String nombre) {
+        return nombre.indexOf('_') == 64;
+    }
+
+    /**
+     * Guardar bytes generados (p. ej. una variante) bajo un nombre ya calculado
+     */
+    public void guardarArchivo(String nombre, byte[] bytes) {
+        escribir(resolver(nombre), bytes);
+    }
+
+    private String hashDe(String nombre) {
+        return nombre.substring(0, 64);
+    }
+
+    /**
+     * Escritura atómica: archivo temporal en el mismo directorio y luego move
+     */
+    private void escribir(Path destino, byte[] bytes) {
+        try {
+            Files.createDirectories(destino.getParent());
+            Path temporal = Files.createTempFile(destino.getParent(), "img", ".tmp");
+            try {
+                Files.write(temporal, bytes);
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar la imagen " + destino.getFileName(), e);
+        }
+    }
+
+    private String detectarExtension(byte[] bytes, String tipoDeclarado) {
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (bytes.length >= 4 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+            return "png";
+        }
+        if (bytes.length >= 3 && bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F') {
+            return "gif";
+        }
+        if (bytes.length >= 12 && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return "webp";
+        }
+        if (tipoDeclarado != null) {
+            switch (tipoDeclarado.toLowerCase()) {
+                case "image/jpeg", "image/jpg" -> { return "jpg"; }
+                case "image/png" -> { return "png"; }
+                case "image/gif" -> { return "gif"; }
+                case "image/webp" -> { return "webp"; }
+                default -> { }
+            }
+        }
+        throw new BusinessException("Formato de imagen no soportado (use JPG, PNG, GIF o WEBP)");
+    }
+
+    private String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
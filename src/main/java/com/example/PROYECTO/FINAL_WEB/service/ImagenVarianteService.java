@@ -0,0 +1,199 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generación en segundo plano de variantes redimensionadas (JPEG) de las imágenes almacenadas.
+ * Usa un pool acotado: si la cola se llena la tarea se descarta y la variante se
+ * regenera la próxima vez que se solicite.
+ */
+@Slf4j
+@Service
+public class ImagenVarianteService {
+
+    private final ImagenStorageService imagenStorageService;
+    private final List<Integer> anchos;
+    private final float calidad;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> enProceso = ConcurrentHashMap.newKeySet();
+
+    public ImagenVarianteService(ImagenStorageService imagenStorageService,
+                                 @Value("${app.imagenes.variantes.anchos:320,640,1280}") List<Integer> anchos,
+                                 @Value("${app.imagenes.variantes.calidad:0.8}") float calidad,
+                                 @Value("${app.imagenes.variantes.hilos:2}") int hilos,
+                                 @Value("${app.imagenes.variantes.cola:200}") int capacidadCola) {
+        this.imagenStorageService = imagenStorageService;
+        this.anchos = anchos.stream().sorted().toList();
+        this.calidad = calidad;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "imagen-variantes-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * URLs de las variantes de una imagen (ancho -> URL). Vacío para imágenes externas.
+     */
+    public Map<Integer, String> urlsVariantes(String url) {
+        String nombre = imagenStorageService.nombreDesdeUrl(url);
+        if (nombre == null || imagenStorageService.esVariante(nombre)) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, String> variantes = new LinkedHashMap<>();
+        for (Integer ancho : anchos) {
+            variantes.put(ancho, ImagenStorageService.URL_BASE + imagenStorageService.nombreVariante(nombre, ancho));
+        }
+        return variantes;
+    }
+
+    /**
+     * URL de la variante más pequeña (miniatura para tarjetas de listado)
+     */
+    public String urlMiniatura(String url) {
+        return urlsVariantes(url).values().stream().findFirst().orElse(url);
+    }
+
+    /**
+     * Encolar la generación de variantes de una imagen del almacén
+     */
+    public void generarVariantesAsync(String url) {
+        String nombre = imagenStorageService.nombreDesdeUrl(url);
+        if (nombre == null || imagenStorageService.esVariante(nombre) || !enProceso.add(nombre)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generarVariantes(nombre);
+                } finally {
+                    enProceso.remove(nombre);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enProceso.remove(nombre);
+            log.warn("Cola de variantes llena, se omite {}", nombre);
+        }
+    }
+
+    /**
+     * Generar (si faltan) todas las variantes de una imagen original
+     */
+    void generarVariantes(String nombre) {
+        Path original = imagenStorageService.resolver(nombre);
+        if (!Files.isRegularFile(original)) {
+            return;
+        }
+        try {
+            BufferedImage imagen = null;
+            for (Integer ancho : anchos) {
+                String nombreVariante = imagenStorageService.nombreVariante(nombre, ancho);
+                if (Files.isRegularFile(imagenStorageService.resolver(nombreVariante))) {
+                    continue;
+                }
+                if (imagen == null) {
+                    imagen = ImageIO.read(original.toFile());
+                    if (imagen == null) {
+                        log.warn("Formato no soportado por ImageIO, sin variantes para {}", nombre);
+                        return;
+                    }
+                }
+                imagenStorageService.guardarArchivo(nombreVariante, codificarJpeg(redimensionar(imagen, ancho)));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error generando variantes de {}: {}", nombre, e.getMessage());
+        }
+    }
+
+    /**
+     * Redimensionar sin ampliar, reduciendo a la mitad en pasos para conservar calidad
+     */
+    private BufferedImage redimensionar(BufferedImage origen, int anchoMaximo) {
+        int anchoFinal = Math.min(anchoMaximo, origen.getWidth());
+        int altoFinal = Math.max(1, Math.round(origen.getHeight() * (anchoFinal / (float) origen.getWidth())));
+
+        BufferedImage actual = aRgb(origen);
+        int ancho = actual.getWidth();
+        int alto = actual.getHeight();
+        while (ancho > anchoFinal) {
+            ancho = Math.max(anchoFinal, ancho / 2);
+            alto = ancho == anchoFinal ? altoFinal : Math.max(altoFinal, alto / 2);
+            BufferedImage reducida = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = reducida.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(actual, 0, 0, ancho, alto, null);
+            g.dispose();
+            actual = reducida;
+        }
+        return actual;
+    }
+
+    /**
+     * JPEG no admite transparencia: componer sobre fondo blanco
+     */
+    private BufferedImage aRgb(BufferedImage origen) {
+        if (origen.getType() == BufferedImage.TYPE_INT_RGB) {
+            return origen;
+        }
+        BufferedImage rgb = new BufferedImage(origen.getWidth(), origen.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(origen, 0, 0, Color.WHITE, null);
+        g.dispose();
+        return rgb;
+    }
+
+    private byte[] codificarJpeg(BufferedImage imagen) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(salida)) {
+            writer.setOutput(ios);
+            ImageWriteParam parametros = writer.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(calidad);
+            parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            writer.dispose();
+        }
+        return salida.toByteArray();
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+}
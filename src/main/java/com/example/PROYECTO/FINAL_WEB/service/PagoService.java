@@ -1,90 +1,287 @@
 package com.example.PROYECTO.FINAL_WEB.service;
 
+import com.example.PROYECTO.FINAL_WEB.cache.PagoIdempotenciaCache;
 import com.example.PROYECTO.FINAL_WEB.dto.request.PagoRequest;
 import com.example.PROYECTO.FINAL_WEB.dto.response.PagoResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.*;
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
 import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
+import com.example.PROYECTO.FINAL_WEB.outbox.OutboxService;
+import com.example.PROYECTO.FINAL_WEB.pasarela.PasarelaPagoClient;
+import com.example.PROYECTO.FINAL_WEB.pasarela.PasarelaPagoException;
+import com.example.PROYECTO.FINAL_WEB.pasarela.ResultadoCargo;
+import com.example.PROYECTO.FINAL_WEB.pasarela.SolicitudCargo;
 import com.example.PROYECTO.FINAL_WEB.repository.*;
+import com.example.PROYECTO.FINAL_WEB.util.AppConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 
 /**
- * Servicio para procesar pagos con Culqi
+ * Servicio para procesar pagos a través de la pasarela configurada (Culqi por defecto)
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PagoService {
 
+    private static final int LARGO_MAXIMO_CLAVE = 100;
+    private static final String MENSAJE_POR_VERIFICAR =
+        "No se pudo confirmar el cargo con la pasarela: el pago queda en verificación, no lo reintente";
+
     private final PagoRepository pagoRepository;
     private final ReservaRepository reservaRepository;
-    private final RestTemplate restTemplate;
+    private final UsuarioRepository usuarioRepository;
+    private final DisponibilidadService disponibilidadService;
+    private final ReservaHoldService reservaHoldService;
+    private final AuditoriaService auditoriaService;
+    private final OutboxService outboxService;
+    private final PasarelaPagoClient pasarelaPago;
+    private final TransactionTemplate transactionTemplate;
+    private final PagoIdempotenciaCache idempotencia;
+
+    public PagoResponse procesarPago(PagoRequest request) {
+        return procesarPago(request, null, null);
+    }
+
+    /**
+     * Procesa un pago de forma idempotente cuando el cliente envía una clave (Idempotency-Key):
+     * reintentos del mismo usuario con la misma clave esperan al intento en curso o reciben el pago
+     * ya registrado, sin volver a llamar a la pasarela. Las claves de usuarios distintos no chocan.
+     */
+    public PagoResponse procesarPago(PagoRequest request, Long usuarioId, String claveIdempotencia) {
+        if (claveIdempotencia == null || claveIdempotencia.isBlank()) {
+            return cobrar(request, usuarioId, null);
+        }
+        String clave = claveIdempotencia.trim();
+        if (clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new BusinessException("La clave de idempotencia no puede superar " + LARGO_MAXIMO_CLAVE + " caracteres");
+        }
 
-    @Value("${culqi.secret.key:sk_test_dummy}")
-    private String culqiSecretKey;
+        PagoResponse respuesta = idempotencia.ejecutar(usuarioId + ":" + clave, () ->
+            transactionTemplate.execute(status -> buscarPorClave(usuarioId, clave, request))
+                .orElseGet(() -> cobrar(request, usuarioId, clave)));
 
-    @Value("${culqi.api.url:https://api.culqi.com/v2}")
-    private String culqiApiUrl;
+        if (!Objects.equals(respuesta.getReservaId(), request.getReservaId())) {
+            throw new ConflictException("La clave de idempotencia ya se usó para otra reserva");
+        }
+        return respuesta;
+    }
 
     /**
-     * Procesa un pago con Culqi
+     * Pago ya registrado por el usuario con la clave (por esta u otra instancia de la API)
      */
-    @Transactional
-    public PagoResponse procesarPago(PagoRequest request) {
+    private Optional<PagoResponse> buscarPorClave(Long usuarioId, String clave, PagoRequest request) {
+        return pagoRepository.findByClaveIdempotencia(usuarioId, clave).map(pago -> {
+            if ("procesando".equalsIgnoreCase(pago.getEstado())) {
+                throw new ConflictException("El pago con esta clave sigue en curso, consulte nuevamente en unos segundos");
+            }
+            log.info("↩️ Pago {} ya registrado con la clave {}", pago.getId(), clave);
+            return construirRespuesta(pago, pago.getReserva(), request, mensajeSegunEstado(pago));
+        });
+    }
+
+    private static String mensajeSegunEstado(Pago pago) {
+        return switch (pago.getEstado()) {
+            case "completado" -> "Pago procesado exitosamente";
+            case "reembolsado" -> "El pago fue reembolsado";
+            case "por_reembolsar" -> "El cargo fue aprobado pero la reserva ya no estaba pendiente: el pago será reembolsado";
+            case "por_verificar" -> MENSAJE_POR_VERIFICAR;
+            default -> "Error al procesar pago";
+        };
+    }
+
+    /**
+     * Procesa un pago en tres pasos para no retener una conexión de BD durante la llamada a la pasarela:
+     * registrar el intento (transacción corta), crear el cargo sin transacción y confirmar (transacción corta)
+     */
+    private PagoResponse cobrar(PagoRequest request, Long usuarioId, String claveIdempotencia) {
         log.info("🔄 Procesando pago para reserva: {}", request.getReservaId());
 
-        // 1. Validar reserva
-        Reserva reserva = reservaRepository.findById(request.getReservaId())
+        // 1. Validar reserva y registrar el pago como "procesando"
+        SolicitudCargo solicitud;
+        try {
+            solicitud = transactionTemplate.execute(status -> registrarIntento(request, usuarioId, claveIdempotencia));
+        } catch (DataIntegrityViolationException e) {
+            if (claveIdempotencia == null) {
+                throw e;
+            }
+            throw new ConflictException("Ya existe un pago registrado con esta clave de idempotencia");
+        }
+
+        // 2. Crear cargo en la pasarela (sin conexión de BD tomada)
+        ResultadoCargo resultado;
+        try {
+            resultado = pasarelaPago.crearCargo(solicitud);
+        } catch (PasarelaPagoException e) {
+            log.error("❌ Error al procesar pago con {}: {}", pasarelaPago.nombre(), e.getMessage());
+            if (!e.isCargoEnviado()) {
+                // No se llamó a la pasarela: el intento se descarta y la clave queda libre para reintentar
+                transactionTemplate.executeWithoutResult(status -> descartarIntento(solicitud.pagoId()));
+                throw e;
+            }
+            resultado = ResultadoCargo.incierto(e.getMessage());
+        }
+
+        // 3. Confirmar la reserva, marcar el pago como fallido o dejarlo por verificar
+        ResultadoCargo resultadoCargo = resultado;
+        try {
+            return transactionTemplate.execute(status -> completarIntento(solicitud.pagoId(), resultadoCargo, request));
+        } catch (RuntimeException e) {
+            // El cargo ya se envió: sin registrar su resultado no se puede fallar ni reintentar el pago
+            log.error("❌ Error registrando el resultado del cargo {} del pago {}: {}",
+                resultadoCargo.transaccionId(), solicitud.pagoId(), e.getMessage());
+            return transactionTemplate.execute(status ->
+                dejarPorVerificar(solicitud.pagoId(), resultadoCargo.transaccionId(), request));
+        }
+    }
+
+    /**
+     * Validar la reserva (bloqueada) y guardar el pago en estado procesando.
+     * Mientras exista ese pago el hold de la reserva no expira.
+     */
+    private SolicitudCargo registrarIntento(PagoRequest request, Long usuarioId, String claveIdempotencia) {
+        Reserva reserva = reservaRepository.findByIdForUpdate(request.getReservaId())
             .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada"));
 
+        // Otro intento con la misma clave pudo registrarse mientras se esperaba el bloqueo
+        if (claveIdempotencia != null && pagoRepository.findByClaveIdempotencia(usuarioId, claveIdempotencia).isPresent()) {
+            throw new ConflictException("El pago con esta clave sigue en curso, consulte nuevamente en unos segundos");
+        }
+
         if (!"pendiente".equalsIgnoreCase(reserva.getEstado())) {
             throw new IllegalStateException("La reserva ya fue procesada");
         }
+        if (reservaHoldService.estaVencido(reserva.getExpiraEn())) {
+            throw new IllegalStateException("El tiempo para completar la reserva expiró");
+        }
+        if (pagoRepository.reservaTienePagoEnCurso(reserva.getId())) {
+            throw new IllegalStateException("Ya hay un pago en curso para esta reserva");
+        }
 
-        // 2. Validar monto
+        // Validar monto
         if (request.getMonto().compareTo(reserva.getTotal()) != 0) {
             throw new IllegalArgumentException("El monto no coincide con el total de la reserva");
         }
 
-        // 3. Crear cargo en Culqi
-        Map<String, Object> culqiResponse;
-        try {
-            culqiResponse = crearCargoEnCulqi(request, reserva);
-        } catch (Exception e) {
-            log.error("❌ Error al procesar pago con Culqi: {}", e.getMessage());
-            return crearPagoFallido(reserva, request, e.getMessage());
-        }
-
-        // 4. Guardar pago en BD
         Pago pago = Pago.builder()
             .reserva(reserva)
             .monto(request.getMonto())
             .moneda(request.getMoneda())
             .metodo(request.getMetodo())
-            .estado("completado")
-            .transaccionId((String) culqiResponse.get("id"))
-            .proveedorPago("Culqi")
-            .fechaPago(LocalDateTime.now())
+            .estado("procesando")
+            .proveedorPago(pasarelaPago.nombre())
+            .usuario(usuarioId != null ? usuarioRepository.getReferenceById(usuarioId) : null)
+            .claveIdempotencia(claveIdempotencia)
             .build();
+        pago = pagoRepository.save(pago);
+        auditarPago(pago, null);
+
+        return new SolicitudCargo(pago.getId(), reserva.getId(), reserva.getCodigoReserva(),
+            reserva.getHabitacion().getHotel().getId(), request.getMonto(), request.getMoneda(),
+            request.getEmail(), request.getCulqiToken(), request.getDescripcion());
+    }
+
+    /**
+     * Marcar como fallido un intento que no llegó a la pasarela y liberar su clave de idempotencia
+     */
+    private void descartarIntento(Long pagoId) {
+        Pago pago = pagoRepository.findById(pagoId)
+            .orElseThrow(() -> new ResourceNotFoundException("Pago no encontrado"));
+        pago.setEstado("fallido");
+        pago.setClaveIdempotencia(null);
+        pagoRepository.save(pago);
+        auditarPago(pago, "procesando");
+    }
+
+    /**
+     * Aplicar el resultado del cargo al pago y a la reserva (bloqueada, como al registrar el intento).
+     * Si la reserva dejó de estar pendiente mientras se cobraba, el pago queda "por_reembolsar"
+     * y la reserva no se toca. Si no se sabe si el cargo se creó, el pago queda "por_verificar"
+     * (la reserva sigue pendiente y su hold no vence) hasta que un administrador lo concilie.
+     */
+    private PagoResponse completarIntento(Long pagoId, ResultadoCargo resultado, PagoRequest request) {
+        Pago pago = pagoRepository.findById(pagoId)
+            .orElseThrow(() -> new ResourceNotFoundException("Pago no encontrado"));
+        Reserva reserva = reservaRepository.findByIdForUpdate(pago.getReserva().getId())
+            .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada"));
+        String estadoPagoAnterior = pago.getEstado();
+
+        if (resultado.incierto()) {
+            pago.setEstado(AppConstants.PAGO_POR_VERIFICAR);
+            pagoRepository.save(pago);
+            auditarPago(pago, estadoPagoAnterior);
+            log.warn("Cargo del pago {} (reserva {}) sin respuesta de la pasarela: queda por verificar",
+                pago.getId(), reserva.getCodigoReserva());
+            return construirRespuesta(pago, reserva, request, MENSAJE_POR_VERIFICAR);
+        }
 
+        if (!resultado.exitoso()) {
+            pago.setEstado("fallido");
+            pagoRepository.save(pago);
+            auditarPago(pago, estadoPagoAnterior);
+            return construirRespuesta(pago, reserva, request, "Error al procesar pago: " + resultado.mensaje());
+        }
+
+        pago.setTransaccionId(resultado.transaccionId());
+        pago.setFechaPago(LocalDateTime.now());
+
+        String estadoAnterior = reserva.getEstado();
+        if (!"pendiente".equalsIgnoreCase(estadoAnterior)) {
+            pago.setEstado(AppConstants.PAGO_POR_REEMBOLSAR);
+            pago = pagoRepository.save(pago);
+            auditarPago(pago, estadoPagoAnterior);
+            log.error("Cargo {} aprobado para la reserva {} en estado {}: el pago {} queda por reembolsar",
+                resultado.transaccionId(), reserva.getCodigoReserva(), estadoAnterior, pago.getId());
+            return construirRespuesta(pago, reserva, request,
+                "El cargo fue aprobado pero la reserva ya no estaba pendiente: el pago será reembolsado");
+        }
+
+        pago.setEstado("completado");
         pago = pagoRepository.save(pago);
+        auditarPago(pago, estadoPagoAnterior);
 
-        // 5. Actualizar estado de reserva
         reserva.setEstado("confirmada");
         reservaRepository.save(reserva);
+        auditoriaService.registrar("reserva", reserva.getId(), AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", estadoAnterior),
+                AuditoriaService.valores("estado", reserva.getEstado(), "pagoId", pago.getId()));
+        // Avisos y demás trabajo derivado: se entregan en segundo plano desde el outbox
+        outboxService.publicarReservaConfirmada(reserva, pago.getId(), "pago");
 
         log.info("✅ Pago procesado exitosamente: {}", pago.getId());
+        return construirRespuesta(pago, reserva, request, "Pago procesado exitosamente");
+    }
+
+    /**
+     * Dejar "por_verificar" un pago cuyo resultado no se pudo registrar, guardando la referencia del
+     * cargo en la pasarela para la conciliación (también si el barrido de holds ya lo dejó por verificar).
+     * Si mientras tanto el pago se resolvió, no se toca.
+     */
+    private PagoResponse dejarPorVerificar(Long pagoId, String transaccionId, PagoRequest request) {
+        Pago pago = pagoRepository.findByIdForUpdate(pagoId)
+            .orElseThrow(() -> new ResourceNotFoundException("Pago no encontrado"));
+        String estadoAnterior = pago.getEstado();
+        boolean procesando = "procesando".equalsIgnoreCase(estadoAnterior);
+        boolean porVerificar = AppConstants.PAGO_POR_VERIFICAR.equalsIgnoreCase(estadoAnterior);
+        if (procesando || (porVerificar && pago.getTransaccionId() == null && transaccionId != null)) {
+            pago.setEstado(AppConstants.PAGO_POR_VERIFICAR);
+            pago.setTransaccionId(transaccionId);
+            pago = pagoRepository.save(pago);
+            auditarPago(pago, estadoAnterior);
+            log.warn("Pago {} (cargo {}) queda por verificar", pago.getId(), transaccionId);
+        }
+        return construirRespuesta(pago, pago.getReserva(), request, mensajeSegunEstado(pago));
+    }
 
-        // 6. Construir respuesta
+    private PagoResponse construirRespuesta(Pago pago, Reserva reserva, PagoRequest request, String mensaje) {
         return PagoResponse.builder()
             .id(pago.getId())
             .reservaId(reserva.getId())
@@ -96,81 +293,31 @@ public class PagoService {
             .transaccionId(pago.getTransaccionId())
             .proveedorPago(pago.getProveedorPago())
             .fechaPago(pago.getFechaPago())
-            .mensaje("Pago procesado exitosamente")
-            .ultimosDigitos(request.getUltimosDigitos())
-            .marcaTarjeta(request.getMarcaTarjeta())
+            .mensaje(mensaje)
+            .ultimosDigitos(request != null ? request.getUltimosDigitos() : null)
+            .marcaTarjeta(request != null ? request.getMarcaTarjeta() : null)
             .build();
     }
 
     /**
-     * Crea un cargo en Culqi usando su API
+     * Auditar el alta (estadoAnterior null) o el cambio de estado de un pago
      */
-    private Map<String, Object> crearCargoEnCulqi(PagoRequest request, Reserva reserva) {
-        String url = culqiApiUrl + "/charges";
-
-        // Headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + culqiSecretKey);
-
-        // Body
-        Map<String, Object> body = new HashMap<>();
-        body.put("amount", request.getMonto().multiply(new BigDecimal("100")).intValue()); // Culqi usa centavos
-        body.put("currency_code", request.getMoneda());
-        body.put("email", request.getEmail());
-        body.put("source_id", request.getCulqiToken());
-        body.put("description", request.getDescripcion() != null ? 
-            request.getDescripcion() : 
-            "Reserva " + reserva.getCodigoReserva());
-
-        // Metadata adicional
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("reserva_id", reserva.getId());
-        metadata.put("codigo_reserva", reserva.getCodigoReserva());
-        metadata.put("hotel_id", reserva.getHabitacion().getHotel().getId());
-        body.put("metadata", metadata);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-        // Llamar API de Culqi
-        log.info("📡 Llamando a Culqi API: {}", url);
-        ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-        if (response.getStatusCode() == HttpStatus.CREATED || response.getStatusCode() == HttpStatus.OK) {
-            log.info("✅ Cargo creado en Culqi: {}", response.getBody());
-            return response.getBody();
+    private void auditarPago(Pago pago, String estadoAnterior) {
+        Map<String, Object> nuevos = AuditoriaService.valores(
+                "reservaId", pago.getReserva().getId(),
+                "monto", pago.getMonto(),
+                "moneda", pago.getMoneda(),
+                "metodo", pago.getMetodo(),
+                "estado", pago.getEstado(),
+                "transaccionId", pago.getTransaccionId());
+        if (estadoAnterior == null) {
+            auditoriaService.registrar("pago", pago.getId(), AuditoriaService.ACCION_INSERT, null, nuevos);
         } else {
-            throw new RuntimeException("Error al crear cargo en Culqi: " + response.getStatusCode());
+            auditoriaService.registrar("pago", pago.getId(), AuditoriaService.ACCION_UPDATE,
+                    AuditoriaService.valores("estado", estadoAnterior), nuevos);
         }
     }
 
-    /**
-     * Crea un registro de pago fallido
-     */
-    private PagoResponse crearPagoFallido(Reserva reserva, PagoRequest request, String mensajeError) {
-        Pago pagoFallido = Pago.builder()
-            .reserva(reserva)
-            .monto(request.getMonto())
-            .moneda(request.getMoneda())
-            .metodo(request.getMetodo())
-            .estado("fallido")
-            .proveedorPago("Culqi")
-            .build();
-
-        pagoFallido = pagoRepository.save(pagoFallido);
-
-        return PagoResponse.builder()
-            .id(pagoFallido.getId())
-            .reservaId(reserva.getId())
-            .codigoReserva(reserva.getCodigoReserva())
-            .monto(request.getMonto())
-            .moneda(request.getMoneda())
-            .metodo(request.getMetodo())
-            .estado("fallido")
-            .mensaje("Error al procesar pago: " + mensajeError)
-            .build();
-    }
-
     /**
      * Obtiene el historial de pagos de una reserva
      */
@@ -179,44 +326,87 @@ public class PagoService {
             .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada"));
 
         return reserva.getPagos().stream()
-            .map(pago -> PagoResponse.builder()
-                .id(pago.getId())
-                .reservaId(reserva.getId())
-                .codigoReserva(reserva.getCodigoReserva())
-                .monto(pago.getMonto())
-                .moneda(pago.getMoneda())
-                .metodo(pago.getMetodo())
-                .estado(pago.getEstado())
-                .transaccionId(pago.getTransaccionId())
-                .proveedorPago(pago.getProveedorPago())
-                .fechaPago(pago.getFechaPago())
-                .build())
+            .map(pago -> construirRespuesta(pago, reserva, null, null))
+            .toList();
+    }
+
+    /**
+     * Pagos cuyo cargo quedó sin respuesta de la pasarela, pendientes de conciliar
+     */
+    @Transactional(readOnly = true)
+    public List<PagoResponse> obtenerPagosPorVerificar() {
+        return pagoRepository.findPagosPorVerificar().stream()
+            .map(pago -> construirRespuesta(pago, pago.getReserva(), null, MENSAJE_POR_VERIFICAR))
             .toList();
     }
 
     /**
-     * Reembolsa un pago (solo para testing o cancelaciones)
+     * Concilia un pago "por_verificar" con lo registrado en la pasarela: con transaccionId el cargo
+     * existe y se aplica como aprobado (confirma la reserva, o queda por reembolsar si ya no estaba
+     * pendiente); sin transaccionId el cargo no se creó y el pago queda fallido.
+     */
+    @Transactional
+    public PagoResponse resolverVerificacion(Long pagoId, String transaccionId) {
+        Pago pago = pagoRepository.findByIdForUpdate(pagoId)
+            .orElseThrow(() -> new ResourceNotFoundException("Pago no encontrado"));
+        if (!AppConstants.PAGO_POR_VERIFICAR.equalsIgnoreCase(pago.getEstado())) {
+            throw new BusinessException("El pago no está pendiente de verificación. Estado actual: " + pago.getEstado());
+        }
+
+        ResultadoCargo resultado = transaccionId != null && !transaccionId.isBlank()
+            ? ResultadoCargo.aprobado(transaccionId.trim())
+            : ResultadoCargo.rechazado("El cargo no se registró en la pasarela");
+        log.info("🔎 Conciliando pago {}: {}", pagoId, resultado.exitoso() ? "cargo aprobado" : "sin cargo");
+        return completarIntento(pagoId, resultado, null);
+    }
+
+    /**
+     * Reembolsa un pago (solo para testing o cancelaciones).
+     * Un pago "por_reembolsar" se cobró sobre una reserva que ya no estaba pendiente:
+     * se reembolsa sin tocar la reserva.
      */
     @Transactional
     public PagoResponse reembolsarPago(Long pagoId) {
         Pago pago = pagoRepository.findById(pagoId)
             .orElseThrow(() -> new ResourceNotFoundException("Pago no encontrado"));
 
-        if (!"completado".equalsIgnoreCase(pago.getEstado())) {
+        boolean porReembolsar = AppConstants.PAGO_POR_REEMBOLSAR.equalsIgnoreCase(pago.getEstado());
+        if (!"completado".equalsIgnoreCase(pago.getEstado()) && !porReembolsar) {
             throw new IllegalStateException("Solo se pueden reembolsar pagos completados");
         }
 
         // TODO: Implementar lógica de reembolso con API de Culqi
+        String estadoPagoAnterior = pago.getEstado();
         pago.setEstado("reembolsado");
         pago.setActualizadoEn(LocalDateTime.now());
         pago = pagoRepository.save(pago);
+        auditarPago(pago, estadoPagoAnterior);
 
-        // Actualizar reserva a cancelada
         Reserva reserva = pago.getReserva();
+        if (porReembolsar) {
+            return PagoResponse.builder()
+                .id(pago.getId())
+                .reservaId(reserva.getId())
+                .estado(pago.getEstado())
+                .mensaje("Reembolso procesado exitosamente")
+                .build();
+        }
+
+        // Actualizar reserva a cancelada
+        String estadoReservaAnterior = reserva.getEstado();
         reserva.setEstado("cancelada");
         reserva.setFechaCancelacion(LocalDateTime.now());
         reserva.setMotivoCancelacion("Reembolso procesado");
         reservaRepository.save(reserva);
+        auditoriaService.registrar("reserva", reserva.getId(), AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", estadoReservaAnterior),
+                AuditoriaService.valores("estado", reserva.getEstado(), "motivoCancelacion", reserva.getMotivoCancelacion()));
+        if (reserva.isReservaPorHoras()) {
+            disponibilidadService.invalidarIndice(reserva.getHabitacion().getId());
+        } else {
+            disponibilidadService.liberarNoches(reserva.getHabitacion().getId(),
+                reserva.getFechaCheckin(), reserva.getFechaCheckout());
+        }
 
         return PagoResponse.builder()
             .id(pago.getId())
@@ -0,0 +1,100 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.repository.ReservaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Barrido periódico de reservas pendientes vencidas.
+ * Complementa a ReservaHoldService (holds perdidos por reinicios u otras instancias): recorre las
+ * candidatas por id en lotes y cada lote se expira con un UPDATE por conjunto de ids más la
+ * liberación de sus noches, en su propia transacción. Los pagos que siguen "procesando" después
+ * de la ventana configurada se dan por interrumpidos y quedan por verificar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservaBarridoService {
+
+    private final ReservaRepository reservaRepository;
+    private final ReservaHoldService reservaHoldService;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean(false);
+
+    @Value("${app.reservas.barrido.ventana-minutos:30}")
+    private long ventanaMinutos;
+
+    @Value("${app.reservas.barrido.lote:200}")
+    private int tamanioLote;
+
+    @Scheduled(fixedDelayString = "${app.reservas.barrido.intervalo-ms:300000}",
+               initialDelayString = "${app.reservas.barrido.intervalo-ms:300000}")
+    public void barridoProgramado() {
+        try {
+            barrerPendientesVencidas();
+        } catch (BusinessException e) {
+            log.debug("Barrido de reservas omitido: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error en el barrido de reservas pendientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Expirar las reservas pendientes con hold vencido
+     * @return reservas revisadas, expiradas, lotes y duración en ms
+     */
+    public Map<String, Long> barrerPendientesVencidas() {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            throw new BusinessException("El barrido de reservas ya está en ejecución");
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            LocalDateTime ahora = LocalDateTime.now();
+            LocalDateTime fechaLimite = ahora.minusMinutes(ventanaMinutos);
+            long ultimoId = 0L;
+            long revisadas = 0;
+            long expiradas = 0;
+            long lotes = 0;
+
+            List<Object[]> lote;
+            do {
+                lote = reservaRepository.findReservasPendientesVencidas(
+                        ultimoId, ahora, PageRequest.of(0, tamanioLote));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                Map<Long, Long> habitacionPorReserva = new LinkedHashMap<>();
+                for (Object[] fila : lote) {
+                    habitacionPorReserva.put((Long) fila[0], (Long) fila[1]);
+                }
+                ultimoId = (Long) lote.get(lote.size() - 1)[0];
+                expiradas += reservaHoldService.expirar(habitacionPorReserva, fechaLimite);
+                revisadas += lote.size();
+                lotes++;
+            } while (lote.size() == tamanioLote);
+
+            Map<String, Long> resultado = new LinkedHashMap<>();
+            resultado.put("revisadas", revisadas);
+            resultado.put("expiradas", expiradas);
+            resultado.put("lotes", lotes);
+            resultado.put("duracionMs", System.currentTimeMillis() - inicio);
+            if (revisadas > 0) {
+                log.info("Barrido de reservas pendientes completado: {}", resultado);
+            }
+            return resultado;
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.repository.PagoRepository;
+import com.example.PROYECTO.FINAL_WEB.repository.ReservaRepository;
+import com.example.PROYECTO.FINAL_WEB.repository.RoomAvailabilityRepository;
+import com.example.PROYECTO.FINAL_WEB.util.AppConstants;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds temporales del checkout: una reserva pendiente retiene la habitación solo durante el TTL.
+ * Los vencimientos viven en una DelayQueue en memoria (reflejo de reserva.expira_en, que se relee
+ * al iniciar) y un hilo los procesa por lotes: cancela las reservas vencidas y libera sus noches
+ * en room_availability con un UPDATE por lote. Las pendientes sin expira_en (pago en el hotel y
+ * reservas anteriores a los holds) no tienen hold: esperan la confirmación del anfitrión. Un pago que sigue "procesando" pasado el TTL no se
+ * resolvió (el proceso cayó tras llamar a la pasarela o falló al registrar el resultado): queda
+ * "por_verificar" y la reserva espera la conciliación en lugar de expirar.
+ */
+@Slf4j
+@Service
+public class ReservaHoldService {
+
+    public static final String MOTIVO_EXPIRACION = "Reserva expirada sin pago";
+
+    private static final long REINTENTO_MILLIS = 60_000L;
+
+    private final ReservaRepository reservaRepository;
+    private final RoomAvailabilityRepository availabilityRepository;
+    private final PagoRepository pagoRepository;
+    private final DisponibilidadService disponibilidadService;
+    private final AuditoriaService auditoriaService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int tamanioLote;
+
+    private final DelayQueue<Hold> holds = new DelayQueue<>();
+    private volatile Thread worker;
+
+    public ReservaHoldService(ReservaRepository reservaRepository,
+                              RoomAvailabilityRepository availabilityRepository,
+                              PagoRepository pagoRepository,
+                              DisponibilidadService disponibilidadService,
+                              AuditoriaService auditoriaService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.reservas.hold.ttl-minutos:15}") long ttlMinutos,
+                              @Value("${app.reservas.hold.lote:100}") int tamanioLote) {
+        this.reservaRepository = reservaRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.pagoRepository = pagoRepository;
+        this.disponibilidadService = disponibilidadService;
+        this.auditoriaService = auditoriaService;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMinutes(ttlMinutos);
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Fecha de vencimiento para un hold creado ahora
+     */
+    public LocalDateTime calcularExpiracion() {
+        return LocalDateTime.now().plus(ttl);
+    }
+
+    /**
+     * Programar el vencimiento de una reserva pendiente (al confirmar la transacción que la crea)
+     */
+    public void registrar(Long reservaId, Long habitacionId, LocalDateTime expiraEn) {
+        Hold hold = new Hold(reservaId, habitacionId, expiraEn);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    holds.add(hold);
+                }
+            });
+        } else {
+            holds.add(hold);
+        }
+    }
+
+    /**
+     * Indica si el hold de una reserva pendiente ya venció
+     */
+    public boolean estaVencido(LocalDateTime expiraEn) {
+        return expiraEn != null && !expiraEn.isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * Cargar los holds de las reservas pendientes de la BD y arrancar el hilo de expiración
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        List<Object[]> pendientes = reservaRepository.findHoldsPendientes();
+        for (Object[] fila : pendientes) {
+            holds.add(new Hold((Long) fila[0], (Long) fila[1], (LocalDateTime) fila[2]));
+        }
+        log.info("Holds de reserva cargados: {}", pendientes.size());
+
+        worker = new Thread(this::procesar, "reserva-holds");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void procesar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Hold> lote = new ArrayList<>();
+            try {
+                lote.add(holds.take());
+                holds.drainTo(lote, tamanioLote - 1);
+                Map<Long, Long> habitacionPorReserva = new HashMap<>();
+                lote.forEach(hold -> habitacionPorReserva.put(hold.reservaId, hold.habitacionId));
+                expirar(habitacionPorReserva, LocalDateTime.now().minus(ttl));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error expirando holds de reserva, se reintentará: {}", e.getMessage());
+                LocalDateTime reintento = LocalDateTime.now().plus(Duration.ofMillis(REINTENTO_MILLIS));
+                lote.forEach(hold -> holds.add(new Hold(hold.reservaId, hold.habitacionId, reintento)));
+            }
+        }
+    }
+
+    /**
+     * Cancelar las reservas del lote (id -> habitación) que siguen pendientes y liberar sus noches,
+     * todo en una transacción; cada cancelación se audita (sin usuario cuando la hace el sistema). Las que se pagaron o cancelaron entre tanto no se tocan, ni las que tienen
+     * un cargo sin resolver: sus pagos "procesando" anteriores a fechaLimite pasan a "por_verificar".
+     * @param fechaLimite los pagos "procesando" creados antes de esta fecha se dan por interrumpidos
+     * @return cantidad de reservas expiradas
+     */
+    public int expirar(Map<Long, Long> habitacionPorReserva, LocalDateTime fechaLimite) {
+        Integer expiradas = transactionTemplate.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            dejarPorVerificar(habitacionPorReserva.keySet(), fechaLimite, ahora);
+            List<Long> vencidas = reservaRepository.bloquearHoldsVencidos(habitacionPorReserva.keySet(), ahora);
+            if (vencidas.isEmpty()) {
+                return 0;
+            }
+            reservaRepository.expirarHolds(vencidas, ahora, MOTIVO_EXPIRACION);
+            vencidas.forEach(reservaId -> auditoriaService.registrar("reserva", reservaId, AuditoriaService.ACCION_UPDATE,
+                    AuditoriaService.valores("estado", AppConstants.RESERVA_PENDIENTE),
+                    AuditoriaService.valores("estado", AppConstants.RESERVA_CANCELADA,
+                            "motivoCancelacion", MOTIVO_EXPIRACION)));
+            int noches = availabilityRepository.liberarNochesDeReservas(vencidas);
+            vencidas.stream()
+                    .map(habitacionPorReserva::get)
+                    .distinct()
+                    .forEach(disponibilidadService::invalidarIndice);
+            log.info("Holds expirados: {} reservas, {} noches liberadas", vencidas.size(), noches);
+            return vencidas.size();
+        });
+        return expiradas != null ? expiradas : 0;
+    }
+
+    /**
+     * Pasar a "por_verificar" los pagos de las reservas que siguen "procesando" desde antes de fechaLimite:
+     * la pasarela pudo aprobar el cargo, así que la reserva no debe expirar sin conciliarlo
+     */
+    private void dejarPorVerificar(Collection<Long> reservaIds, LocalDateTime fechaLimite, LocalDateTime ahora) {
+        List<Long> interrumpidos = pagoRepository.findProcesandoAntesDe(reservaIds, fechaLimite);
+        if (interrumpidos.isEmpty()) {
+            return;
+        }
+        pagoRepository.marcarPorVerificar(interrumpidos, ahora);
+        interrumpidos.forEach(pagoId -> auditoriaService.registrar("pago", pagoId, AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", "procesando"),
+                AuditoriaService.valores("estado", AppConstants.PAGO_POR_VERIFICAR)));
+        log.warn("Pagos sin resultado de la pasarela pasados a por verificar: {}", interrumpidos);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    static final class Hold implements Delayed {
+        private final Long reservaId;
+        private final Long habitacionId;
+        private final long venceEnMillis;
+
+        Hold(Long reservaId, Long habitacionId, LocalDateTime expiraEn) {
+            this.reservaId = reservaId;
+            this.habitacionId = habitacionId;
+            this.venceEnMillis = System.currentTimeMillis()
+                    + Duration.between(LocalDateTime.now(), expiraEn).toMillis();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(venceEnMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return Long.compare(venceEnMillis, ((Hold) otro).venceEnMillis);
+        }
+    }
+}
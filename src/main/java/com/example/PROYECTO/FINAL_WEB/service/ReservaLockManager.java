@@ -0,0 +1,159 @@
+package com.example.PROYECTO.FINAL_WEB.service;
+
+import com.example.PROYECTO.FINAL_WEB.dto.response.ContencionReservaResponse;
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa dentro de la JVM los intentos de reserva sobre una misma habitación, antes de abrir
+ * la transacción, para que las ráfagas no compitan por locks en la BD.
+ * Cada habitación con intentos en curso tiene su propio lock (justo, FIFO) que se descarta al quedar
+ * libre, así habitaciones distintas nunca se bloquean entre sí. La cola de espera es acotada:
+ * si está llena, o la espera supera el timeout, se responde con conflicto de inmediato.
+ * Las métricas de contención de una habitación empiezan con su primera espera o rechazo (los
+ * intentos sin competencia no crean entradas) y se guardan para un máximo de habitaciones.
+ */
+@Slf4j
+@Component
+public class ReservaLockManager {
+
+    private final int maxEnCola;
+    private final long timeoutMillis;
+
+    private final ConcurrentMap<Long, Turno> turnos = new ConcurrentHashMap<>();
+    private final Cache<Long, Contencion> contencion;
+
+    public ReservaLockManager(@Value("${app.reservas.lock.max-en-cola:20}") int maxEnCola,
+                              @Value("${app.reservas.lock.timeout-ms:5000}") long timeoutMillis,
+                              @Value("${app.reservas.lock.max-metricas:1000}") long maxMetricas) {
+        this.maxEnCola = maxEnCola;
+        this.timeoutMillis = timeoutMillis;
+        this.contencion = Caffeine.newBuilder()
+                .maximumSize(maxMetricas)
+                .build();
+    }
+
+    /**
+     * Ejecutar la acción con el turno exclusivo de la habitación
+     */
+    public <T> T ejecutar(Long habitacionId, Supplier<T> accion) {
+        Turno turno = turnos.compute(habitacionId, (id, actual) -> {
+            Turno t = actual != null ? actual : new Turno();
+            t.usuarios++;
+            return t;
+        });
+
+        // usuarios = quien tiene el lock + los que esperan
+        int enCola = turno.usuarios - 1;
+        if (enCola > maxEnCola) {
+            soltar(habitacionId);
+            metricas(habitacionId).rechazos.increment();
+            log.warn("Cola de reservas llena para habitación {} ({} en espera)", habitacionId, enCola);
+            throw new ConflictException("La habitación está recibiendo muchas solicitudes, intente nuevamente");
+        }
+        if (enCola > 0) {
+            metricas(habitacionId).maxEnCola.accumulateAndGet(enCola, Math::max);
+        }
+
+        long inicio = System.nanoTime();
+        boolean adquirido = false;
+        try {
+            // Sin espera primero: tryLock(0, ...) respeta la cola del lock justo, tryLock() no
+            adquirido = intentar(turno, 0) || esperar(habitacionId, turno);
+            if (!adquirido) {
+                metricas(habitacionId).timeouts.increment();
+                throw new ConflictException("Tiempo de espera agotado para reservar la habitación, intente nuevamente");
+            }
+            Contencion metricas = contencion.getIfPresent(habitacionId);
+            if (metricas != null) {
+                metricas.adquisiciones.increment();
+                metricas.esperaNanos.add(System.nanoTime() - inicio);
+            }
+            return accion.get();
+        } finally {
+            if (adquirido) {
+                turno.lock.unlock();
+            }
+            soltar(habitacionId);
+        }
+    }
+
+    /**
+     * Métricas de contención por habitación, de mayor a menor número de esperas
+     */
+    public List<ContencionReservaResponse> obtenerContencion() {
+        return contencion.asMap().entrySet().stream()
+                .map(e -> {
+                    Contencion c = e.getValue();
+                    long adquisiciones = c.adquisiciones.sum();
+                    Turno turno = turnos.get(e.getKey());
+                    return ContencionReservaResponse.builder()
+                            .habitacionId(e.getKey())
+                            .adquisiciones(adquisiciones)
+                            .esperas(c.esperas.sum())
+                            .rechazos(c.rechazos.sum())
+                            .timeouts(c.timeouts.sum())
+                            .enCurso(turno != null ? turno.lock.getQueueLength() + (turno.lock.isLocked() ? 1 : 0) : 0)
+                            .maxEnCola(c.maxEnCola.get())
+                            .esperaPromedioMs(adquisiciones == 0 ? 0
+                                    : TimeUnit.NANOSECONDS.toMillis(c.esperaNanos.sum()) / (double) adquisiciones)
+                            .build();
+                })
+                .sorted(Comparator.comparingLong(ContencionReservaResponse::getEsperas).reversed())
+                .toList();
+    }
+
+    private boolean esperar(Long habitacionId, Turno turno) {
+        metricas(habitacionId).esperas.increment();
+        return intentar(turno, timeoutMillis);
+    }
+
+    private Contencion metricas(Long habitacionId) {
+        return contencion.get(habitacionId, id -> new Contencion());
+    }
+
+    private boolean intentar(Turno turno, long esperaMillis) {
+        try {
+            return turno.lock.tryLock(esperaMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Solicitud de reserva interrumpida");
+        }
+    }
+
+    /**
+     * Descontar al usuario del turno y eliminarlo cuando nadie lo usa
+     */
+    private void soltar(Long habitacionId) {
+        turnos.computeIfPresent(habitacionId, (id, t) -> --t.usuarios == 0 ? null : t);
+    }
+
+    private static final class Turno {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int usuarios;
+    }
+
+    private static final class Contencion {
+        private final LongAdder adquisiciones = new LongAdder();
+        private final LongAdder esperas = new LongAdder();
+        private final LongAdder rechazos = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder esperaNanos = new LongAdder();
+        private final AtomicLong maxEnCola = new AtomicLong();
+    }
+}
@@ -5,9 +5,12 @@ import com.example.PROYECTO.FINAL_WEB.dto.response.PageResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.ReservaResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.*;
 import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+import com.example.PROYECTO.FINAL_WEB.exception.ConflictException;
 import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
+import com.example.PROYECTO.FINAL_WEB.outbox.OutboxService;
 import com.example.PROYECTO.FINAL_WEB.repository.*;
 import com.example.PROYECTO.FINAL_WEB.util.AppConstants;
+import com.example.PROYECTO.FINAL_WEB.util.CursorPaginacion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -43,7 +46,19 @@ public class ReservaService {
     @Autowired
     private CuponService cuponService;
 
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Autowired
+    private ReservaHoldService reservaHoldService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ReservaResponse crearReserva(ReservaRequest request, Long usuarioId) {
         // Validar fechas básicas
         boolean esReservaPorHoras = Boolean.TRUE.equals(request.getReservaPorHoras());
@@ -93,26 +108,27 @@ public class ReservaService {
             throw new BusinessException("La habitación no tiene capacidad suficiente para " + totalHuespedes + " huéspedes");
         }
 
-        // CRÍTICO: Verificar disponibilidad con lock (evita double booking)
-        boolean disponible = habitacionRepository.isHabitacionDisponible(
-                request.getHabitacionId(),
-                request.getFechaCheckin(),
-                request.getFechaCheckout()
-        );
-
-        if (!disponible) {
-            throw new BusinessException("La habitación no está disponible para las fechas seleccionadas");
-        }
-
-        // Verificar que no haya reservas solapadas
-        List<Reserva> reservasSolapadas = reservaRepository.findReservasSolapadas(
-                request.getHabitacionId(),
-                request.getFechaCheckin(),
-                request.getFechaCheckout()
-        );
-
-        if (!reservasSolapadas.isEmpty()) {
-            throw new BusinessException("Ya existe una reserva para estas fechas");
+        // Day use no reclama noches: ambos tipos de reserva se serializan por habitación con un
+        // lock de fila para que cada uno vea las reservas ya confirmadas del otro
+        habitacionRepository.findByIdForUpdate(habitacion.getId());
+        if (esReservaPorHoras) {
+            if (reservaRepository.existeSolapamientoPorHoras(habitacion.getId(), request.getFechaCheckin(),
+                    request.getHoraCheckin(), request.getHoraCheckout())) {
+                throw new BusinessException("La habitación no está disponible en el horario seleccionado");
+            }
+        } else {
+            if (!reservaRepository.findReservasSolapadas(
+                    request.getHabitacionId(),
+                    request.getFechaCheckin(),
+                    request.getFechaCheckout()
+            ).isEmpty()) {
+                // Comprobación temprana; entre reservas por noche la garantía real es el reclamo de noches
+                throw new BusinessException("Ya existe una reserva para estas fechas");
+            }
+            if (reservaRepository.existeReservaPorHorasEnRango(habitacion.getId(),
+                    request.getFechaCheckin(), request.getFechaCheckout())) {
+                throw new BusinessException("La habitación tiene reservas por horas en estas fechas");
+            }
         }
 
         // Obtener usuario
@@ -146,9 +162,9 @@ public class ReservaService {
             }
         }
         
-        // Verificar y bloquear disponibilidad
+        // Reclamar noches [checkin, checkout): si otra transacción ganó alguna, ConflictException (409)
         if (!esReservaPorHoras) {
-            disponibilidadService.bloquearFechas(
+            disponibilidadService.reclamarNoches(
                 habitacion.getId(),
                 request.getFechaCheckin(),
                 request.getFechaCheckout()
@@ -173,6 +189,7 @@ public class ReservaService {
                 .impuestos(impuestos)
                 .total(total)
                 .estado(AppConstants.RESERVA_PENDIENTE)
+                .expiraEn(Boolean.TRUE.equals(request.getPagoEnHotel()) ? null : reservaHoldService.calcularExpiracion())
                 .notasEspeciales(request.getNotasEspeciales())
                 .nombreHuesped(request.getNombreHuesped())
                 .apellidoHuesped(request.getApellidoHuesped())
@@ -181,6 +198,16 @@ public class ReservaService {
                 .build();
 
         reserva = reservaRepository.save(reserva);
+        if (reserva.getExpiraEn() != null) {
+            reservaHoldService.registrar(reserva.getId(), habitacion.getId(), reserva.getExpiraEn());
+        }
+        auditoriaService.registrar("reserva", reserva.getId(), AuditoriaService.ACCION_INSERT, null,
+                AuditoriaService.valores("codigoReserva", reserva.getCodigoReserva(),
+                        "habitacionId", habitacion.getId(),
+                        "fechaCheckin", reserva.getFechaCheckin(),
+                        "fechaCheckout", reserva.getFechaCheckout(),
+                        "total", reserva.getTotal(),
+                        "estado", reserva.getEstado()));
 
         return mapToResponse(reserva);
     }
@@ -208,8 +235,19 @@ public class ReservaService {
      * Obtener reservas de un usuario con paginación
      */
     @Transactional(readOnly = true)
-    public PageResponse<ReservaResponse> getReservasByUsuario(Long usuarioId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("fechaCheckin").descending());
+    public PageResponse<ReservaResponse> getReservasByUsuario(Long usuarioId, int page, int size,
+                                                              String cursor, boolean incluirTotal) {
+        if (cursor != null) {
+            Pageable limite = limiteCursor(size);
+            CursorPaginacion posicion = posicionDe(cursor);
+            List<Reserva> reservas = posicion == null
+                    ? reservaRepository.findByUsuarioIdPrimeras(usuarioId, limite)
+                    : reservaRepository.findByUsuarioIdDespuesDe(usuarioId, posicion.valorComo(LocalDateTime.class),
+                            posicion.id(), limite);
+            return paginaPorCursor(reservas, size, posicion == null,
+                    incluirTotal ? reservaRepository.countByUsuarioId(usuarioId) : null);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
         Page<Reserva> reservaPage = reservaRepository.findByUsuarioId(usuarioId, pageable);
 
         List<ReservaResponse> content = reservaPage.getContent().stream()
@@ -225,6 +263,7 @@ public class ReservaService {
                 .last(reservaPage.isLast())
                 .first(reservaPage.isFirst())
                 .empty(reservaPage.isEmpty())
+                .nextCursor(reservaPage.hasNext() ? cursorDe(reservaPage.getContent().get(content.size() - 1)) : null)
                 .build();
     }
 
@@ -242,8 +281,19 @@ public class ReservaService {
      * Obtener reservas de un hotel (para propietario)
      */
     @Transactional(readOnly = true)
-    public PageResponse<ReservaResponse> getReservasByHotel(Long hotelId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("fechaCheckin").descending());
+    public PageResponse<ReservaResponse> getReservasByHotel(Long hotelId, int page, int size,
+                                                            String cursor, boolean incluirTotal) {
+        if (cursor != null) {
+            Pageable limite = limiteCursor(size);
+            CursorPaginacion posicion = posicionDe(cursor);
+            List<Reserva> reservas = posicion == null
+                    ? reservaRepository.findByHotelIdPrimeras(hotelId, limite)
+                    : reservaRepository.findByHotelIdDespuesDe(hotelId, posicion.valorComo(LocalDateTime.class),
+                            posicion.id(), limite);
+            return paginaPorCursor(reservas, size, posicion == null,
+                    incluirTotal ? reservaRepository.countByHotelId(hotelId) : null);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
         Page<Reserva> reservaPage = reservaRepository.findByHotelId(hotelId, pageable);
 
         List<ReservaResponse> content = reservaPage.getContent().stream()
@@ -259,9 +309,44 @@ public class ReservaService {
                 .last(reservaPage.isLast())
                 .first(reservaPage.isFirst())
                 .empty(reservaPage.isEmpty())
+                .nextCursor(reservaPage.hasNext() ? cursorDe(reservaPage.getContent().get(content.size() - 1)) : null)
                 .build();
     }
 
+    /**
+     * Cursor vacío: primera página por cursor (sin posición)
+     */
+    private CursorPaginacion posicionDe(String cursor) {
+        return cursor.isBlank() ? null : CursorPaginacion.decodificar(cursor).validarOrden("creadoEn", false);
+    }
+
+    /**
+     * size + 1 filas desde el inicio (la sobrante indica que hay más)
+     */
+    private Pageable limiteCursor(int size) {
+        if (size < 1) {
+            throw new BusinessException("El tamaño de página debe ser al menos 1");
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    /**
+     * Página por clave (creadoEn, id) a partir de size + 1 filas: la sobrante indica que hay más
+     */
+    private PageResponse<ReservaResponse> paginaPorCursor(List<Reserva> reservas, int size, boolean primera,
+                                                          Long total) {
+        boolean hayMas = reservas.size() > size;
+        List<Reserva> pagina = hayMas ? reservas.subList(0, size) : reservas;
+        List<ReservaResponse> content = pagina.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        return PageResponse.porCursor(content, size, primera, hayMas ? cursorDe(pagina.get(size - 1)) : null, total);
+    }
+
+    private String cursorDe(Reserva reserva) {
+        return CursorPaginacion.de("creadoEn", false, reserva.getCreadoEn(), reserva.getId()).codificar();
+    }
+
     /**
      * Confirmar reserva
      */
@@ -273,9 +358,14 @@ public class ReservaService {
         if (!reserva.getEstado().equals(AppConstants.RESERVA_PENDIENTE)) {
             throw new BusinessException("Solo se pueden confirmar reservas pendientes");
         }
+        if (reservaHoldService.estaVencido(reserva.getExpiraEn())) {
+            throw new BusinessException("El tiempo para completar la reserva expiró");
+        }
 
         reservaRepository.actualizarEstado(id, AppConstants.RESERVA_CONFIRMADA, LocalDateTime.now());
+        auditarCambioEstado(id, reserva.getEstado(), AppConstants.RESERVA_CONFIRMADA);
         reserva.setEstado(AppConstants.RESERVA_CONFIRMADA);
+        outboxService.publicarReservaConfirmada(reserva, null, "manual");
 
         return mapToResponse(reserva);
     }
@@ -285,6 +375,9 @@ public class ReservaService {
      */
     @Transactional
     public ReservaResponse cancelarReserva(Long id, String motivo, Long usuarioId) {
+        // Bloquear la reserva: un pago en curso la bloquea también al registrarse y al confirmarse
+        reservaRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva", "id", id));
         // Cargar reserva con todas las relaciones necesarias
         Reserva reserva = reservaRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva", "id", id));
@@ -320,11 +413,23 @@ public class ReservaService {
         if (!reserva.puedeCancelarse()) {
             throw new BusinessException("Esta reserva no puede ser cancelada. Estado actual: " + reserva.getEstado());
         }
+        if (pagoRepository.reservaTieneCargoSinResolver(id)) {
+            throw new ConflictException("Hay un pago en curso para esta reserva, intente nuevamente en unos segundos");
+        }
 
         reservaRepository.cancelarReserva(id, LocalDateTime.now(), motivo);
+        auditoriaService.registrar("reserva", id, AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", reserva.getEstado()),
+                AuditoriaService.valores("estado", AppConstants.RESERVA_CANCELADA, "motivoCancelacion", motivo));
         reserva.setEstado(AppConstants.RESERVA_CANCELADA);
         reserva.setFechaCancelacion(LocalDateTime.now());
         reserva.setMotivoCancelacion(motivo);
+        if (reserva.isReservaPorHoras()) {
+            disponibilidadService.invalidarIndice(reserva.getHabitacion().getId());
+        } else {
+            disponibilidadService.liberarNoches(reserva.getHabitacion().getId(),
+                    reserva.getFechaCheckin(), reserva.getFechaCheckout());
+        }
 
         return mapToResponse(reserva);
     }
@@ -347,11 +452,18 @@ public class ReservaService {
         }
 
         reservaRepository.actualizarEstado(id, AppConstants.RESERVA_COMPLETADA, LocalDateTime.now());
+        auditarCambioEstado(id, reserva.getEstado(), AppConstants.RESERVA_COMPLETADA);
         reserva.setEstado(AppConstants.RESERVA_COMPLETADA);
 
         return mapToResponse(reserva);
     }
 
+    private void auditarCambioEstado(Long reservaId, String estadoAnterior, String estadoNuevo) {
+        auditoriaService.registrar("reserva", reservaId, AuditoriaService.ACCION_UPDATE,
+                AuditoriaService.valores("estado", estadoAnterior),
+                AuditoriaService.valores("estado", estadoNuevo));
+    }
+
     /**
      * Mapear entidad a DTO de respuesta
      */
@@ -379,6 +491,7 @@ public class ReservaService {
                 .puedeCancelarse(reserva.puedeCancelarse())
                 .fechaCancelacion(reserva.getFechaCancelacion())
                 .motivoCancelacion(reserva.getMotivoCancelacion())
+                .expiraEn(reserva.getExpiraEn())
                 .creadoEn(reserva.getCreadoEn())
                 .actualizadoEn(reserva.getActualizadoEn());
 
@@ -4,10 +4,13 @@ import com.example.PROYECTO.FINAL_WEB.dto.request.ReviewRequest;
 import com.example.PROYECTO.FINAL_WEB.dto.response.PageResponse;
 import com.example.PROYECTO.FINAL_WEB.dto.response.ReviewResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.*;
+import com.example.PROYECTO.FINAL_WEB.event.HotelModificadoEvent;
 import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
 import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
 import com.example.PROYECTO.FINAL_WEB.repository.*;
+import com.example.PROYECTO.FINAL_WEB.util.CursorPaginacion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -38,6 +41,9 @@ public class ReviewService {
     @Autowired
     private ReservaRepository reservaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Crear review/reseña (solo usuarios con estadía completada)
      */
@@ -103,16 +109,22 @@ public class ReviewService {
         hotel.setPuntuacionPromedio(puntuacionPromedio);
         hotel.setTotalReviews(totalReviews != null ? totalReviews.intValue() : 0);
         hotelRepository.save(hotel);
+        eventPublisher.publishEvent(new HotelModificadoEvent(hotel.getId(), "review"));
 
         return mapToResponse(review);
     }
 
     /**
-     * Obtener reviews de un hotel con paginación
+     * Obtener reviews de un hotel con paginación.
+     * Con cursor (vacío para la primera página) se pagina por clave en lugar de por número de página.
      */
     @Transactional(readOnly = true)
-    public PageResponse<ReviewResponse> getReviewsByHotel(Long hotelId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("creadoEn").descending());
+    public PageResponse<ReviewResponse> getReviewsByHotel(Long hotelId, int page, int size,
+                                                          String cursor, boolean incluirTotal) {
+        if (cursor != null) {
+            return getReviewsByHotelPorCursor(hotelId, size, cursor, incluirTotal);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
         Page<Review> reviewPage = reviewRepository.findByHotelId(hotelId, pageable);
 
         List<ReviewResponse> content = reviewPage.getContent().stream()
@@ -128,9 +140,44 @@ public class ReviewService {
                 .last(reviewPage.isLast())
                 .first(reviewPage.isFirst())
                 .empty(reviewPage.isEmpty())
+                .nextCursor(reviewPage.hasNext() ? cursorDe(reviewPage.getContent().get(content.size() - 1)) : null)
                 .build();
     }
 
+    /**
+     * Página por clave (creadoEn, id): cuesta lo mismo a cualquier profundidad y el COUNT
+     * solo se ejecuta si se pide el total
+     */
+    private PageResponse<ReviewResponse> getReviewsByHotelPorCursor(Long hotelId, int size, String cursor,
+                                                                    boolean incluirTotal) {
+        if (size < 1) {
+            throw new BusinessException("El tamaño de página debe ser al menos 1");
+        }
+        Pageable limite = PageRequest.of(0, size + 1);
+        List<Review> reviews;
+        if (cursor.isBlank()) {
+            reviews = reviewRepository.findByHotelIdPrimeras(hotelId, limite);
+        } else {
+            CursorPaginacion posicion = CursorPaginacion.decodificar(cursor).validarOrden("creadoEn", false);
+            reviews = reviewRepository.findByHotelIdDespuesDe(hotelId, posicion.valorComo(LocalDateTime.class),
+                    posicion.id(), limite);
+        }
+
+        boolean hayMas = reviews.size() > size;
+        List<Review> pagina = hayMas ? reviews.subList(0, size) : reviews;
+        List<ReviewResponse> content = pagina.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        return PageResponse.porCursor(content, size, cursor.isBlank(),
+                hayMas ? cursorDe(pagina.get(size - 1)) : null,
+                incluirTotal ? reviewRepository.countByHotelId(hotelId) : null);
+    }
+
+    private String cursorDe(Review review) {
+        return CursorPaginacion.de("creadoEn", false, review.getCreadoEn(), review.getId()).codificar();
+    }
+
     /**
      * Obtener reviews verificadas
      */
@@ -169,6 +216,7 @@ public class ReviewService {
         reviewRepository.responderReview(reviewId, respuesta, LocalDateTime.now());
         review.setRespuestaHotel(respuesta);
         review.setFechaRespuesta(LocalDateTime.now());
+        eventPublisher.publishEvent(new HotelModificadoEvent(review.getHotel().getId(), "review"));
 
         return mapToResponse(review);
     }
@@ -215,6 +263,7 @@ public class ReviewService {
         hotel.setPuntuacionPromedio(puntuacionPromedio);
         hotel.setTotalReviews(totalReviews != null ? totalReviews.intValue() : 0);
         hotelRepository.save(hotel);
+        eventPublisher.publishEvent(new HotelModificadoEvent(hotel.getId(), "review"));
     }
 
     /**
@@ -2,9 +2,12 @@ package com.example.PROYECTO.FINAL_WEB.service;
 
 import com.example.PROYECTO.FINAL_WEB.dto.response.UsuarioResponse;
 import com.example.PROYECTO.FINAL_WEB.entity.Usuario;
+import com.example.PROYECTO.FINAL_WEB.event.UsuarioModificadoEvent;
 import com.example.PROYECTO.FINAL_WEB.exception.ResourceNotFoundException;
 import com.example.PROYECTO.FINAL_WEB.repository.UsuarioRepository;
+import com.example.PROYECTO.FINAL_WEB.security.UsuariosRevocados;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +24,12 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuariosRevocados usuariosRevocados;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Obtener usuario por ID
      */
@@ -71,8 +80,10 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
 
-        if (nombre != null && !nombre.isEmpty()) {
+        if (nombre != null && !nombre.isEmpty() && !nombre.equals(usuario.getNombre())) {
             usuario.setNombre(nombre);
+            // El nombre aparece en el detalle cacheado de sus hoteles y de los hoteles que reseñó
+            eventPublisher.publishEvent(new UsuarioModificadoEvent(id, "nombre"));
         }
         if (telefono != null) {
             usuario.setTelefono(telefono);
@@ -92,6 +103,7 @@ public class UsuarioService {
 
         usuario.setEstado(nuevoEstado);
         usuario = usuarioRepository.save(usuario);
+        actualizarRevocacion(usuario);
 
         return mapToResponse(usuario);
     }
@@ -102,6 +114,18 @@ public class UsuarioService {
             throw new ResourceNotFoundException("Usuario", "id", id);
         }
         usuarioRepository.softDelete(id, LocalDateTime.now());
+        usuariosRevocados.revocar(id);
+    }
+
+    /**
+     * Los tokens ya emitidos dejan de valer en cuanto el usuario deja de estar activo
+     */
+    private void actualizarRevocacion(Usuario usuario) {
+        if (usuario.isActivo()) {
+            usuariosRevocados.restaurar(usuario.getId());
+        } else {
+            usuariosRevocados.revocar(usuario.getId());
+        }
     }
 
     /**
@@ -125,6 +149,7 @@ public class UsuarioService {
 
         usuario.setEstado(estado);
         usuario = usuarioRepository.save(usuario);
+        actualizarRevocacion(usuario);
         return mapToResponse(usuario);
     }
 
@@ -39,6 +39,8 @@ public class AppConstants {
     public static final String PAGO_COMPLETADO = "completado";
     public static final String PAGO_FALLIDO = "fallido";
     public static final String PAGO_REEMBOLSADO = "reembolsado";
+    public static final String PAGO_POR_REEMBOLSAR = "por_reembolsar";
+    public static final String PAGO_POR_VERIFICAR = "por_verificar";
 
     // ===== ESTADOS DE DISPONIBILIDAD =====
     public static final String DISPONIBILIDAD_DISPONIBLE = "disponible";
@@ -87,6 +89,11 @@ public class AppConstants {
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "ASC";
 
+    // ===== BÚSQUEDA DE HOTELES =====
+    public static final int RADIO_BUSQUEDA_KM = 10;
+    public static final int AUTOCOMPLETADO_LIMITE = 8;
+    public static final int AUTOCOMPLETADO_MAX_LIMITE = 10; // sugerencias guardadas por nodo del trie
+
     // ===== VALIDACIONES =====
     public static final int MIN_PASSWORD_LENGTH = 8;
     public static final int MAX_PASSWORD_LENGTH = 50;
@@ -0,0 +1,101 @@
+package com.example.PROYECTO.FINAL_WEB.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular acotado sin locks: varios productores, un solo consumidor.
+ * Cada celda lleva un número de secuencia que indica si está libre para el productor del turno
+ * o publicada para el consumidor; los productores compiten solo por un CAS sobre la cola.
+ * offer nunca bloquea: si el buffer está lleno devuelve false.
+ */
+public class BufferCircular<T> {
+
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong cola = new AtomicLong();
+    private final AtomicLong cabeza = new AtomicLong();
+
+    /**
+     * @param capacidad se redondea a la siguiente potencia de 2
+     */
+    public BufferCircular(int capacidad) {
+        if (capacidad < 2) {
+            throw new IllegalArgumentException("La capacidad debe ser al menos 2");
+        }
+        int tamanio = Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = tamanio - 1;
+        this.elementos = new AtomicReferenceArray<>(tamanio);
+        this.secuencias = new AtomicLongArray(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Publicar un elemento (cualquier hilo). Devuelve false si el buffer está lleno.
+     */
+    public boolean offer(T elemento) {
+        long posicion = cola.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(posicion, posicion + 1)) {
+                    elementos.lazySet(indice, elemento);
+                    secuencias.set(indice, posicion + 1);
+                    return true;
+                }
+                posicion = cola.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                posicion = cola.get();
+            }
+        }
+    }
+
+    /**
+     * Tomar el siguiente elemento publicado, o null si no hay (solo el hilo consumidor)
+     */
+    public T poll() {
+        long posicion = cabeza.get();
+        int indice = (int) (posicion & mascara);
+        if (secuencias.get(indice) != posicion + 1) {
+            return null;
+        }
+        T elemento = elementos.get(indice);
+        elementos.lazySet(indice, null);
+        secuencias.set(indice, posicion + mascara + 1);
+        cabeza.lazySet(posicion + 1);
+        return elemento;
+    }
+
+    /**
+     * Entregar hasta maximo elementos al consumidor (solo el hilo consumidor)
+     * @return cantidad entregada
+     */
+    public int drenar(Consumer<T> consumidor, int maximo) {
+        int entregados = 0;
+        T elemento;
+        while (entregados < maximo && (elemento = poll()) != null) {
+            consumidor.accept(elemento);
+            entregados++;
+        }
+        return entregados;
+    }
+
+    /**
+     * Cantidad aproximada de elementos pendientes
+     */
+    public int tamanio() {
+        return (int) Math.max(0, Math.min(cola.get() - cabeza.get(), mascara + 1L));
+    }
+
+    public int capacidad() {
+        return mascara + 1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.PROYECTO.FINAL_WEB.util;
+
+import com.example.PROYECTO.FINAL_WEB.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor de paginación por clave (keyset): campo y sentido del orden, valor de ese campo en la
+ * última fila entregada y su id como desempate. La página siguiente se pide con
+ * "campo después de valor, o igual y con id posterior", que recorre el índice desde ese punto
+ * en lugar de saltar filas con OFFSET. Viaja al cliente codificado en Base64 URL (opaco).
+ */
+public record CursorPaginacion(String campo, boolean ascendente, String valor, Long id) {
+
+    private static final String VERSION = "1";
+
+    public static CursorPaginacion de(String campo, boolean ascendente, Object valor, Long id) {
+        String texto = valor instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(valor);
+        return new CursorPaginacion(campo, ascendente, texto, id);
+    }
+
+    public String codificar() {
+        String plano = String.join("\n", VERSION, campo, ascendente ? "asc" : "desc", String.valueOf(id), valor);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorPaginacion decodificar(String cursor) {
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 5);
+            if (partes.length != 5 || !VERSION.equals(partes[0])) {
+                throw new BusinessException("Cursor de paginación inválido");
+            }
+            return new CursorPaginacion(partes[1], "asc".equals(partes[2]), partes[4], Long.valueOf(partes[3]));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * El cursor solo sirve para el mismo orden con el que se generó
+     */
+    public CursorPaginacion validarOrden(String campoEsperado, boolean ascendenteEsperado) {
+        if (!campo.equals(campoEsperado) || ascendente != ascendenteEsperado) {
+            throw new BusinessException("El cursor no corresponde al orden solicitado");
+        }
+        return this;
+    }
+
+    /**
+     * Valor del campo convertido al tipo de la columna
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T valorComo(Class<T> tipo) {
+        try {
+            if (tipo == String.class) {
+                return (T) valor;
+            }
+            if (tipo == LocalDateTime.class) {
+                return (T) LocalDateTime.parse(valor);
+            }
+            if (tipo == BigDecimal.class) {
+                return (T) new BigDecimal(valor);
+            }
+            if (tipo == Integer.class) {
+                return (T) Integer.valueOf(valor);
+            }
+            if (tipo == Long.class) {
+                return (T) Long.valueOf(valor);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+        throw new IllegalArgumentException("Tipo de cursor no soportado: " + tipo.getSimpleName());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.PROYECTO.FINAL_WEB.busqueda;
+
+import com.example.PROYECTO.FINAL_WEB.busqueda.TrieSugerencias.Clave;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrieSugerenciasTest {
+
+    @Test
+    void separaLosTramosDondeLasClavesDivergen() {
+        TrieSugerencias trie = TrieSugerencias.construir(List.of(
+                new Clave("casona", 1),
+                new Clave("cusco", 2),
+                new Clave("casa", 0),
+                new Clave("cas", 3)));
+        assertEquals(4, trie.cantidadClaves());
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, trie.buscar(""));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, trie.buscar("c"));
+        // "ca" termina dentro del tramo "as" del hijo: no hace falta llegar a un nodo
+        assertArrayEquals(new int[]{0, 1, 3}, trie.buscar("ca"));
+        assertArrayEquals(new int[]{0, 1, 3}, trie.buscar("cas"));
+        assertArrayEquals(new int[]{0}, trie.buscar("casa"));
+        assertArrayEquals(new int[]{1}, trie.buscar("caso"));
+        assertArrayEquals(new int[]{2}, trie.buscar("cu"));
+
+        assertArrayEquals(new int[0], trie.buscar("casx"));
+        assertArrayEquals(new int[0], trie.buscar("casonas"));
+        assertArrayEquals(new int[0], trie.buscar("x"));
+    }
+
+    @Test
+    void encuentraSugerenciasPorElPrefijoDeCualquierPalabra() {
+        List<Clave> claves = new ArrayList<>();
+        TrieSugerencias.agregarClaves("Casa Andina Cusco", 0, claves);
+        TrieSugerencias.agregarClaves("Hotel Cusco Plaza", 1, claves);
+        TrieSugerencias.agregarClaves("  Lima, Perú ", 2, claves);
+        TrieSugerencias trie = TrieSugerencias.construir(claves);
+
+        assertArrayEquals(new int[]{0, 1}, trie.buscar("cus"));
+        assertArrayEquals(new int[]{0}, trie.buscar("andina c"));
+        assertArrayEquals(new int[]{1}, trie.buscar("cusco p"));
+        assertArrayEquals(new int[]{0}, trie.buscar("casa andina cusco"));
+        assertArrayEquals(new int[]{2}, trie.buscar(TrieSugerencias.normalizar("PERÚ")));
+        assertArrayEquals(new int[0], trie.buscar("hotel cusco plaza hotel"));
+    }
+
+    @Test
+    void devuelveLasMejoresSugerenciasEnOrdenDeRanking() {
+        List<Clave> claves = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            claves.add(new Clave("hotel " + i, 14 - i));
+        }
+        // La mejor sugerencia tiene dos claves bajo el mismo prefijo y se devuelve una sola vez
+        claves.add(new Clave("hotel central", 0));
+        TrieSugerencias trie = TrieSugerencias.construir(claves);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, trie.buscar("hotel"));
+        assertEquals(TrieSugerencias.MAX_POR_NODO, trie.buscar("hotel ").length);
+        // "hotel 1" y "hotel 10".."hotel 14"
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 13}, trie.buscar("hotel 1"));
+        assertArrayEquals(new int[]{0}, trie.buscar("hotel c"));
+    }
+
+    @Test
+    void sinClavesDevuelveElTrieVacio() {
+        assertSame(TrieSugerencias.VACIO, TrieSugerencias.construir(List.of()));
+        assertSame(TrieSugerencias.VACIO, TrieSugerencias.construir(List.of(new Clave("", 0))));
+        assertArrayEquals(new int[0], TrieSugerencias.VACIO.buscar(""));
+        assertArrayEquals(new int[0], TrieSugerencias.VACIO.buscar("a"));
+    }
+}
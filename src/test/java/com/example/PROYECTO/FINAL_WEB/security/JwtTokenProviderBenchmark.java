@@ -0,0 +1,93 @@
+package com.example.PROYECTO.FINAL_WEB.security;
+
+import com.example.PROYECTO.FINAL_WEB.entity.Usuario;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de autenticar una petición con JWT.
+ * antes: clave y parser nuevos, validar y luego leer el email (dos verificaciones HS512)
+ * parseoUnico: parser reutilizado, una verificación por token distinto
+ * tokenCacheado: mismo token repetido, se resuelve desde la caché de tokens verificados
+ *
+ * Ejecutar: mvn test-compile y luego correr main() con el classpath de test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    private static final int TOKENS_DISTINTOS = 4096;
+
+    private JwtTokenProvider sinCache;
+    private JwtTokenProvider conCache;
+    private String[] tokens;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        sinCache = crearProvider(0);
+        conCache = crearProvider(10_000);
+        tokens = new String[TOKENS_DISTINTOS];
+        for (int i = 0; i < TOKENS_DISTINTOS; i++) {
+            Usuario usuario = Usuario.builder().email("usuario" + i + "@hotel.pe").rol("guest").build();
+            usuario.setId((long) i + 1);
+            tokens[i] = conCache.generateToken(usuario);
+        }
+    }
+
+    @Benchmark
+    public String antes() {
+        String token = tokens[siguienteIndice()];
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String parseoUnico() {
+        Claims claims = sinCache.getClaimsIfValid(tokens[siguienteIndice()]);
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String tokenCacheado() {
+        Claims claims = conCache.getClaimsIfValid(tokens[0]);
+        return claims.getSubject();
+    }
+
+    private int siguienteIndice() {
+        siguiente = (siguiente + 1) % TOKENS_DISTINTOS;
+        return siguiente;
+    }
+
+    private static JwtTokenProvider crearProvider(long maxTokensCacheados) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "maxTokensCacheados", maxTokensCacheados);
+        provider.init();
+        return provider;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opciones).run();
+    }
+}
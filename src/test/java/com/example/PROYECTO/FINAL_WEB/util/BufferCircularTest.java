@@ -0,0 +1,81 @@
+package com.example.PROYECTO.FINAL_WEB.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferCircularTest {
+
+    @Test
+    void rechazaCuandoEstaLlenoYLiberaEspacioAlConsumir() {
+        BufferCircular<Integer> buffer = new BufferCircular<>(3);
+        assertEquals(4, buffer.capacidad());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.tamanio());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+
+        List<Integer> drenados = new ArrayList<>();
+        assertEquals(4, buffer.drenar(drenados::add, 10));
+        assertEquals(List.of(1, 2, 3, 4), drenados);
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void entregaCadaElementoUnaSolaVezConVariosProductores() throws InterruptedException {
+        int productores = 4;
+        int porProductor = 50_000;
+        BufferCircular<Integer> buffer = new BufferCircular<>(1024);
+        CountDownLatch inicio = new CountDownLatch(1);
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int p = 0; p < productores; p++) {
+            int base = p * porProductor;
+            Thread hilo = new Thread(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < porProductor; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            hilo.start();
+            hilos.add(hilo);
+        }
+
+        BitSet vistos = new BitSet();
+        int total = productores * porProductor;
+        int recibidos = 0;
+        inicio.countDown();
+        while (recibidos < total) {
+            Integer valor = buffer.poll();
+            if (valor == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertFalse(vistos.get(valor), "elemento duplicado: " + valor);
+            vistos.set(valor);
+            recibidos++;
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        assertEquals(total, vistos.cardinality());
+        assertNull(buffer.poll());
+    }
+}